@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.benchmark;
+
+import org.chalup.microorm.MicroOrm;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+
+/**
+ * Prints the heap memory retained by the adapters created for the generated
+ * entity classes (see {@link EntityClassGenerator}). This includes the
+ * reflection data cached by the JVM for the entity classes.
+ *
+ * <p>
+ * Usage: {@code AdapterFootprint [classCount] [hierarchyDepth] [embeddedDepth]}
+ * </p>
+ */
+public final class AdapterFootprint {
+  private AdapterFootprint() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    int classCount = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+    int hierarchyDepth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    int embeddedDepth = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+    File classesDir = EntityClassGenerator.generate(classCount, hierarchyDepth, embeddedDepth);
+    List<Class<?>> classes = EntityClassGenerator.load(classesDir, classCount);
+
+    long before = usedHeapAfterGc();
+    MicroOrm microOrm = new MicroOrm();
+    for (Class<?> klass : classes) {
+      microOrm.getProjection(klass);
+    }
+    long after = usedHeapAfterGc();
+
+    System.out.printf("%d classes (hierarchy depth %d, embedded depth %d): %d bytes retained, %d bytes per class%n",
+        classCount, hierarchyDepth, embeddedDepth, after - before, (after - before) / classCount);
+
+    // keep the adapters reachable until the measurement is done
+    System.out.println(microOrm.getProjection(classes.get(0)).length + " columns in the first class");
+  }
+
+  private static long usedHeapAfterGc() throws InterruptedException {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
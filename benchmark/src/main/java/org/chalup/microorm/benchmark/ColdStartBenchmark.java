@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.benchmark;
+
+import org.chalup.microorm.MicroOrm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time of creating the adapters for many entity classes when
+ * they are used for the first time, e.g. during the application startup.
+ * The classes are loaded anew before each iteration, so the JVM caches of
+ * reflection data are cold, but the class loading itself is not measured.
+ *
+ * @see AdapterFootprint for the memory retained by the adapters
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class ColdStartBenchmark {
+
+  @Param({ "300" })
+  public int classCount;
+
+  @Param({ "1", "4" })
+  public int hierarchyDepth;
+
+  @Param({ "0", "2" })
+  public int embeddedDepth;
+
+  private File mClassesDir;
+  private List<Class<?>> mClasses;
+
+  @Setup(Level.Trial)
+  public void generateClasses() throws Exception {
+    mClassesDir = EntityClassGenerator.generate(classCount, hierarchyDepth, embeddedDepth);
+  }
+
+  @Setup(Level.Iteration)
+  public void loadClasses() throws Exception {
+    mClasses = EntityClassGenerator.load(mClassesDir, classCount);
+  }
+
+  @Benchmark
+  public MicroOrm buildAdapters() {
+    MicroOrm microOrm = new MicroOrm();
+    for (Class<?> klass : mClasses) {
+      microOrm.getProjection(klass);
+    }
+    return microOrm;
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.benchmark;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.database.MatrixCursor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link MicroOrm#fromCursor(android.database.Cursor, Class)}
+ * called on a single {@link MicroOrm} instance from multiple threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ConcurrentFromCursorBenchmark {
+
+  public static class Entity {
+    @Column("id")
+    private long mId;
+
+    @Column("name")
+    private String mName;
+
+    @Column("price")
+    private Double mPrice;
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadCursor {
+    MatrixCursor mCursor;
+
+    @Setup
+    public void setUp() {
+      mCursor = new MatrixCursor(new String[] { "id", "name", "price" });
+      mCursor.addRow(new Object[] { 42L, "name", 4.2 });
+      mCursor.moveToFirst();
+    }
+  }
+
+  @Param({ "false", "true" })
+  public boolean weakClassKeys;
+
+  private MicroOrm mMicroOrm;
+
+  @Setup
+  public void setUp() {
+    MicroOrm.Builder builder = new MicroOrm.Builder();
+    if (weakClassKeys) {
+      builder.weakClassKeys();
+    }
+    mMicroOrm = builder.build();
+  }
+
+  @Benchmark
+  public Entity fromCursor(ThreadCursor threadCursor) {
+    return mMicroOrm.fromCursor(threadCursor.mCursor, Entity.class);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.benchmark;
+
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+
+/**
+ * Entity shapes used by the benchmarks, modelled after the test fixtures.
+ */
+public final class Entities {
+  private Entities() {
+  }
+
+  public enum Shape {
+    PRIMITIVES(Primitives.class, 0),
+    BOXED(Boxed.class, 4),
+    EMBEDDED(EmbeddedChain.class, 0),
+    SUPERCLASS(Subclass.class, 0);
+
+    public final Class<?> mKlass;
+    public final int mNullEvery;
+
+    Shape(Class<?> klass, int nullEvery) {
+      mKlass = klass;
+      mNullEvery = nullEvery;
+    }
+  }
+
+  public static class Primitives {
+    @Column("short_column")
+    private short mShort;
+
+    @Column("int_column")
+    private int mInt;
+
+    @Column("long_column")
+    private long mLong;
+
+    @Column("float_column")
+    private float mFloat;
+
+    @Column("double_column")
+    private double mDouble;
+
+    @Column("boolean_column")
+    private boolean mBoolean;
+  }
+
+  public static class Boxed {
+    @Column("short_column")
+    private Short mShort;
+
+    @Column("int_column")
+    private Integer mInt;
+
+    @Column("long_column")
+    private Long mLong;
+
+    @Column("float_column")
+    private Float mFloat;
+
+    @Column("double_column")
+    private Double mDouble;
+
+    @Column("boolean_column")
+    private Boolean mBoolean;
+
+    @Column("string_column")
+    private String mString;
+  }
+
+  public static class EmbeddedChain {
+    @Column("id")
+    private long mId;
+
+    @Embedded
+    private EmbeddedLevel1 mLevel1;
+  }
+
+  public static class EmbeddedLevel1 {
+    @Column("level1_name")
+    private String mName;
+
+    @Embedded
+    private EmbeddedLevel2 mLevel2;
+  }
+
+  public static class EmbeddedLevel2 {
+    @Column("level2_name")
+    private String mName;
+
+    @Column("level2_value")
+    private int mValue;
+  }
+
+  public static class BaseClass {
+    @Column("id")
+    private long mId;
+
+    @Column("created_at")
+    private long mCreatedAt;
+  }
+
+  public static class Subclass extends BaseClass {
+    @Column("name")
+    private String mName;
+
+    @Column("price")
+    private double mPrice;
+  }
+}
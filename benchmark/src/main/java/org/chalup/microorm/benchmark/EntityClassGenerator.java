@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.benchmark;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates and compiles the source code of many entity classes with class
+ * hierarchies and trees of {@code @Embedded} objects. Every call to
+ * {@link #load(File, int)} loads the classes with a new {@link ClassLoader},
+ * so the JVM caches of reflection data and annotations are always cold.
+ * Requires the JDK, because the classes are compiled at runtime.
+ */
+public final class EntityClassGenerator {
+  private static final String PACKAGE = "org.chalup.microorm.benchmark.generated";
+
+  private EntityClassGenerator() {
+  }
+
+  /**
+   * @return the directory containing the compiled entity classes
+   */
+  public static File generate(int classCount, int hierarchyDepth, int embeddedDepth) throws IOException {
+    File sourcesDir = Files.createTempDir();
+    File classesDir = Files.createTempDir();
+
+    List<String> arguments = Lists.newArrayList(
+        "-nowarn",
+        "-classpath", System.getProperty("java.class.path"),
+        "-d", classesDir.getAbsolutePath());
+
+    for (int i = 0; i < classCount; i++) {
+      for (int depth = 0; depth < hierarchyDepth; depth++) {
+        String superclass = depth > 0 ? baseName(i, depth - 1) : null;
+        arguments.add(write(sourcesDir, baseName(i, depth), superclass, "base" + depth, null));
+      }
+      for (int depth = 0; depth < embeddedDepth; depth++) {
+        String embedded = depth + 1 < embeddedDepth ? partName(i, depth + 1) : null;
+        arguments.add(write(sourcesDir, partName(i, depth), null, "part" + depth, embedded));
+      }
+      String superclass = hierarchyDepth > 0 ? baseName(i, hierarchyDepth - 1) : null;
+      String embedded = embeddedDepth > 0 ? partName(i, 0) : null;
+      arguments.add(write(sourcesDir, entityName(i), superclass, "entity", embedded));
+    }
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("The entity classes can be generated only when running on JDK");
+    }
+    if (compiler.run(null, null, null, arguments.toArray(new String[arguments.size()])) != 0) {
+      throw new IllegalStateException("Cannot compile the generated entity classes");
+    }
+    return classesDir;
+  }
+
+  /**
+   * @return the entity classes loaded with a new {@link ClassLoader}
+   */
+  public static List<Class<?>> load(File classesDir, int classCount) throws IOException, ClassNotFoundException {
+    ClassLoader classLoader = new URLClassLoader(
+        new URL[] { classesDir.toURI().toURL() },
+        EntityClassGenerator.class.getClassLoader());
+
+    List<Class<?>> classes = Lists.newArrayListWithCapacity(classCount);
+    for (int i = 0; i < classCount; i++) {
+      classes.add(Class.forName(PACKAGE + "." + entityName(i), true, classLoader));
+    }
+    return classes;
+  }
+
+  private static String entityName(int index) {
+    return "Entity" + index;
+  }
+
+  private static String baseName(int index, int depth) {
+    return "Entity" + index + "Base" + depth;
+  }
+
+  private static String partName(int index, int depth) {
+    return "Entity" + index + "Part" + depth;
+  }
+
+  private static String write(File sourcesDir, String className, String superclass, String columnPrefix, String embeddedClass) throws IOException {
+    StringBuilder builder = new StringBuilder();
+    builder.append("package ").append(PACKAGE).append(";\n\n");
+    builder.append("import org.chalup.microorm.annotations.Column;\n");
+    builder.append("import org.chalup.microorm.annotations.Embedded;\n\n");
+    builder.append("public class ").append(className);
+    if (superclass != null) {
+      builder.append(" extends ").append(superclass);
+    }
+    builder.append(" {\n");
+    builder.append("  @Column(\"").append(columnPrefix).append("_id\") private long mId;\n");
+    builder.append("  @Column(\"").append(columnPrefix).append("_name\") private String mName;\n");
+    builder.append("  @Column(\"").append(columnPrefix).append("_price\") private Double mPrice;\n");
+    builder.append("  @Column(\"").append(columnPrefix).append("_count\") private int mCount;\n");
+    builder.append("  @Column(\"").append(columnPrefix).append("_active\") private boolean mActive;\n");
+    builder.append("  private String mNotAColumn;\n");
+    if (embeddedClass != null) {
+      builder.append("  @Embedded private ").append(embeddedClass).append(" mEmbedded;\n");
+    }
+    builder.append("}\n");
+
+    File file = new File(sourcesDir, className + ".java");
+    Files.write(builder, file, Charsets.UTF_8);
+    return file.getAbsolutePath();
+  }
+}
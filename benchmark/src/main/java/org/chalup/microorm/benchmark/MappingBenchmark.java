@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.benchmark;
+
+import com.google.common.base.Function;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.benchmark.Entities.Shape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the mapping hot paths for different entity
+ * shapes. All results are normalized per row, so running this benchmark
+ * with {@code -prof gc} reports the bytes allocated per row in the
+ * {@code gc.alloc.rate.norm} column.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class MappingBenchmark {
+  private static final int ROW_COUNT = 1000;
+
+  @Param
+  public Shape shape;
+
+  private MicroOrm mMicroOrm;
+  private SyntheticCursor mCursor;
+  private Function<Cursor, ?> mFunction;
+  private Function<Cursor, Long> mColumnFunction;
+  private Object mObject;
+
+  @Setup
+  public void setUp() {
+    mMicroOrm = new MicroOrm();
+    mCursor = new SyntheticCursor(mMicroOrm.getProjection(shape.mKlass), ROW_COUNT, shape.mNullEvery);
+    mCursor.moveToFirst();
+
+    mFunction = mMicroOrm.getFunctionFor(shape.mKlass);
+    mColumnFunction = mMicroOrm.getColumn(mCursor.getColumnName(0)).as(Long.class);
+    mObject = mMicroOrm.fromCursor(mCursor, shape.mKlass);
+  }
+
+  private void nextRow() {
+    if (!mCursor.moveToNext()) {
+      mCursor.moveToFirst();
+    }
+  }
+
+  @Benchmark
+  public Object fromCursor() {
+    nextRow();
+    return mMicroOrm.fromCursor(mCursor, shape.mKlass);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROW_COUNT)
+  public List<?> listFromCursor() {
+    return mMicroOrm.listFromCursor(mCursor, shape.mKlass);
+  }
+
+  @Benchmark
+  public Object getFunctionFor() {
+    nextRow();
+    return mFunction.apply(mCursor);
+  }
+
+  @Benchmark
+  public Long getColumnAs() {
+    nextRow();
+    return mColumnFunction.apply(mCursor);
+  }
+
+  @Benchmark
+  public ContentValues toContentValues() {
+    return mMicroOrm.toContentValues(mObject);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.benchmark;
+
+import org.chalup.microorm.ColumnTable;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.database.MatrixCursor;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link MicroOrm#listFromCursor(android.database.Cursor, Class)}
+ * with {@link MicroOrm#parallelListFromCursor(android.database.Cursor, Class, java.util.concurrent.Executor, int)}
+ * for different numbers of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ParallelListFromCursorBenchmark {
+
+  public static class Entity {
+    @Column("id")
+    private long mId;
+
+    @Column("name")
+    private String mName;
+
+    @Column("price")
+    private Double mPrice;
+
+    @Column("quantity")
+    private int mQuantity;
+
+    @Column("active")
+    private boolean mActive;
+  }
+
+  @Param({ "1000", "10000", "100000" })
+  public int rowCount;
+
+  @Param({ "1", "2", "4", "8" })
+  public int threads;
+
+  private MicroOrm mMicroOrm;
+  private MatrixCursor mCursor;
+  private ExecutorService mExecutor;
+
+  @Setup
+  public void setUp() {
+    mMicroOrm = new MicroOrm();
+    mExecutor = Executors.newFixedThreadPool(threads);
+
+    mCursor = new MatrixCursor(new String[] { "id", "name", "price", "quantity", "active" }, rowCount);
+    for (int i = 0; i < rowCount; i++) {
+      mCursor.addRow(new Object[] { (long) i, "name" + i, i * 0.5, i % 100, i % 2 });
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    mExecutor.shutdown();
+  }
+
+  @Benchmark
+  public List<Entity> listFromCursor() {
+    return mMicroOrm.listFromCursor(mCursor, Entity.class);
+  }
+
+  /**
+   * The part of {@link #parallelListFromCursor()} always done by the calling
+   * thread, which limits the possible speedup.
+   */
+  @Benchmark
+  public ColumnTable columnsFromCursor() {
+    return mMicroOrm.columnsFromCursor(mCursor, Entity.class);
+  }
+
+  @Benchmark
+  public List<Entity> parallelListFromCursor() {
+    return mMicroOrm.parallelListFromCursor(mCursor, Entity.class, mExecutor, threads);
+  }
+}
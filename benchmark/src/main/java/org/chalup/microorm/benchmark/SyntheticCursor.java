@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.benchmark;
+
+import android.database.AbstractCursor;
+
+/**
+ * Read-only {@link android.database.Cursor} with deterministic contents,
+ * which doesn't allocate anything when the values are read. Every column
+ * can be read with any getter: numeric getters return values derived from
+ * the row and column numbers, and {@link #getString(int)} returns one of the
+ * precomputed strings. Every {@code nullEvery}-th row contains only nulls.
+ */
+public class SyntheticCursor extends AbstractCursor {
+  private final String[] mColumnNames;
+  private final int mRowCount;
+  private final int mNullEvery;
+  private final String[] mStrings;
+
+  public SyntheticCursor(String[] columnNames, int rowCount, int nullEvery) {
+    mColumnNames = columnNames;
+    mRowCount = rowCount;
+    mNullEvery = nullEvery;
+
+    mStrings = new String[rowCount];
+    for (int i = 0; i < rowCount; i++) {
+      mStrings[i] = "value" + i;
+    }
+  }
+
+  @Override
+  public int getCount() {
+    return mRowCount;
+  }
+
+  @Override
+  public String[] getColumnNames() {
+    return mColumnNames;
+  }
+
+  @Override
+  public String getString(int column) {
+    return isNull(column) ? null : mStrings[mPos];
+  }
+
+  @Override
+  public short getShort(int column) {
+    return (short) getLong(column);
+  }
+
+  @Override
+  public int getInt(int column) {
+    return (int) getLong(column);
+  }
+
+  @Override
+  public long getLong(int column) {
+    return isNull(column) ? 0 : mPos * 31L + column;
+  }
+
+  @Override
+  public float getFloat(int column) {
+    return getLong(column) + 0.5f;
+  }
+
+  @Override
+  public double getDouble(int column) {
+    return getLong(column) + 0.5;
+  }
+
+  @Override
+  public boolean isNull(int column) {
+    return mNullEvery > 0 && mPos % mNullEvery == mNullEvery - 1;
+  }
+}
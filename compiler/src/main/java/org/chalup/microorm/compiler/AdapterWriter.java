@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.compiler;
+
+import org.chalup.microorm.compiler.Entity.ColumnKind;
+import org.chalup.microorm.compiler.Entity.ColumnMember;
+import org.chalup.microorm.compiler.Entity.EmbeddedMember;
+import org.chalup.microorm.compiler.Entity.Member;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class AdapterWriter {
+  private final String mPackageName;
+  private final String mAdapterName;
+  private final Entity mEntity;
+
+  private final List<String> mProjection = new ArrayList<>();
+  private final List<String> mWritableColumns = new ArrayList<>();
+  // type adapter field names by their initializers, and their types
+  private final Map<String, String> mTypeAdapterFields = new LinkedHashMap<>();
+  private final Map<String, String> mTypeAdapterTypes = new LinkedHashMap<>();
+  private final List<ColumnMember> mInternedColumns = new ArrayList<>();
+
+  private int mVariableCount;
+  private boolean mHasLazyColumns;
+
+  AdapterWriter(String packageName, String adapterName, Entity entity) {
+    mPackageName = packageName;
+    mAdapterName = adapterName;
+    mEntity = entity;
+
+    collectColumns(entity);
+  }
+
+  private void collectColumns(Entity entity) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        EmbeddedMember embedded = (EmbeddedMember) member;
+        embedded.mProjectionStart = mProjection.size();
+        collectColumns(embedded.mEntity);
+        embedded.mProjectionEnd = mProjection.size();
+        continue;
+      }
+
+      ColumnMember column = (ColumnMember) member;
+      if (column.mLazy) {
+        mHasLazyColumns = true;
+      } else {
+        column.mProjectionIndex = mProjection.size();
+        mProjection.add(column.mColumnName);
+      }
+      if (!column.mReadonly) {
+        column.mWritableIndex = mWritableColumns.size();
+        mWritableColumns.add(column.mColumnName);
+      }
+      if (column.mKind == ColumnKind.CUSTOM) {
+        String initializer;
+        if (column.mEnumStorage != null) {
+          initializer = "getEnumAdapter(microOrm, " + column.mCustomTypeName + ".class, " + MicroOrmProcessor.ENUM_STORAGE + "." + column.mEnumStorage + ")";
+        } else if (column.mLazyValueTypeName != null) {
+          initializer = "getLazyValueAdapter(microOrm, " + column.mLazyValueTypeName + ".class)";
+        } else {
+          initializer = "getTypeAdapter(microOrm, " + column.mCustomTypeName + ".class)";
+        }
+        if (!mTypeAdapterFields.containsKey(initializer)) {
+          String field = "mTypeAdapter" + mTypeAdapterFields.size();
+          mTypeAdapterFields.put(initializer, field);
+          mTypeAdapterTypes.put(field, column.mCustomTypeName);
+        }
+        column.mTypeAdapterField = mTypeAdapterFields.get(initializer);
+      }
+      if (column.mIntern != null) {
+        // every interned column has its own adapter
+        column.mTypeAdapterField = "mInterningAdapter" + mInternedColumns.size();
+        mInternedColumns.add(column);
+      }
+    }
+  }
+
+  List<String> getWritableColumns() {
+    return mWritableColumns;
+  }
+
+  String brewJava() {
+    String type = mEntity.mTypeName;
+    StringBuilder builder = new StringBuilder();
+
+    builder.append("// Generated code from MicroOrm. Do not modify!\n");
+    if (!mPackageName.isEmpty()) {
+      builder.append("package ").append(mPackageName).append(";\n\n");
+    }
+    builder.append("import android.content.ContentValues;\n");
+    builder.append("import android.database.Cursor;\n");
+    builder.append("import android.database.sqlite.SQLiteProgram;\n");
+    builder.append("import org.chalup.microorm.GeneratedDaoAdapter;\n");
+    builder.append("import org.chalup.microorm.MicroOrm;\n");
+    builder.append("import org.chalup.microorm.TypeAdapter;\n\n");
+
+    builder.append("public final class ").append(mAdapterName).append(" extends GeneratedDaoAdapter<").append(type).append("> {\n");
+    builder.append("  private static final String[] PROJECTION = ").append(arrayLiteral(mProjection)).append(";\n");
+    builder.append("  private static final String[] WRITABLE_COLUMNS = ").append(arrayLiteral(mWritableColumns)).append(";\n\n");
+
+    for (Map.Entry<String, String> entry : mTypeAdapterTypes.entrySet()) {
+      builder.append("  private final TypeAdapter<").append(entry.getValue()).append("> ").append(entry.getKey()).append(";\n");
+    }
+    for (ColumnMember column : mInternedColumns) {
+      builder.append("  private final TypeAdapter<String> ").append(column.mTypeAdapterField).append(";\n");
+    }
+    if (mHasLazyColumns) {
+      builder.append("  private final MicroOrm mMicroOrm;\n");
+    }
+    if (!mTypeAdapterFields.isEmpty() || !mInternedColumns.isEmpty() || mHasLazyColumns) {
+      builder.append("\n");
+    }
+
+    builder.append("  public ").append(mAdapterName).append("(MicroOrm microOrm) {\n");
+    builder.append("    super(PROJECTION, WRITABLE_COLUMNS);\n");
+    if (mHasLazyColumns) {
+      builder.append("    mMicroOrm = microOrm;\n");
+    }
+    for (Map.Entry<String, String> entry : mTypeAdapterFields.entrySet()) {
+      builder.append("    ").append(entry.getValue()).append(" = ").append(entry.getKey()).append(";\n");
+    }
+    for (ColumnMember column : mInternedColumns) {
+      builder.append("    ").append(column.mTypeAdapterField).append(" = getInterningAdapter(microOrm, ").append(MicroOrmProcessor.INTERN).append(".").append(column.mIntern).append(");\n");
+    }
+    builder.append("  }\n\n");
+
+    builder.append("  @Override\n");
+    builder.append("  public ").append(type).append(" createInstance() {\n");
+    builder.append("    ").append(type).append(" instance = new ").append(type).append("();\n");
+    emitCreateEmbedded(builder, mEntity, "instance", "    ");
+    builder.append("    return instance;\n");
+    builder.append("  }\n\n");
+
+    builder.append("  @Override\n");
+    builder.append("  public ").append(type).append(" fromCursor(Cursor c, int[] columnIndexes, int offset, ").append(type).append(" object) {\n");
+    emitRead(builder, mEntity, "object", "    ");
+    builder.append("    return object;\n");
+    builder.append("  }\n\n");
+
+    builder.append("  @Override\n");
+    builder.append("  public ").append(type).append(" recycleFromCursor(Cursor c, int[] columnIndexes, int offset, ").append(type).append(" object) {\n");
+    emitRecycle(builder, mEntity, "object", "    ");
+    builder.append("    return object;\n");
+    builder.append("  }\n\n");
+
+    builder.append("  @Override\n");
+    builder.append("  public ContentValues toContentValues(ContentValues values, ").append(type).append(" object) {\n");
+    emitWrite(builder, mEntity, "object", "    ");
+    builder.append("    return values;\n");
+    builder.append("  }\n");
+
+    builder.append("\n");
+    builder.append("  @Override\n");
+    builder.append("  public boolean bindToStatement(SQLiteProgram program, int index, ").append(type).append(" object) {\n");
+    builder.append("    if (object == null) {\n");
+    emitBindNulls(builder, mEntity, "      ");
+    builder.append("    }\n");
+    emitBind(builder, mEntity, "object", "    ");
+    builder.append("    return true;\n");
+    builder.append("  }\n");
+
+    builder.append("\n");
+    builder.append("  @Override\n");
+    builder.append("  public void snapshotValues(").append(type).append(" object, Object[] values, int index) {\n");
+    builder.append("    if (object == null) {\n");
+    emitSnapshotNulls(builder, mEntity, "      ");
+    builder.append("      return;\n");
+    builder.append("    }\n");
+    emitSnapshot(builder, mEntity, "object", "    ");
+    builder.append("  }\n");
+
+    builder.append("}\n");
+    return builder.toString();
+  }
+
+  private void emitCreateEmbedded(StringBuilder builder, Entity entity, String target, String indent) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        if (((EmbeddedMember) member).mNullIfAllNull) {
+          continue;
+        }
+        Entity embedded = ((EmbeddedMember) member).mEntity;
+        String variable = newVariable();
+        builder.append(indent).append(embedded.mTypeName).append(" ").append(variable).append(" = new ").append(embedded.mTypeName).append("();\n");
+        emitCreateEmbedded(builder, embedded, variable, indent);
+        builder.append(indent).append(member.access(entity, target)).append(" = ").append(variable).append(";\n");
+      }
+    }
+  }
+
+  private void emitRead(StringBuilder builder, Entity entity, String target, String indent) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        EmbeddedMember embeddedMember = (EmbeddedMember) member;
+        Entity embedded = embeddedMember.mEntity;
+        String innerIndent = indent;
+        if (embeddedMember.mNullIfAllNull) {
+          emitIfAllNull(builder, embeddedMember, indent);
+          builder.append(indent).append("  ").append(member.access(entity, target)).append(" = null;\n");
+          builder.append(indent).append("} else {\n");
+          innerIndent = indent + "  ";
+        }
+        String variable = newVariable();
+        builder.append(innerIndent).append(embedded.mTypeName).append(" ").append(variable).append(" = new ").append(embedded.mTypeName).append("();\n");
+        emitRead(builder, embedded, variable, innerIndent);
+        builder.append(innerIndent).append(member.access(entity, target)).append(" = ").append(variable).append(";\n");
+        if (embeddedMember.mNullIfAllNull) {
+          builder.append(indent).append("}\n");
+        }
+      } else {
+        emitReadColumn(builder, entity, (ColumnMember) member, target, indent);
+      }
+    }
+    emitResetLazyColumns(builder, entity, target, indent);
+  }
+
+  private void emitRecycle(StringBuilder builder, Entity entity, String target, String indent) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        EmbeddedMember embeddedMember = (EmbeddedMember) member;
+        Entity embedded = embeddedMember.mEntity;
+        String field = member.access(entity, target);
+        String innerIndent = indent;
+        if (embeddedMember.mNullIfAllNull) {
+          emitIfAllNull(builder, embeddedMember, indent);
+          builder.append(indent).append("  ").append(field).append(" = null;\n");
+          builder.append(indent).append("} else {\n");
+          innerIndent = indent + "  ";
+        }
+        String variable = newVariable();
+        builder.append(innerIndent).append(embedded.mTypeName).append(" ").append(variable).append(" = ").append(field).append(";\n");
+        builder.append(innerIndent).append("if (").append(variable).append(" == null) {\n");
+        builder.append(innerIndent).append("  ").append(variable).append(" = new ").append(embedded.mTypeName).append("();\n");
+        builder.append(innerIndent).append("  ").append(field).append(" = ").append(variable).append(";\n");
+        builder.append(innerIndent).append("}\n");
+        emitRecycle(builder, embedded, variable, innerIndent);
+        if (embeddedMember.mNullIfAllNull) {
+          builder.append(indent).append("}\n");
+        }
+      } else {
+        emitReadColumn(builder, entity, (ColumnMember) member, target, indent);
+      }
+    }
+    emitResetLazyColumns(builder, entity, target, indent);
+  }
+
+  private static void emitResetLazyColumns(StringBuilder builder, Entity entity, String target, String indent) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof ColumnMember && ((ColumnMember) member).mLazy) {
+        builder.append(indent).append("resetLazyColumns(mMicroOrm, ").append(target).append(");\n");
+        return;
+      }
+    }
+  }
+
+  private static void emitIfAllNull(StringBuilder builder, EmbeddedMember embedded, String indent) {
+    builder.append(indent).append("if (allNull(c, columnIndexes, offset + ").append(embedded.mProjectionStart).append(", offset + ").append(embedded.mProjectionEnd).append(")) {\n");
+  }
+
+  private void emitReadColumn(StringBuilder builder, Entity entity, ColumnMember column, String target, String indent) {
+    if (column.mLazy) {
+      // loaded by LazyLoader, the value for the previous row must not be kept
+      builder.append(indent).append(column.access(entity, target)).append(" = null;\n");
+      return;
+    }
+    String columnIndex = "columnIndexes[offset + " + column.mProjectionIndex + "]";
+    String field = column.access(entity, target);
+    String read;
+    if (column.mKind == ColumnKind.CUSTOM) {
+      // the type adapter might reuse the current value, e.g. an array
+      read = "readColumn(" + column.mTypeAdapterField + ", c, " + columnIndex + ", " + stringLiteral(column.mColumnName) + ", " + field + ")";
+    } else if (column.mTypeAdapterField != null) {
+      read = "readColumn(" + column.mTypeAdapterField + ", c, " + columnIndex + ", " + stringLiteral(column.mColumnName) + ")";
+    } else {
+      read = String.format(column.mKind.mReadFormat, columnIndex);
+    }
+    builder.append(indent).append(field).append(" = ").append(read).append(";\n");
+  }
+
+  private void emitWrite(StringBuilder builder, Entity entity, String target, String indent) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        Entity embedded = ((EmbeddedMember) member).mEntity;
+        String variable = newVariable();
+        builder.append(indent).append(embedded.mTypeName).append(" ").append(variable).append(" = ").append(member.access(entity, target)).append(";\n");
+        builder.append(indent).append("if (").append(variable).append(" != null) {\n");
+        emitWrite(builder, embedded, variable, indent + "  ");
+        builder.append(indent).append("} else {\n");
+        emitWriteNulls(builder, embedded, indent + "  ");
+        builder.append(indent).append("}\n");
+        continue;
+      }
+
+      ColumnMember column = (ColumnMember) member;
+      if (column.mReadonly) {
+        continue;
+      }
+
+      String value = column.access(entity, target);
+      String put = column.mKind == ColumnKind.CUSTOM
+          ? column.mTypeAdapterField + ".toContentValues(values, " + stringLiteral(column.mColumnName) + ", " + value + ");\n"
+          : "values.put(" + stringLiteral(column.mColumnName) + ", " + value + ");\n";
+      emitWriteColumn(builder, column, target, value, put, indent);
+    }
+  }
+
+  private static void emitWriteColumn(StringBuilder builder, ColumnMember column, String target, String value, String put, String indent) {
+    String condition = null;
+    if (column.mLazy) {
+      // the lazy column which wasn't loaded must not overwrite the stored value
+      condition = "!isLazyColumnSkipped(mMicroOrm, " + target + ", " + value + ")";
+    }
+    if (column.mTreatNullAsDefault) {
+      String notNull = value + " != null";
+      condition = condition != null ? condition + " && " + notNull : notNull;
+    }
+    if (condition != null) {
+      builder.append(indent).append("if (").append(condition).append(") {\n");
+      builder.append(indent).append("  ").append(put);
+      builder.append(indent).append("}\n");
+    } else {
+      builder.append(indent).append(put);
+    }
+  }
+
+  private void emitWriteNulls(StringBuilder builder, Entity entity, String indent) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        emitWriteNulls(builder, ((EmbeddedMember) member).mEntity, indent);
+        continue;
+      }
+
+      ColumnMember column = (ColumnMember) member;
+      if (column.mReadonly || column.mTreatNullAsDefault) {
+        continue;
+      }
+      if (column.mKind == ColumnKind.CUSTOM) {
+        builder.append(indent).append(column.mTypeAdapterField).append(".toContentValues(values, ").append(stringLiteral(column.mColumnName)).append(", null);\n");
+      } else {
+        builder.append(indent).append("values.putNull(").append(stringLiteral(column.mColumnName)).append(");\n");
+      }
+    }
+  }
+
+  private void emitSnapshot(StringBuilder builder, Entity entity, String target, String indent) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        Entity embedded = ((EmbeddedMember) member).mEntity;
+        String variable = newVariable();
+        builder.append(indent).append(embedded.mTypeName).append(" ").append(variable).append(" = ").append(member.access(entity, target)).append(";\n");
+        builder.append(indent).append("if (").append(variable).append(" != null) {\n");
+        emitSnapshot(builder, embedded, variable, indent + "  ");
+        builder.append(indent).append("} else {\n");
+        emitSnapshotNulls(builder, embedded, indent + "  ");
+        builder.append(indent).append("}\n");
+        continue;
+      }
+
+      ColumnMember column = (ColumnMember) member;
+      if (column.mReadonly) {
+        continue;
+      }
+
+      String value = column.access(entity, target);
+      emitWriteColumn(builder, column, target, value, snapshotColumn(column, value), indent);
+    }
+  }
+
+  private static void emitSnapshotNulls(StringBuilder builder, Entity entity, String indent) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        emitSnapshotNulls(builder, ((EmbeddedMember) member).mEntity, indent);
+        continue;
+      }
+
+      ColumnMember column = (ColumnMember) member;
+      if (column.mReadonly || column.mTreatNullAsDefault) {
+        continue;
+      }
+      builder.append(indent).append(snapshotColumn(column, "null"));
+    }
+  }
+
+  private static String snapshotColumn(ColumnMember column, String value) {
+    String index = "index + " + column.mWritableIndex;
+    // the custom values are converted, so the changes made in place are detected
+    return column.mKind == ColumnKind.CUSTOM
+        ? "snapshotColumn(" + column.mTypeAdapterField + ", values, " + index + ", " + stringLiteral(column.mColumnName) + ", " + value + ");\n"
+        : "values[" + index + "] = " + value + ";\n";
+  }
+
+  private void emitBind(StringBuilder builder, Entity entity, String target, String indent) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        Entity embedded = ((EmbeddedMember) member).mEntity;
+        String variable = newVariable();
+        builder.append(indent).append(embedded.mTypeName).append(" ").append(variable).append(" = ").append(member.access(entity, target)).append(";\n");
+        builder.append(indent).append("if (").append(variable).append(" == null) {\n");
+        if (hasNullAsDefaultColumns(embedded)) {
+          builder.append(indent).append("  return false;\n");
+        } else {
+          emitBindNullColumns(builder, embedded, indent + "  ");
+        }
+        builder.append(indent).append("} else {\n");
+        emitBind(builder, embedded, variable, indent + "  ");
+        builder.append(indent).append("}\n");
+        continue;
+      }
+
+      ColumnMember column = (ColumnMember) member;
+      if (column.mReadonly) {
+        continue;
+      }
+
+      String value = column.access(entity, target);
+      String index = "index + " + column.mWritableIndex;
+      if (column.mLazy) {
+        builder.append(indent).append("if (isLazyColumnSkipped(mMicroOrm, ").append(target).append(", ").append(value).append(")) {\n");
+        builder.append(indent).append("  return false;\n");
+        builder.append(indent).append("}\n");
+      }
+      if (column.mTreatNullAsDefault) {
+        builder.append(indent).append("if (").append(value).append(" == null) {\n");
+        builder.append(indent).append("  return false;\n");
+        builder.append(indent).append("}\n");
+      }
+      if (column.mKind == ColumnKind.CUSTOM) {
+        builder.append(indent).append("bindColumn(").append(column.mTypeAdapterField).append(", program, ").append(index).append(", ").append(stringLiteral(column.mColumnName)).append(", ").append(value).append(");\n");
+      } else {
+        builder.append(indent).append(String.format(column.mKind.mBindFormat, index, value)).append(";\n");
+      }
+    }
+  }
+
+  private void emitBindNulls(StringBuilder builder, Entity entity, String indent) {
+    if (hasNullAsDefaultColumns(entity)) {
+      // the default values can be used only by skipping the columns
+      builder.append(indent).append("return false;\n");
+      return;
+    }
+    emitBindNullColumns(builder, entity, indent);
+    builder.append(indent).append("return true;\n");
+  }
+
+  private void emitBindNullColumns(StringBuilder builder, Entity entity, String indent) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        emitBindNullColumns(builder, ((EmbeddedMember) member).mEntity, indent);
+        continue;
+      }
+
+      ColumnMember column = (ColumnMember) member;
+      if (column.mReadonly) {
+        continue;
+      }
+      String index = "index + " + column.mWritableIndex;
+      if (column.mKind == ColumnKind.CUSTOM) {
+        builder.append(indent).append("bindColumn(").append(column.mTypeAdapterField).append(", program, ").append(index).append(", ").append(stringLiteral(column.mColumnName)).append(", null);\n");
+      } else {
+        builder.append(indent).append("program.bindNull(").append(index).append(");\n");
+      }
+    }
+  }
+
+  private static boolean hasNullAsDefaultColumns(Entity entity) {
+    for (Member member : entity.mMembers) {
+      if (member instanceof EmbeddedMember) {
+        if (hasNullAsDefaultColumns(((EmbeddedMember) member).mEntity)) {
+          return true;
+        }
+      } else if (((ColumnMember) member).mTreatNullAsDefault) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String newVariable() {
+    return "embedded" + mVariableCount++;
+  }
+
+  private static String arrayLiteral(List<String> values) {
+    StringBuilder builder = new StringBuilder("{");
+    for (int i = 0; i < values.size(); i++) {
+      builder.append(i == 0 ? " " : ", ").append(stringLiteral(values.get(i)));
+    }
+    return builder.append(values.isEmpty() ? "}" : " }").toString();
+  }
+
+  private static String stringLiteral(String value) {
+    StringBuilder builder = new StringBuilder("\"");
+    for (char c : value.toCharArray()) {
+      switch (c) {
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        default:
+          builder.append(c);
+      }
+    }
+    return builder.append('"').toString();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Entity {
+  final String mTypeName;
+  final List<Member> mMembers = new ArrayList<>();
+
+  Entity(String typeName) {
+    mTypeName = typeName;
+  }
+
+  abstract static class Member {
+    final String mFieldName;
+    final String mDeclaringTypeName;
+
+    Member(String fieldName, String declaringTypeName) {
+      mFieldName = fieldName;
+      mDeclaringTypeName = declaringTypeName;
+    }
+
+    String access(Entity owner, String target) {
+      return owner.mTypeName.equals(mDeclaringTypeName)
+          ? target + "." + mFieldName
+          : "((" + mDeclaringTypeName + ") " + target + ")." + mFieldName;
+    }
+  }
+
+  enum ColumnKind {
+    SHORT("c.getShort(%s)", "program.bindLong(%s, %s)", false),
+    INT("c.getInt(%s)", "program.bindLong(%s, %s)", false),
+    LONG("c.getLong(%s)", "program.bindLong(%s, %s)", false),
+    FLOAT("c.getFloat(%s)", "program.bindDouble(%s, %s)", false),
+    DOUBLE("c.getDouble(%s)", "program.bindDouble(%s, %s)", false),
+    BOOLEAN("c.getInt(%s) == 1", "program.bindLong(%s, %s ? 1 : 0)", false),
+    BOXED_SHORT("readOptionalShort(c, %s)", "bindOptionalLong(program, %s, %s)", true),
+    BOXED_INT("readOptionalInteger(c, %s)", "bindOptionalLong(program, %s, %s)", true),
+    BOXED_LONG("readOptionalLong(c, %s)", "bindOptionalLong(program, %s, %s)", true),
+    BOXED_FLOAT("readOptionalFloat(c, %s)", "bindOptionalDouble(program, %s, %s)", true),
+    BOXED_DOUBLE("readOptionalDouble(c, %s)", "bindOptionalDouble(program, %s, %s)", true),
+    BOXED_BOOLEAN("readOptionalBoolean(c, %s)", "bindOptionalBoolean(program, %s, %s)", true),
+    STRING("readOptionalString(c, %s)", "bindOptionalString(program, %s, %s)", true),
+    CUSTOM(null, null, true);
+
+    final String mReadFormat;
+    final String mBindFormat;
+    final boolean mNullable;
+
+    ColumnKind(String readFormat, String bindFormat, boolean nullable) {
+      mReadFormat = readFormat;
+      mBindFormat = bindFormat;
+      mNullable = nullable;
+    }
+  }
+
+  static final class ColumnMember extends Member {
+    final String mColumnName;
+    final boolean mReadonly;
+    final boolean mTreatNullAsDefault;
+    final boolean mLazy;
+    final ColumnKind mKind;
+    final String mCustomTypeName;
+    final String mLazyValueTypeName;
+    final String mIntern;
+    final String mEnumStorage;
+
+    int mProjectionIndex;
+    int mWritableIndex;
+    String mTypeAdapterField;
+
+    ColumnMember(String fieldName, String declaringTypeName, String columnName, boolean readonly, boolean treatNullAsDefault, boolean lazy, ColumnKind kind, String customTypeName, String lazyValueTypeName, String intern, String enumStorage) {
+      super(fieldName, declaringTypeName);
+      mColumnName = columnName;
+      mReadonly = readonly;
+      mTreatNullAsDefault = treatNullAsDefault;
+      mLazy = lazy;
+      mKind = kind;
+      mCustomTypeName = customTypeName;
+      mLazyValueTypeName = lazyValueTypeName;
+      mIntern = intern;
+      mEnumStorage = enumStorage;
+    }
+  }
+
+  static final class EmbeddedMember extends Member {
+    final Entity mEntity;
+    final boolean mNullIfAllNull;
+
+    int mProjectionStart;
+    int mProjectionEnd;
+
+    EmbeddedMember(String fieldName, String declaringTypeName, Entity entity, boolean nullIfAllNull) {
+      super(fieldName, declaringTypeName);
+      mEntity = entity;
+      mNullIfAllNull = nullIfAllNull;
+    }
+  }
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.compiler;
+
+import org.chalup.microorm.compiler.Entity.ColumnKind;
+import org.chalup.microorm.compiler.Entity.ColumnMember;
+import org.chalup.microorm.compiler.Entity.EmbeddedMember;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates the DaoAdapter for every class with fields annotated with
+ * {@code @Column} or {@code @Embedded}. The generated adapters access the
+ * fields directly, so the classes which cannot be handled this way (e.g.
+ * classes with private fields) are skipped and MicroOrm falls back to
+ * reflection for them.
+ */
+@SupportedAnnotationTypes({ MicroOrmProcessor.COLUMN, MicroOrmProcessor.EMBEDDED })
+public class MicroOrmProcessor extends AbstractProcessor {
+  static final String COLUMN = "org.chalup.microorm.annotations.Column";
+  static final String EMBEDDED = "org.chalup.microorm.annotations.Embedded";
+  static final String INTERN = "org.chalup.microorm.annotations.Intern";
+  static final String ENUM_STORAGE = "org.chalup.microorm.annotations.EnumStorage";
+  static final String CREATOR = "org.chalup.microorm.annotations.Creator";
+  static final String LAZY_VALUE = "org.chalup.microorm.LazyValue";
+  static final String SUFFIX = "$$MicroOrmAdapter";
+
+  private static final Map<String, ColumnKind> DECLARED_KINDS = new HashMap<>();
+
+  static {
+    DECLARED_KINDS.put("java.lang.Short", ColumnKind.BOXED_SHORT);
+    DECLARED_KINDS.put("java.lang.Integer", ColumnKind.BOXED_INT);
+    DECLARED_KINDS.put("java.lang.Long", ColumnKind.BOXED_LONG);
+    DECLARED_KINDS.put("java.lang.Float", ColumnKind.BOXED_FLOAT);
+    DECLARED_KINDS.put("java.lang.Double", ColumnKind.BOXED_DOUBLE);
+    DECLARED_KINDS.put("java.lang.Boolean", ColumnKind.BOXED_BOOLEAN);
+    DECLARED_KINDS.put("java.lang.String", ColumnKind.STRING);
+  }
+
+  private Elements mElements;
+  private Types mTypes;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    mElements = processingEnv.getElementUtils();
+    mTypes = processingEnv.getTypeUtils();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Set<TypeElement> entities = new LinkedHashSet<>();
+    for (TypeElement annotation : annotations) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        if (element.getKind() == ElementKind.FIELD) {
+          entities.add((TypeElement) element.getEnclosingElement());
+        }
+      }
+    }
+
+    for (TypeElement entity : entities) {
+      try {
+        PackageElement pkg = mElements.getPackageOf(entity);
+        Entity model = parseEntity(entity, pkg, new HashSet<String>());
+        write(entity, pkg, model);
+      } catch (UnsupportedEntityException e) {
+        processingEnv.getMessager().printMessage(Kind.NOTE, "MicroOrm will use reflection for " + entity.getQualifiedName() + ": " + e.getMessage(), entity);
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(Kind.ERROR, "Unable to write MicroOrm adapter: " + e.getMessage(), entity);
+      }
+    }
+
+    return false;
+  }
+
+  private void write(TypeElement entity, PackageElement pkg, Entity model) throws IOException, UnsupportedEntityException {
+    String packageName = pkg.getQualifiedName().toString();
+    String binaryName = mElements.getBinaryName(entity).toString();
+    String adapterName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+
+    AdapterWriter adapterWriter = new AdapterWriter(packageName, adapterName, model);
+    Set<String> writableColumns = new HashSet<>();
+    for (String column : adapterWriter.getWritableColumns()) {
+      if (!writableColumns.add(column)) {
+        // MicroOrm reports this error at runtime, when the ContentValues are requested
+        throw new UnsupportedEntityException("duplicate column definition " + column);
+      }
+    }
+
+    JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? adapterName : packageName + "." + adapterName, entity);
+    try (Writer writer = sourceFile.openWriter()) {
+      writer.write(adapterWriter.brewJava());
+    }
+  }
+
+  private Entity parseEntity(TypeElement type, PackageElement pkg, Set<String> parents) throws UnsupportedEntityException {
+    String typeName = type.getQualifiedName().toString();
+    if (!parents.add(typeName)) {
+      throw new UnsupportedEntityException("recursive @Embedded " + typeName);
+    }
+    checkInstantiable(type, pkg);
+
+    Entity entity = new Entity(typeName);
+
+    TypeElement current = type;
+    while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+      if (!current.getTypeParameters().isEmpty()) {
+        throw new UnsupportedEntityException("generic type " + current.getQualifiedName());
+      }
+
+      for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+        AnnotationMirror column = getAnnotation(field, COLUMN);
+        AnnotationMirror embedded = getAnnotation(field, EMBEDDED);
+        if (column == null && embedded == null) {
+          continue;
+        }
+        if (column != null && embedded != null) {
+          throw new UnsupportedEntityException(field + " is annotated with both @Column and @Embedded");
+        }
+        checkFieldAccess(current, field, pkg);
+
+        String declaringTypeName = current.getQualifiedName().toString();
+        if (column != null) {
+          entity.mMembers.add(parseColumn(field, declaringTypeName, column, pkg));
+        } else {
+          TypeMirror fieldType = field.asType();
+          if (fieldType.getKind() != TypeKind.DECLARED) {
+            throw new UnsupportedEntityException("@Embedded field " + field + " is not an object");
+          }
+          TypeElement embeddedType = (TypeElement) ((DeclaredType) fieldType).asElement();
+          entity.mMembers.add(new EmbeddedMember(field.getSimpleName().toString(), declaringTypeName, parseEntity(embeddedType, pkg, parents), parseNullIfAllNull(embedded)));
+        }
+      }
+
+      TypeMirror superclass = current.getSuperclass();
+      current = superclass.getKind() == TypeKind.DECLARED
+          ? (TypeElement) ((DeclaredType) superclass).asElement()
+          : null;
+    }
+
+    parents.remove(typeName);
+    return entity;
+  }
+
+  private boolean parseNullIfAllNull(AnnotationMirror embedded) throws UnsupportedEntityException {
+    boolean nullIfAllNull = false;
+
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mElements.getElementValuesWithDefaults(embedded).entrySet()) {
+      String name = entry.getKey().getSimpleName().toString();
+      if (!name.equals("nullIfAllNull")) {
+        throw new UnsupportedEntityException("unknown @Embedded attribute " + name);
+      }
+      nullIfAllNull = (Boolean) entry.getValue().getValue();
+    }
+
+    return nullIfAllNull;
+  }
+
+  private ColumnMember parseColumn(VariableElement field, String declaringTypeName, AnnotationMirror column, PackageElement pkg) throws UnsupportedEntityException {
+    String columnName = null;
+    boolean readonly = false;
+    boolean treatNullAsDefault = false;
+    boolean lazy = false;
+    String intern = null;
+    String enumStorage = "NAME";
+
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mElements.getElementValuesWithDefaults(column).entrySet()) {
+      String name = entry.getKey().getSimpleName().toString();
+      Object value = entry.getValue().getValue();
+      switch (name) {
+        case "value":
+          columnName = (String) value;
+          break;
+        case "readonly":
+          readonly = (Boolean) value;
+          break;
+        case "treatNullAsDefault":
+          treatNullAsDefault = (Boolean) value;
+          break;
+        case "intern":
+          String constant = ((VariableElement) value).getSimpleName().toString();
+          intern = constant.equals("NONE") ? null : constant;
+          break;
+        case "enumStorage":
+          enumStorage = ((VariableElement) value).getSimpleName().toString();
+          break;
+        case "lazy":
+          lazy = (Boolean) value;
+          break;
+        case "groups":
+          // the groups are mapped by the reflective adapters created at runtime
+          break;
+        default:
+          throw new UnsupportedEntityException("unknown @Column attribute " + name);
+      }
+    }
+
+    TypeMirror fieldType = field.asType();
+    ColumnKind kind;
+    String customTypeName = null;
+    String lazyValueTypeName = null;
+    switch (fieldType.getKind()) {
+      case SHORT:
+        kind = ColumnKind.SHORT;
+        break;
+      case INT:
+        kind = ColumnKind.INT;
+        break;
+      case LONG:
+        kind = ColumnKind.LONG;
+        break;
+      case FLOAT:
+        kind = ColumnKind.FLOAT;
+        break;
+      case DOUBLE:
+        kind = ColumnKind.DOUBLE;
+        break;
+      case BOOLEAN:
+        kind = ColumnKind.BOOLEAN;
+        break;
+      case DECLARED:
+      case ARRAY:
+        if (isLazyValue(fieldType)) {
+          TypeMirror valueType = ((DeclaredType) fieldType).getTypeArguments().get(0);
+          checkTypeAccess(valueType, pkg);
+          kind = ColumnKind.CUSTOM;
+          customTypeName = fieldType.toString();
+          lazyValueTypeName = valueType.toString();
+          break;
+        }
+        checkTypeAccess(fieldType, pkg);
+        String typeName = fieldType.toString();
+        kind = DECLARED_KINDS.containsKey(typeName) ? DECLARED_KINDS.get(typeName) : ColumnKind.CUSTOM;
+        if (kind == ColumnKind.CUSTOM) {
+          customTypeName = typeName;
+        }
+        break;
+      default:
+        throw new UnsupportedEntityException("unsupported type of field " + field);
+    }
+
+    if (treatNullAsDefault && !kind.mNullable) {
+      throw new UnsupportedEntityException("treatNullAsDefault on primitive field " + field);
+    }
+    if (treatNullAsDefault && readonly) {
+      throw new UnsupportedEntityException("treatNullAsDefault on readonly field " + field);
+    }
+    if (lazy && !kind.mNullable) {
+      throw new UnsupportedEntityException("lazy on primitive field " + field);
+    }
+    if (intern != null && kind != ColumnKind.STRING) {
+      throw new UnsupportedEntityException("intern on non-String field " + field);
+    }
+    boolean isEnum = fieldType.getKind() == TypeKind.DECLARED && ((DeclaredType) fieldType).asElement().getKind() == ElementKind.ENUM;
+    if (!isEnum && !enumStorage.equals("NAME")) {
+      throw new UnsupportedEntityException("enumStorage on non-enum field " + field);
+    }
+
+    return new ColumnMember(field.getSimpleName().toString(), declaringTypeName, columnName, readonly, treatNullAsDefault, lazy, kind, customTypeName, lazyValueTypeName, intern, isEnum ? enumStorage : null);
+  }
+
+  private boolean isLazyValue(TypeMirror type) {
+    Element element = mTypes.asElement(type);
+    return element instanceof TypeElement
+        && ((TypeElement) element).getQualifiedName().contentEquals(LAZY_VALUE)
+        && ((DeclaredType) type).getTypeArguments().size() == 1;
+  }
+
+  private void checkInstantiable(TypeElement type, PackageElement pkg) throws UnsupportedEntityException {
+    if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+      throw new UnsupportedEntityException(type.getQualifiedName() + " is not a concrete class");
+    }
+    if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+      throw new UnsupportedEntityException(type.getQualifiedName() + " is an inner class");
+    }
+    if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+      throw new UnsupportedEntityException(type.getQualifiedName() + " is a local class");
+    }
+    checkTypeAccess(type.asType(), pkg);
+
+    for (Element element : type.getEnclosedElements()) {
+      if (getAnnotation(element, CREATOR) != null) {
+        throw new UnsupportedEntityException(type.getQualifiedName() + " has the @Creator " + element);
+      }
+    }
+
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty() && isAccessible(constructor, pkg)) {
+        return;
+      }
+    }
+    throw new UnsupportedEntityException(type.getQualifiedName() + " has no accessible no-args constructor");
+  }
+
+  private void checkFieldAccess(TypeElement declaringType, VariableElement field, PackageElement pkg) throws UnsupportedEntityException {
+    Set<Modifier> modifiers = field.getModifiers();
+    if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+      throw new UnsupportedEntityException("field " + field + " is static or final");
+    }
+    if (!isAccessible(field, pkg)) {
+      throw new UnsupportedEntityException("field " + field + " is not accessible");
+    }
+    checkTypeAccess(declaringType.asType(), pkg);
+  }
+
+  private void checkTypeAccess(TypeMirror type, PackageElement pkg) throws UnsupportedEntityException {
+    if (type.getKind() == TypeKind.ARRAY) {
+      TypeMirror componentType = ((ArrayType) type).getComponentType();
+      if (!componentType.getKind().isPrimitive()) {
+        checkTypeAccess(componentType, pkg);
+      }
+      return;
+    }
+    if (type.getKind() != TypeKind.DECLARED || !((DeclaredType) type).getTypeArguments().isEmpty()) {
+      throw new UnsupportedEntityException("unsupported type " + type);
+    }
+
+    Element element = mTypes.asElement(type);
+    while (element instanceof TypeElement) {
+      if (!isAccessible(element, pkg)) {
+        throw new UnsupportedEntityException(type + " is not accessible");
+      }
+      element = element.getEnclosingElement();
+    }
+  }
+
+  private boolean isAccessible(Element element, PackageElement pkg) {
+    Set<Modifier> modifiers = element.getModifiers();
+    if (modifiers.contains(Modifier.PRIVATE)) {
+      return false;
+    }
+    return modifiers.contains(Modifier.PUBLIC) || mElements.getPackageOf(element).equals(pkg);
+  }
+
+  private static AnnotationMirror getAnnotation(Element element, String annotationName) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+        return annotation;
+      }
+    }
+    return null;
+  }
+
+  static class UnsupportedEntityException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    UnsupportedEntityException(String message) {
+      super(message);
+    }
+  }
+}
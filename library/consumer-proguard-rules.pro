@@ -8,4 +8,18 @@
      @org.chalup.microorm.annotations.Embedded <fields>;
 }
 
--keepattributes *Annotation*
\ No newline at end of file
+# The generated adapters are found by the names of the entity classes, and
+# @Creator refers to the annotated fields by their names.
+-keepclasseswithmembernames class * {
+     @org.chalup.microorm.annotations.Column <fields>;
+}
+
+-keepclasseswithmembernames class * {
+     @org.chalup.microorm.annotations.Embedded <fields>;
+}
+
+-keepattributes *Annotation*
+
+-keep class **$$MicroOrmAdapter {
+     <init>(org.chalup.microorm.MicroOrm);
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.AbstractFuture;
+
+import org.chalup.microorm.MetricsListener.Operation;
+
+import android.database.Cursor;
+
+import java.util.Collections;
+import java.util.List;
+
+class AsyncMapper<T> extends AbstractFuture<List<T>> implements Runnable {
+  private final Cursor mCursor;
+  private final DaoAdapter<T> mDaoAdapter;
+  private final int mBatchSize;
+  private final BatchCallback<T> mCallback;
+  private final Class<T> mClass;
+  private final MetricsListener mMetricsListener;
+
+  // accessed only by the thread running the conversion
+  private long mCallbackNanos;
+
+  AsyncMapper(Cursor cursor, DaoAdapter<T> daoAdapter, int batchSize, BatchCallback<T> callback, Class<T> klass, MetricsListener metricsListener) {
+    mCursor = cursor;
+    mDaoAdapter = daoAdapter;
+    mBatchSize = batchSize;
+    mCallback = callback;
+    mClass = klass;
+    mMetricsListener = metricsListener;
+  }
+
+  @Override
+  public void run() {
+    try {
+      long start = mMetricsListener != null ? System.nanoTime() : 0;
+      List<T> result = map();
+      if (result != null) {
+        if (mMetricsListener != null) {
+          mMetricsListener.onOperation(Operation.LIST_FROM_CURSOR_ASYNC, mClass, result.size(), System.nanoTime() - start - mCallbackNanos);
+        }
+        set(result);
+      }
+    } catch (Throwable t) {
+      setException(t);
+    }
+  }
+
+  /**
+   * @return the objects created from all {@link Cursor} rows or null if the
+   * conversion was cancelled
+   */
+  private List<T> map() {
+    if (mCursor == null) {
+      // same as listFromCursor
+      return isCancelled() ? null : Lists.<T>newArrayList();
+    }
+
+    List<T> result = Lists.newArrayListWithCapacity(Math.max(mCursor.getCount(), 0));
+    Cursor rows = WindowCursor.wrap(mCursor);
+    if (isCancelled() || !rows.moveToFirst()) {
+      return isCancelled() ? null : result;
+    }
+
+    try {
+      return map(rows, result);
+    } finally {
+      WindowCursor.syncPosition(rows);
+    }
+  }
+
+  private List<T> map(Cursor rows, List<T> result) {
+    BoundMapper<T> mapper = new BoundMapper<>(rows, mDaoAdapter);
+    List<T> batch = Lists.newArrayListWithCapacity(mBatchSize);
+    do {
+      // the cancellation is checked on every row, so the abandoned conversion
+      // of the large Cursor stops almost immediately
+      if (isCancelled()) {
+        return null;
+      }
+      batch.add(mapper.map());
+
+      if (batch.size() == mBatchSize) {
+        deliver(batch);
+        result.addAll(batch);
+        batch = Lists.newArrayListWithCapacity(mBatchSize);
+      }
+    } while (rows.moveToNext());
+
+    if (!batch.isEmpty()) {
+      deliver(batch);
+      result.addAll(batch);
+    }
+    return result;
+  }
+
+  private void deliver(List<T> batch) {
+    if (mCallback != null && !isCancelled()) {
+      long start = mMetricsListener != null ? System.nanoTime() : 0;
+      mCallback.onBatch(Collections.unmodifiableList(batch));
+      if (mMetricsListener != null) {
+        mCallbackNanos += System.nanoTime() - start;
+      }
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import java.util.List;
+
+/**
+ * Receives the objects converted by
+ * {@link MicroOrm#listFromCursorAsync(android.database.Cursor, Class, java.util.concurrent.Executor, int, BatchCallback)}
+ * in batches, before the whole {@link android.database.Cursor} is converted.
+ *
+ * @param <T> the type of the converted objects
+ */
+public interface BatchCallback<T> {
+  /**
+   * Called on the {@link java.util.concurrent.Executor} thread after every
+   * batch of rows is converted. The callback is not called after the
+   * conversion is cancelled.
+   *
+   * @param batch the objects created from the subsequent {@link android.database.Cursor}
+   * rows; the list won't be modified after this call
+   */
+  void onBatch(List<T> batch);
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import android.database.Cursor;
+
+/**
+ * Converts rows of a single {@link Cursor} into objects of specified type.
+ * Column indexes are resolved once, when the mapper is created with
+ * {@link MicroOrm#bind(android.database.Cursor, Class)}, so the mapper
+ * should not be used after the set of columns in the {@link Cursor} changes.
+ */
+public final class BoundMapper<T> {
+  private final Cursor mCursor;
+  private final DaoAdapter<T> mDaoAdapter;
+  private final int[] mColumnIndexes;
+
+  BoundMapper(Cursor cursor, DaoAdapter<T> daoAdapter) {
+    mCursor = cursor;
+    mDaoAdapter = daoAdapter;
+    mColumnIndexes = daoAdapter.getColumnIndexes(cursor);
+  }
+
+  /**
+   * Creates an object from the current row of the bound {@link Cursor}.
+   *
+   * @return an object of type T created from the current row in {@link Cursor}
+   */
+  public T map() {
+    return mDaoAdapter.newFromCursor(mCursor, mColumnIndexes, 0);
+  }
+
+  /**
+   * Fills the fields in the provided object with data from the current row
+   * of the bound {@link Cursor}.
+   *
+   * @param object the instance to be filled with data
+   * @return the same object for easy chaining
+   */
+  public T map(T object) {
+    return mDaoAdapter.fromCursor(mCursor, mColumnIndexes, 0, object);
+  }
+
+  /**
+   * Fills the fields in the provided object with data from the current row
+   * of the bound {@link Cursor}. Unlike {@link #map(Object)}, this method
+   * reuses the objects already referenced by {@link org.chalup.microorm.annotations.Embedded}
+   * fields instead of creating the new ones, so the same object can be
+   * refilled for every row without any allocations.
+   *
+   * @param object the instance to be filled with data
+   * @return the same object for easy chaining
+   */
+  public T recycle(T object) {
+    return mDaoAdapter.recycleFromCursor(mCursor, mColumnIndexes, 0, object);
+  }
+
+  /**
+   * @return the {@link Cursor} this mapper is bound to
+   */
+  public Cursor getCursor() {
+    return mCursor;
+  }
+}
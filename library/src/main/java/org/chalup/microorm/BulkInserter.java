@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import android.content.ContentValues;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts objects of specified type into a single table using one compiled
+ * {@link SQLiteStatement}. The fields are bound directly to the statement,
+ * so no {@link android.content.ContentValues} are created for the inserted
+ * objects. You can get the BulkInserter instances with
+ * {@link MicroOrm#newBulkInserter(SQLiteDatabase, String, Class, int)}.
+ *
+ * <p>
+ * The objects with {@code null} in the {@link org.chalup.microorm.annotations.Column}
+ * with {@code treatNullAsDefault} flag set are inserted with the statement
+ * compiled only for the other columns, so the default column value is used.
+ * </p>
+ *
+ * <p>
+ * The conflicts are handled the same way for both kinds of statements: the
+ * {@link android.database.sqlite.SQLiteConstraintException} is thrown, unless
+ * the conflict algorithm resolves the conflict, e.g. with
+ * {@link SQLiteDatabase#CONFLICT_IGNORE} the row is not inserted and -1 is
+ * returned. Unlike {@link SQLiteDatabase#insertWithOnConflict(String, String, ContentValues, int)},
+ * the exceptions are not swallowed, so {@link #insertAll(Iterable)} inserts
+ * either all objects or none of them.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe. The BulkInserter should be closed when
+ * it's no longer needed.
+ * </p>
+ */
+public final class BulkInserter<T> implements Closeable {
+  private static final String[] CONFLICT_CLAUSES = {
+      "",
+      " OR ROLLBACK",
+      " OR ABORT",
+      " OR FAIL",
+      " OR IGNORE",
+      " OR REPLACE"
+  };
+
+  private final SQLiteDatabase mDatabase;
+  private final String mTable;
+  private final int mConflictAlgorithm;
+  private final DaoAdapter<T> mDaoAdapter;
+  private final SQLiteStatement mStatement;
+
+  BulkInserter(SQLiteDatabase database, String table, int conflictAlgorithm, DaoAdapter<T> daoAdapter) {
+    Preconditions.checkElementIndex(conflictAlgorithm, CONFLICT_CLAUSES.length, "conflictAlgorithm");
+
+    mDatabase = database;
+    mTable = table;
+    mConflictAlgorithm = conflictAlgorithm;
+    mDaoAdapter = daoAdapter;
+    mStatement = database.compileStatement(buildInsertSql(table, conflictAlgorithm, daoAdapter.getWritableColumns()));
+  }
+
+  private static String buildInsertSql(String table, int conflictAlgorithm, String[] columns) {
+    Preconditions.checkArgument(columns.length > 0, "No writable columns");
+
+    String[] placeholders = new String[columns.length];
+    Arrays.fill(placeholders, "?");
+
+    return "INSERT" + CONFLICT_CLAUSES[conflictAlgorithm] + " INTO " + table
+        + " (" + Joiner.on(", ").join(columns) + ")"
+        + " VALUES (" + Joiner.on(", ").join(placeholders) + ")";
+  }
+
+  /**
+   * Inserts the single object.
+   *
+   * @param object the object to insert
+   * @return the row ID of the inserted row, or -1 if the row was not inserted
+   * @throws android.database.sqlite.SQLiteConstraintException if the row
+   * violates the constraint and the conflict algorithm doesn't resolve it
+   */
+  public long insert(T object) {
+    Preconditions.checkNotNull(object);
+
+    mStatement.clearBindings();
+    if (mDaoAdapter.bindToStatement(mStatement, 1, object)) {
+      return mStatement.executeInsert();
+    }
+    return insertSkippedColumns(mDaoAdapter.toContentValues(mDaoAdapter.createContentValues(), object));
+  }
+
+  private long insertSkippedColumns(ContentValues values) {
+    List<String> columns = Lists.newArrayListWithCapacity(values.size());
+    List<Object> arguments = Lists.newArrayListWithCapacity(values.size());
+    for (Map.Entry<String, Object> entry : values.valueSet()) {
+      columns.add(entry.getKey());
+      arguments.add(entry.getValue());
+    }
+
+    String sql = columns.isEmpty()
+        ? "INSERT" + CONFLICT_CLAUSES[mConflictAlgorithm] + " INTO " + mTable + " DEFAULT VALUES"
+        : buildInsertSql(mTable, mConflictAlgorithm, columns.toArray(new String[columns.size()]));
+    SQLiteStatement statement = mDatabase.compileStatement(sql);
+    try {
+      for (int i = 0; i < arguments.size(); i++) {
+        DatabaseUtils.bindObjectToProgram(statement, i + 1, arguments.get(i));
+      }
+      return statement.executeInsert();
+    } finally {
+      statement.close();
+    }
+  }
+
+  /**
+   * Inserts all the objects in a single transaction.
+   *
+   * @param objects the objects to insert
+   * @return the number of inserted rows
+   */
+  public int insertAll(Iterable<? extends T> objects) {
+    int count = 0;
+
+    mDatabase.beginTransaction();
+    try {
+      for (T object : objects) {
+        if (insert(object) != -1) {
+          count++;
+        }
+      }
+      mDatabase.setTransactionSuccessful();
+    } finally {
+      mDatabase.endTransaction();
+    }
+
+    return count;
+  }
+
+  @Override
+  public void close() {
+    mStatement.close();
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.MapMaker;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the column values of objects of specified type, so only the
+ * changed columns are included in the {@link ContentValues} for update. You
+ * can get the ChangeTracker instances with
+ * {@link MicroOrm#newChangeTracker(Class)}.
+ *
+ * <p>
+ * The objects are referenced weakly and compared by identity. This class is
+ * thread-safe, but the tracked objects should not be modified concurrently
+ * with the {@link #track(Object)} or {@link #toUpdateContentValues(Object)}
+ * calls.
+ * </p>
+ */
+public final class ChangeTracker<T> {
+  // marks the columns skipped by toContentValues, e.g. nulls with treatNullAsDefault
+  private static final Object ABSENT = new Object();
+
+  private final DaoAdapter<T> mDaoAdapter;
+  private final String[] mWritableColumns;
+  private final ConcurrentMap<T, Object[]> mSnapshots = new MapMaker().weakKeys().makeMap();
+
+  ChangeTracker(DaoAdapter<T> daoAdapter) {
+    mDaoAdapter = daoAdapter;
+    mWritableColumns = daoAdapter.getWritableColumns();
+  }
+
+  /**
+   * Creates an object from the current row in {@link Cursor} and starts
+   * tracking its changes.
+   *
+   * @param c an open {@link Cursor} with position set to valid row
+   * @return the tracked object created from the current row in {@link Cursor}
+   */
+  public T fromCursor(Cursor c) {
+    return track(mDaoAdapter.newFromCursor(c, mDaoAdapter.getColumnIndexes(c), 0));
+  }
+
+  /**
+   * Records the current column values of the object. Call this method
+   * again after the changes returned by {@link #toUpdateContentValues(Object)}
+   * are saved.
+   *
+   * @param object the object to track
+   * @return the same object for easy chaining
+   */
+  public T track(T object) {
+    Preconditions.checkNotNull(object);
+
+    mSnapshots.put(object, snapshot(object));
+    return object;
+  }
+
+  /**
+   * Stops tracking the object.
+   *
+   * @param object the tracked object
+   */
+  public void untrack(T object) {
+    mSnapshots.remove(object);
+  }
+
+  /**
+   * Creates the {@link ContentValues} containing only the columns changed
+   * since the object was last tracked. If the object is not tracked, all
+   * columns are included, i.e. the result is the same as from
+   * {@link MicroOrm#toContentValues(Object)}.
+   *
+   * @param object the tracked object
+   * @return the {@link ContentValues} with changed columns; empty if nothing
+   * has changed
+   */
+  public ContentValues toUpdateContentValues(T object) {
+    Preconditions.checkNotNull(object);
+
+    ContentValues values = mDaoAdapter.toContentValues(mDaoAdapter.createContentValues(), object);
+    Object[] snapshot = mSnapshots.get(object);
+    if (snapshot != null) {
+      Object[] currentSnapshot = snapshot(object);
+      for (int i = 0; i < mWritableColumns.length; i++) {
+        if (valuesEqual(snapshot[i], currentSnapshot[i])) {
+          values.remove(mWritableColumns[i]);
+        }
+      }
+    }
+    return values;
+  }
+
+  private Object[] snapshot(T object) {
+    Object[] snapshot = new Object[mWritableColumns.length];
+    Arrays.fill(snapshot, ABSENT);
+    mDaoAdapter.snapshotValues(object, snapshot, 0);
+    return snapshot;
+  }
+
+  private static boolean valuesEqual(Object snapshotValue, Object value) {
+    if (snapshotValue instanceof byte[] && value instanceof byte[]) {
+      return Arrays.equals((byte[]) snapshotValue, (byte[]) value);
+    }
+    return Objects.equal(snapshotValue, value);
+  }
+}
@@ -20,6 +20,7 @@ import org.chalup.microorm.annotations.Column;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
 
 import java.lang.reflect.Field;
 
@@ -27,26 +28,87 @@ class ColumnFieldAdapter extends FieldAdapter {
 
   private static final String[] EMPTY_ARRAY = new String[0];
 
-  private final String mColumnName;
+  final String mColumnName;
   private final String[] mColumnNames;
   private final TypeAdapter<?> mTypeAdapter;
+  private final IndexedTypeAdapter<?> mIndexedTypeAdapter;
+  private final ReusingTypeAdapter<?> mReusingTypeAdapter;
+  private final ValueBinder<?> mValueBinder;
   private final boolean mTreatNullAsDefault;
-  private final boolean mReadonly;
+  final boolean mReadonly;
+  final boolean mLazy;
+  private final LazyColumnsTracker mLazyColumnsTracker;
 
-  ColumnFieldAdapter(Field field, TypeAdapter<?> typeAdapter) {
+  ColumnFieldAdapter(Field field, TypeAdapter<?> typeAdapter, LazyColumnsTracker lazyColumnsTracker) {
     super(field);
     mTypeAdapter = typeAdapter;
+    mIndexedTypeAdapter = typeAdapter instanceof IndexedTypeAdapter
+        ? (IndexedTypeAdapter<?>) typeAdapter
+        : null;
+    mReusingTypeAdapter = typeAdapter instanceof ReusingTypeAdapter
+        ? (ReusingTypeAdapter<?>) typeAdapter
+        : null;
+    mValueBinder = typeAdapter != null
+        ? TypeAdapters.getValueBinder(typeAdapter)
+        : null;
 
     Column columnAnnotation = field.getAnnotation(Column.class);
     mColumnName = columnAnnotation.value();
     mColumnNames = new String[] { mColumnName };
-    mTreatNullAsDefault = columnAnnotation.treatNullAsDefault();
     mReadonly = columnAnnotation.readonly();
+    mLazy = columnAnnotation.lazy();
+    mTreatNullAsDefault = columnAnnotation.treatNullAsDefault();
+    mLazyColumnsTracker = lazyColumnsTracker;
+  }
+
+  @Override
+  public void setValueFromCursor(Cursor inCursor, int[] columnIndexes, int offset, Object outTarget) throws IllegalArgumentException, IllegalAccessException {
+    if (mLazy) {
+      // the value loaded for the previous row must not be kept in the
+      // refilled object, nor written back for the current row
+      mField.set(outTarget, null);
+      mLazyColumnsTracker.resetLoaded(outTarget);
+    } else {
+      loadValueFromCursor(inCursor, columnIndexes[offset], outTarget);
+    }
+  }
+
+  private boolean isUnloaded(Object inObject) throws IllegalAccessException {
+    return mLazy && inObject != null && mLazyColumnsTracker.isSkipped(inObject, mField.get(inObject));
+  }
+
+  /**
+   * Sets the field value read from the given column, also for the lazy
+   * columns, which are not included in the projection.
+   */
+  @SuppressWarnings("unchecked")
+  void loadValueFromCursor(Cursor inCursor, int columnIndex, Object outTarget) throws IllegalArgumentException, IllegalAccessException {
+    if (mReusingTypeAdapter != null) {
+      mField.set(outTarget, ((ReusingTypeAdapter<Object>) mReusingTypeAdapter).fromCursor(inCursor, columnIndex, mField.get(outTarget)));
+      return;
+    }
+    mField.set(outTarget, readValue(inCursor, columnIndex));
   }
 
   @Override
-  public void setValueFromCursor(Cursor inCursor, Object outTarget) throws IllegalArgumentException, IllegalAccessException {
-    mField.set(outTarget, mTypeAdapter.fromCursor(inCursor, mColumnName));
+  public Object readValueFromCursor(Cursor inCursor, int[] columnIndexes, int offset) {
+    return mLazy
+        ? null
+        : readValue(inCursor, columnIndexes[offset]);
+  }
+
+  private Object readValue(Cursor inCursor, int columnIndex) {
+    return mIndexedTypeAdapter != null
+        ? mIndexedTypeAdapter.fromCursor(inCursor, columnIndex)
+        : mTypeAdapter.fromCursor(inCursor, mColumnName);
+  }
+
+  @Override
+  public void putToContentValues(Object inObject, ContentValues outValues) throws IllegalAccessException {
+    // the lazy column which wasn't loaded must not overwrite the stored value
+    if (!isUnloaded(inObject)) {
+      super.putToContentValues(inObject, outValues);
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -58,15 +120,52 @@ class ColumnFieldAdapter extends FieldAdapter {
     }
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public boolean bindToProgram(Object inObject, SQLiteProgram program, int index) throws IllegalAccessException {
+    if (mReadonly) {
+      return true;
+    }
+    if (isUnloaded(inObject)) {
+      return false;
+    }
+
+    Object value = inObject != null ? mField.get(inObject) : null;
+    if (value == null && mTreatNullAsDefault) {
+      return false;
+    }
+    if (mValueBinder != null) {
+      ((ValueBinder<Object>) mValueBinder).bindValue(program, index, value);
+    } else {
+      TypeAdapters.bindWithContentValues((TypeAdapter<Object>) mTypeAdapter, program, index, mColumnName, value);
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void snapshotValues(Object inObject, Object[] outValues, int index) throws IllegalAccessException {
+    if (mReadonly || isUnloaded(inObject)) {
+      return;
+    }
+
+    Object value = inObject != null ? mField.get(inObject) : null;
+    if (value != null || !mTreatNullAsDefault) {
+      TypeAdapters.putToSnapshot((TypeAdapter<Object>) mTypeAdapter, mColumnName, value, outValues, index);
+    }
+  }
+
   @Override
   public String[] getColumnNames() {
-    return mColumnNames;
+    return mLazy
+        ? EMPTY_ARRAY
+        : mColumnNames;
   }
 
   @Override
   public String[] getWritableColumnNames() {
     return mReadonly
         ? EMPTY_ARRAY
-        : getColumnNames();
+        : mColumnNames;
   }
 }
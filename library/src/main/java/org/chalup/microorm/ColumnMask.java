@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import com.google.common.base.Preconditions;
+
+import android.content.ContentValues;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed subset of the writable columns of specified type, used to
+ * create the {@link ContentValues} for partial update. You can get the
+ * ColumnMask instances with {@link MicroOrm#newColumnMask(Class, String...)}.
+ * This class is thread-safe.
+ */
+public final class ColumnMask<T> {
+  private final DaoAdapter<T> mDaoAdapter;
+  private final String[] mSkippedColumns;
+
+  ColumnMask(DaoAdapter<T> daoAdapter, String... columns) {
+    mDaoAdapter = daoAdapter;
+
+    String[] writableColumns = daoAdapter.getWritableColumns();
+    boolean[] mask = new boolean[writableColumns.length];
+    for (String column : columns) {
+      int index = Arrays.asList(writableColumns).indexOf(column);
+      Preconditions.checkArgument(index >= 0, "%s is not a writable column", column);
+      mask[index] = true;
+    }
+
+    String[] skippedColumns = new String[writableColumns.length];
+    int skippedCount = 0;
+    for (int i = 0; i < writableColumns.length; i++) {
+      if (!mask[i]) {
+        skippedColumns[skippedCount++] = writableColumns[i];
+      }
+    }
+    mSkippedColumns = Arrays.copyOf(skippedColumns, skippedCount);
+  }
+
+  /**
+   * Creates the {@link ContentValues} containing only the columns from this
+   * mask.
+   *
+   * @param object the object to be converted into {@link ContentValues}
+   * @return the {@link ContentValues} created from the provided object
+   */
+  public ContentValues toContentValues(T object) {
+    ContentValues values = mDaoAdapter.toContentValues(mDaoAdapter.createContentValues(), object);
+    for (String column : mSkippedColumns) {
+      values.remove(column);
+    }
+    return values;
+  }
+}
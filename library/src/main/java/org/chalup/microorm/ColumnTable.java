@@ -0,0 +1,423 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+import android.database.AbstractCursor;
+import android.database.Cursor;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Contents of the {@link Cursor} stored column by column, i.e. with one array
+ * per column instead of one object per row. You can get the ColumnTable
+ * instances with {@link MicroOrm#columnsFromCursor(Cursor, Class)}.
+ *
+ * <p>
+ * The integral and boolean columns are stored as {@code long[]} (booleans as
+ * 0 or 1), the floating point columns as {@code double[]}, the String columns
+ * as {@code String[]} and the columns of custom types as {@code Object[]}.
+ * The columns mapped to nullable fields additionally have the {@link BitSet}
+ * with the rows containing {@code null}s.
+ * </p>
+ *
+ * <p>
+ * The returned arrays are not copied and should not be modified.
+ * </p>
+ */
+public final class ColumnTable {
+  enum Kind {
+    LONG,
+    BOOLEAN,
+    DOUBLE,
+    STRING,
+    OBJECT
+  }
+
+  private static final class ColumnData {
+    final Kind mKind;
+    final TypeAdapter<?> mTypeAdapter;
+    final Object mValues;
+    final BitSet mNulls;
+
+    ColumnData(Kind kind, TypeAdapter<?> typeAdapter, Object values, BitSet nulls) {
+      mKind = kind;
+      mTypeAdapter = typeAdapter;
+      mValues = values;
+      mNulls = nulls;
+    }
+  }
+
+  private final int mRowCount;
+  private final ImmutableMap<String, ColumnData> mColumns;
+
+  private ColumnTable(int rowCount, ImmutableMap<String, ColumnData> columns) {
+    mRowCount = rowCount;
+    mColumns = columns;
+  }
+
+  /**
+   * @return the number of rows in this table
+   */
+  public int getRowCount() {
+    return mRowCount;
+  }
+
+  /**
+   * @return the names of the columns in this table
+   */
+  public String[] getColumnNames() {
+    return mColumns.keySet().toArray(new String[mColumns.size()]);
+  }
+
+  /**
+   * @param columnName the name of short, int, long or boolean column
+   * @return the values of the specified column
+   */
+  public long[] getLongs(String columnName) {
+    ColumnData column = getColumn(columnName);
+    if (column.mKind != Kind.BOOLEAN) {
+      checkKind(columnName, column, Kind.LONG);
+    }
+    return (long[]) column.mValues;
+  }
+
+  /**
+   * @param columnName the name of float or double column
+   * @return the values of the specified column
+   */
+  public double[] getDoubles(String columnName) {
+    return (double[]) getColumn(columnName, Kind.DOUBLE).mValues;
+  }
+
+  /**
+   * @param columnName the name of String column
+   * @return the values of the specified column
+   */
+  public String[] getStrings(String columnName) {
+    return (String[]) getColumn(columnName, Kind.STRING).mValues;
+  }
+
+  /**
+   * @param columnName the name of column of custom type
+   * @return the values of the specified column converted by the registered
+   * {@link TypeAdapter}
+   */
+  public Object[] getObjects(String columnName) {
+    return (Object[]) getColumn(columnName, Kind.OBJECT).mValues;
+  }
+
+  /**
+   * @param columnName the name of the column
+   * @return the {@link BitSet} with the rows containing {@code null}s in the
+   * specified column, or {@code null} if the column is mapped to the
+   * primitive field
+   */
+  public BitSet getNulls(String columnName) {
+    return getColumn(columnName).mNulls;
+  }
+
+  /**
+   * @param columnName the name of the column
+   * @param row the row number
+   * @return {@code true} if the specified column in the specified row is
+   * {@code null}
+   */
+  public boolean isNull(String columnName, int row) {
+    Preconditions.checkElementIndex(row, mRowCount);
+    BitSet nulls = getColumn(columnName).mNulls;
+    return nulls != null && nulls.get(row);
+  }
+
+  private ColumnData getColumn(String columnName) {
+    ColumnData column = mColumns.get(columnName);
+    if (column == null) {
+      throw new IllegalArgumentException("Unknown column " + columnName);
+    }
+    return column;
+  }
+
+  private ColumnData getColumn(String columnName, Kind kind) {
+    ColumnData column = getColumn(columnName);
+    checkKind(columnName, column, kind);
+    return column;
+  }
+
+  private static void checkKind(String columnName, ColumnData column, Kind kind) {
+    if (column.mKind != kind) {
+      throw new IllegalArgumentException("Column " + columnName + " is not of " + kind + " kind");
+    }
+  }
+
+  /**
+   * Creates the read-only {@link Cursor} over the contents of this table.
+   * The returned {@link Cursor} is not thread-safe, but any number of them
+   * can be used concurrently. The raw values of the columns of custom types
+   * are not stored, so these columns cannot be read from the returned
+   * {@link Cursor}.
+   */
+  Cursor newCursor() {
+    return new ColumnTableCursor(this);
+  }
+
+  private static final class ColumnTableCursor extends AbstractCursor {
+    // the longest prefix of the text, which SQLite converts to the number
+    private static final Pattern NUMERIC_PREFIX = Pattern.compile("^\\s*[+-]?(\\d+(\\.\\d*)?|\\.\\d+)([eE][+-]?\\d+)?");
+
+    private final ColumnTable mTable;
+    private final String[] mColumnNames;
+    private final ColumnData[] mColumns;
+
+    ColumnTableCursor(ColumnTable table) {
+      mTable = table;
+      mColumnNames = table.getColumnNames();
+      mColumns = table.mColumns.values().toArray(new ColumnData[table.mColumns.size()]);
+    }
+
+    @Override
+    public int getCount() {
+      return mTable.mRowCount;
+    }
+
+    @Override
+    public String[] getColumnNames() {
+      return mColumnNames;
+    }
+
+    @Override
+    public String getString(int column) {
+      ColumnData data = mColumns[column];
+      if (isNull(data)) {
+        return null;
+      }
+      switch (data.mKind) {
+        case LONG:
+        case BOOLEAN:
+          return Long.toString(((long[]) data.mValues)[mPos]);
+        case DOUBLE:
+          return Double.toString(((double[]) data.mValues)[mPos]);
+        case STRING:
+          return ((String[]) data.mValues)[mPos];
+        default:
+          throw unsupportedCustomType(column);
+      }
+    }
+
+    private UnsupportedOperationException unsupportedCustomType(int column) {
+      return new UnsupportedOperationException("Raw values of custom type column " + mColumnNames[column] + " are not stored");
+    }
+
+    /**
+     * @return the numeric prefix of the text or null if there is no such
+     * prefix, in which case SQLite converts the text to 0
+     */
+    private static String numericPrefix(String value) {
+      Matcher matcher = NUMERIC_PREFIX.matcher(value);
+      return matcher.lookingAt() ? matcher.group().trim() : null;
+    }
+
+    @Override
+    public short getShort(int column) {
+      return (short) getLong(column);
+    }
+
+    @Override
+    public int getInt(int column) {
+      return (int) getLong(column);
+    }
+
+    @Override
+    public long getLong(int column) {
+      ColumnData data = mColumns[column];
+      switch (data.mKind) {
+        case LONG:
+        case BOOLEAN:
+          return ((long[]) data.mValues)[mPos];
+        case DOUBLE:
+          return (long) ((double[]) data.mValues)[mPos];
+        case STRING:
+          String value = getString(column);
+          String prefix = value != null ? numericPrefix(value) : null;
+          if (prefix == null) {
+            return 0L;
+          }
+          try {
+            return Long.parseLong(prefix);
+          } catch (NumberFormatException e) {
+            // real number or integer out of range
+            return (long) Double.parseDouble(prefix);
+          }
+        default:
+          throw unsupportedCustomType(column);
+      }
+    }
+
+    @Override
+    public float getFloat(int column) {
+      return (float) getDouble(column);
+    }
+
+    @Override
+    public double getDouble(int column) {
+      ColumnData data = mColumns[column];
+      switch (data.mKind) {
+        case LONG:
+        case BOOLEAN:
+          return ((long[]) data.mValues)[mPos];
+        case DOUBLE:
+          return ((double[]) data.mValues)[mPos];
+        case STRING:
+          String value = getString(column);
+          String prefix = value != null ? numericPrefix(value) : null;
+          return prefix != null ? Double.parseDouble(prefix) : 0.0;
+        default:
+          throw unsupportedCustomType(column);
+      }
+    }
+
+    @Override
+    public boolean isNull(int column) {
+      return isNull(mColumns[column]);
+    }
+
+    private boolean isNull(ColumnData data) {
+      return data.mNulls != null && data.mNulls.get(mPos);
+    }
+  }
+
+  private static final class ColumnSpec {
+    final Kind mKind;
+    final TypeAdapter<?> mTypeAdapter;
+    final boolean mNullable;
+
+    ColumnSpec(Kind kind, TypeAdapter<?> typeAdapter, boolean nullable) {
+      mKind = kind;
+      mTypeAdapter = typeAdapter;
+      mNullable = nullable;
+    }
+
+    ColumnData newData(int rowCount) {
+      Object values;
+      switch (mKind) {
+        case LONG:
+        case BOOLEAN:
+          values = new long[rowCount];
+          break;
+        case DOUBLE:
+          values = new double[rowCount];
+          break;
+        case STRING:
+          values = new String[rowCount];
+          break;
+        default:
+          values = new Object[rowCount];
+      }
+      return new ColumnData(mKind, mTypeAdapter, values, mNullable ? new BitSet(rowCount) : null);
+    }
+  }
+
+  static final class Builder {
+    private final int mRowCount;
+    private final ImmutableMap.Builder<String, ColumnSpec> mColumns = ImmutableMap.builder();
+    private boolean mHasObjectColumns;
+
+    Builder(int rowCount) {
+      mRowCount = rowCount;
+    }
+
+    /**
+     * Adds the column definition; the arrays for the column values are not
+     * allocated until {@link #read(Cursor)} is called.
+     */
+    Builder addColumn(String columnName, Kind kind, TypeAdapter<?> typeAdapter, boolean nullable) {
+      mColumns.put(columnName, new ColumnSpec(kind, typeAdapter, nullable));
+      mHasObjectColumns |= kind == Kind.OBJECT;
+      return this;
+    }
+
+    boolean hasObjectColumns() {
+      return mHasObjectColumns;
+    }
+
+    ColumnTable read(Cursor cursor) {
+      Cursor c = WindowCursor.wrap(cursor);
+      ImmutableMap.Builder<String, ColumnData> columnsBuilder = ImmutableMap.builder();
+      for (Map.Entry<String, ColumnSpec> entry : mColumns.build().entrySet()) {
+        columnsBuilder.put(entry.getKey(), entry.getValue().newData(mRowCount));
+      }
+      ColumnTable table = new ColumnTable(mRowCount, columnsBuilder.build());
+      if (mRowCount == 0 || !c.moveToFirst()) {
+        return table;
+      }
+
+      ColumnData[] columns = table.mColumns.values().toArray(new ColumnData[table.mColumns.size()]);
+      int[] columnIndexes = new int[columns.length];
+      int i = 0;
+      for (String columnName : table.mColumns.keySet()) {
+        columnIndexes[i++] = c.getColumnIndexOrThrow(columnName);
+      }
+
+      int row = 0;
+      do {
+        for (i = 0; i < columns.length; i++) {
+          readValue(c, columnIndexes[i], columns[i], row);
+        }
+      } while (++row < mRowCount && c.moveToNext());
+      WindowCursor.syncPosition(c);
+
+      return table;
+    }
+
+    private static void readValue(Cursor c, int columnIndex, ColumnData column, int row) {
+      if (column.mKind == Kind.OBJECT) {
+        // custom adapters decide themselves how to handle nulls
+        Object value = column.mTypeAdapter instanceof IndexedTypeAdapter
+            ? ((IndexedTypeAdapter<?>) column.mTypeAdapter).fromCursor(c, columnIndex)
+            : column.mTypeAdapter.fromCursor(c, c.getColumnName(columnIndex));
+        ((Object[]) column.mValues)[row] = value;
+        if (value == null && column.mNulls != null) {
+          column.mNulls.set(row);
+        }
+        return;
+      }
+
+      if (column.mNulls != null && c.isNull(columnIndex)) {
+        column.mNulls.set(row);
+        return;
+      }
+
+      switch (column.mKind) {
+        case LONG:
+          ((long[]) column.mValues)[row] = c.getLong(columnIndex);
+          break;
+        case BOOLEAN:
+          ((long[]) column.mValues)[row] = c.getInt(columnIndex) == 1 ? 1 : 0;
+          break;
+        case DOUBLE:
+          ((double[]) column.mValues)[row] = c.getDouble(columnIndex);
+          break;
+        default:
+          ((String[]) column.mValues)[row] = c.getString(columnIndex);
+      }
+    }
+  }
+}
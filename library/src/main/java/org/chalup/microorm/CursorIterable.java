@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import com.google.common.collect.AbstractIterator;
+
+import org.chalup.microorm.MetricsListener.Operation;
+
+import android.database.Cursor;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * {@link Iterable} converting rows of the {@link Cursor} into objects of
+ * specified type one at a time, when the {@link Iterator} advances. Each
+ * {@link Iterator} starts from the first row of the {@link Cursor}, so the
+ * {@link Cursor} should not be iterated from multiple threads or by nested
+ * loops at the same time.
+ *
+ * <p>
+ * {@link CursorIterable} acquired with
+ * {@link MicroOrm#iterateAndClose(android.database.Cursor, Class)} owns the
+ * {@link Cursor}: it closes the {@link Cursor} after the last row is
+ * converted or when {@link #close()} is called, whichever comes first.
+ * </p>
+ */
+public final class CursorIterable<T> implements Iterable<T>, Closeable {
+  private final Cursor mCursor;
+  private final DaoAdapter<T> mDaoAdapter;
+  private final boolean mOwnsCursor;
+  private final boolean mRecycleInstance;
+  private final ObjectPool<T> mObjectPool;
+  private final Class<T> mClass;
+  private final MetricsListener mMetricsListener;
+
+  CursorIterable(Cursor cursor, DaoAdapter<T> daoAdapter, boolean ownsCursor, Class<T> klass, MetricsListener metricsListener) {
+    this(cursor, daoAdapter, ownsCursor, false, null, klass, metricsListener);
+  }
+
+  CursorIterable(Cursor cursor, DaoAdapter<T> daoAdapter, boolean ownsCursor, boolean recycleInstance, ObjectPool<T> objectPool, Class<T> klass, MetricsListener metricsListener) {
+    mCursor = cursor;
+    mDaoAdapter = daoAdapter;
+    mOwnsCursor = ownsCursor;
+    mRecycleInstance = recycleInstance;
+    mObjectPool = objectPool;
+    mClass = klass;
+    mMetricsListener = metricsListener;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (mCursor == null) {
+      return new AbstractIterator<T>() {
+        @Override
+        protected T computeNext() {
+          finishMeasurement(0, 0);
+          return endOfData();
+        }
+      };
+    }
+
+    mCursor.moveToPosition(-1);
+    final BoundMapper<T> mapper = new BoundMapper<>(mCursor, mDaoAdapter);
+    final T recycledInstance = mRecycleInstance ? mDaoAdapter.createInstance() : null;
+
+    return new AbstractIterator<T>() {
+      // only the conversion is measured, not the loop body between the calls
+      private long mMappingNanos;
+      private int mRowCount;
+
+      @Override
+      protected T computeNext() {
+        if (mCursor.moveToNext()) {
+          long start = mMetricsListener != null ? System.nanoTime() : 0;
+          T object = map();
+          if (mMetricsListener != null) {
+            mMappingNanos += System.nanoTime() - start;
+            mRowCount++;
+          }
+          return object;
+        }
+
+        if (mOwnsCursor) {
+          close();
+        }
+        finishMeasurement(mRowCount, mMappingNanos);
+        return endOfData();
+      }
+
+      private T map() {
+        if (recycledInstance != null) {
+          return mapper.recycle(recycledInstance);
+        } else if (mObjectPool != null) {
+          return mapper.recycle(mObjectPool.acquire());
+        } else {
+          return mapper.map();
+        }
+      }
+    };
+  }
+
+  private void finishMeasurement(int rowCount, long mappingNanos) {
+    if (mMetricsListener != null) {
+      mMetricsListener.onOperation(Operation.ITERATE, mClass, rowCount, mappingNanos);
+    }
+  }
+
+  /**
+   * Closes the {@link Cursor} if this {@link CursorIterable} owns it,
+   * otherwise does nothing.
+   */
+  @Override
+  public void close() {
+    if (mOwnsCursor && mCursor != null && !mCursor.isClosed()) {
+      mCursor.close();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import android.database.AbstractWindowedCursor;
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+
+/**
+ * Helpers for comparing the String columns with the known values without
+ * allocating the String for every row.
+ */
+final class CursorStrings {
+  private CursorStrings() {
+  }
+
+  private static final ThreadLocal<CharArrayBuffer> BUFFERS = new ThreadLocal<CharArrayBuffer>() {
+    @Override
+    protected CharArrayBuffer initialValue() {
+      return new CharArrayBuffer(64);
+    }
+  };
+
+  /**
+   * Copies the non-null String column into the buffer reused by the calling
+   * thread. Only the cursors backed by {@link android.database.CursorWindow}
+   * can do this without creating the String, so for other cursors this
+   * method does nothing and returns null.
+   *
+   * @return the buffer with the column value, valid until the next call on
+   * the same thread, or null if the String should be read from the cursor
+   */
+  static CharArrayBuffer copyToBuffer(Cursor c, int columnIndex) {
+    if (!(c instanceof AbstractWindowedCursor || c instanceof WindowCursor)) {
+      return null;
+    }
+    CharArrayBuffer buffer = BUFFERS.get();
+    c.copyStringToBuffer(columnIndex, buffer);
+    return buffer;
+  }
+
+  /**
+   * @return the same value as {@link String#hashCode()} of the buffer contents
+   */
+  static int hashCode(CharArrayBuffer buffer) {
+    int hash = 0;
+    for (int i = 0; i < buffer.sizeCopied; i++) {
+      hash = 31 * hash + buffer.data[i];
+    }
+    return hash;
+  }
+
+  static boolean contentEquals(String value, CharArrayBuffer buffer) {
+    if (value.length() != buffer.sizeCopied) {
+      return false;
+    }
+    for (int i = 0; i < buffer.sizeCopied; i++) {
+      if (value.charAt(i) != buffer.data[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
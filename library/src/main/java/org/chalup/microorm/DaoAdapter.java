@@ -18,17 +18,42 @@ package org.chalup.microorm;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
 
 interface DaoAdapter<T> {
   T createInstance();
 
   T fromCursor(Cursor c, T object);
 
+  T newFromCursor(Cursor c, int[] columnIndexes, int offset);
+
+  T fromCursor(Cursor c, int[] columnIndexes, int offset, T object);
+
+  T recycleFromCursor(Cursor c, int[] columnIndexes, int offset, T object);
+
+  int[] getColumnIndexes(Cursor c);
+
   ContentValues toContentValues(ContentValues values, T object);
 
   ContentValues createContentValues();
 
+  boolean bindToStatement(SQLiteProgram program, int index, T object);
+
+  /**
+   * Stores the values of writable columns in the array, in the order of
+   * {@link #getWritableColumns()}, starting at the given index. The columns
+   * skipped by {@link #toContentValues(ContentValues, Object)} are left
+   * unchanged.
+   */
+  void snapshotValues(T object, Object[] outValues, int index);
+
   String[] getProjection();
 
+  /**
+   * @return the projection without the duplicates, e.g. from the columns
+   * overridden in the @Embedded objects
+   */
+  String[] getDistinctProjection();
+
   String[] getWritableColumns();
 }
@@ -18,22 +18,65 @@ package org.chalup.microorm;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
 
 import java.lang.reflect.Field;
 
 class EmbeddedFieldAdapter extends FieldAdapter {
 
   private final DaoAdapter<Object> mDaoAdapter;
+  private final boolean mNullIfAllNull;
+  private final boolean mHasCreator;
+  private final int mColumnCount;
 
   @SuppressWarnings("unchecked")
-  EmbeddedFieldAdapter(Field field, DaoAdapter<?> daoAdapter) {
+  EmbeddedFieldAdapter(Field field, DaoAdapter<?> daoAdapter, boolean nullIfAllNull, boolean hasCreator) {
     super(field);
     mDaoAdapter = ((DaoAdapter<Object>) daoAdapter);
+    mNullIfAllNull = nullIfAllNull;
+    mHasCreator = hasCreator;
+    mColumnCount = daoAdapter.getProjection().length;
   }
 
   @Override
-  public void setValueFromCursor(Cursor inCursor, Object outTarget) throws IllegalArgumentException, IllegalAccessException {
-    mField.set(outTarget, mDaoAdapter.fromCursor(inCursor, mDaoAdapter.createInstance()));
+  public void setValueFromCursor(Cursor inCursor, int[] columnIndexes, int offset, Object outTarget) throws IllegalArgumentException, IllegalAccessException {
+    mField.set(outTarget, readValueFromCursor(inCursor, columnIndexes, offset));
+  }
+
+  @Override
+  public Object readValueFromCursor(Cursor inCursor, int[] columnIndexes, int offset) {
+    if (mNullIfAllNull && allNull(inCursor, columnIndexes, offset)) {
+      return null;
+    }
+    return mDaoAdapter.newFromCursor(inCursor, columnIndexes, offset);
+  }
+
+  @Override
+  public void recycleValueFromCursor(Cursor inCursor, int[] columnIndexes, int offset, Object outTarget) throws IllegalArgumentException, IllegalAccessException {
+    if (mNullIfAllNull && allNull(inCursor, columnIndexes, offset)) {
+      mField.set(outTarget, null);
+      return;
+    }
+    if (mHasCreator) {
+      // the objects created with @Creator are never refilled field by field
+      mField.set(outTarget, mDaoAdapter.newFromCursor(inCursor, columnIndexes, offset));
+      return;
+    }
+    Object value = mField.get(outTarget);
+    if (value == null) {
+      value = mDaoAdapter.createInstance();
+      mField.set(outTarget, value);
+    }
+    mDaoAdapter.recycleFromCursor(inCursor, columnIndexes, offset, value);
+  }
+
+  private boolean allNull(Cursor inCursor, int[] columnIndexes, int offset) {
+    for (int i = offset; i < offset + mColumnCount; i++) {
+      if (!inCursor.isNull(columnIndexes[i])) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -41,6 +84,18 @@ class EmbeddedFieldAdapter extends FieldAdapter {
     mDaoAdapter.toContentValues(outValues, value);
   }
 
+  @Override
+  public boolean bindToProgram(Object inObject, SQLiteProgram program, int index) throws IllegalAccessException {
+    Object value = inObject != null ? mField.get(inObject) : null;
+    return mDaoAdapter.bindToStatement(program, index, value);
+  }
+
+  @Override
+  public void snapshotValues(Object inObject, Object[] outValues, int index) throws IllegalAccessException {
+    Object value = inObject != null ? mField.get(inObject) : null;
+    mDaoAdapter.snapshotValues(value, outValues, index);
+  }
+
   @Override
   public String[] getColumnNames() {
     return mDaoAdapter.getProjection();
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import org.chalup.microorm.annotations.EnumCode;
+import org.chalup.microorm.annotations.EnumStorage;
+
+import android.content.ContentValues;
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
+
+import java.util.Arrays;
+
+/**
+ * Built-in {@link TypeAdapter}s for a single enum class. The lookup tables
+ * for all kinds of {@link EnumStorage} are computed once, when this object
+ * is created, so reading the column doesn't call {@link Enum#valueOf}.
+ */
+final class EnumTypeAdapters<E extends Enum<E>> {
+  private final Class<E> mEnumClass;
+  private final E[] mConstants;
+
+  // open addressing table of constants by the hash code of their names
+  private final E[] mConstantsByName;
+  private final int mNameMask;
+
+  // null if some constants are not annotated with @EnumCode
+  private final long[] mCodes;
+  private final long[] mSortedCodes;
+  private final E[] mConstantsBySortedCode;
+
+  private final TypeAdapter<E> mNameAdapter = new NameAdapter();
+  private final TypeAdapter<E> mOrdinalAdapter = new OrdinalAdapter();
+  private final TypeAdapter<E> mCodeAdapter = new CodeAdapter();
+
+  private EnumTypeAdapters(Class<E> enumClass) {
+    mEnumClass = enumClass;
+    mConstants = enumClass.getEnumConstants();
+
+    int size = Integer.highestOneBit(Math.max(2 * mConstants.length - 1, 1)) << 1;
+    mConstantsByName = Arrays.copyOf(mConstants, size);
+    Arrays.fill(mConstantsByName, null);
+    mNameMask = size - 1;
+    for (E constant : mConstants) {
+      int slot = constant.name().hashCode() & mNameMask;
+      while (mConstantsByName[slot] != null) {
+        slot = (slot + 1) & mNameMask;
+      }
+      mConstantsByName[slot] = constant;
+    }
+
+    mCodes = readCodes(enumClass, mConstants);
+    if (mCodes != null) {
+      mSortedCodes = mCodes.clone();
+      Arrays.sort(mSortedCodes);
+      for (int i = 1; i < mSortedCodes.length; i++) {
+        if (mSortedCodes[i] == mSortedCodes[i - 1]) {
+          throw new IllegalArgumentException("Duplicate @EnumCode(" + mSortedCodes[i] + ") in " + enumClass.getName());
+        }
+      }
+      mConstantsBySortedCode = mConstants.clone();
+      for (E constant : mConstants) {
+        mConstantsBySortedCode[Arrays.binarySearch(mSortedCodes, mCodes[constant.ordinal()])] = constant;
+      }
+    } else {
+      mSortedCodes = null;
+      mConstantsBySortedCode = null;
+    }
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  static EnumTypeAdapters<?> create(Class<?> enumClass) {
+    return new EnumTypeAdapters(enumClass.asSubclass(Enum.class));
+  }
+
+  private static long[] readCodes(Class<?> enumClass, Enum<?>[] constants) {
+    long[] codes = new long[constants.length];
+    for (Enum<?> constant : constants) {
+      EnumCode code;
+      try {
+        code = enumClass.getField(constant.name()).getAnnotation(EnumCode.class);
+      } catch (NoSuchFieldException e) {
+        throw new AssertionError(e);
+      }
+      if (code == null) {
+        return null;
+      }
+      codes[constant.ordinal()] = code.value();
+    }
+    return codes;
+  }
+
+  TypeAdapter<E> get(EnumStorage storage) {
+    switch (storage) {
+      case NAME:
+        return mNameAdapter;
+      case ORDINAL:
+        return mOrdinalAdapter;
+      case CODE:
+        if (mCodes == null) {
+          throw new IllegalArgumentException("Not all constants of " + mEnumClass.getName() + " are annotated with @EnumCode");
+        }
+        return mCodeAdapter;
+      default:
+        throw new AssertionError(storage);
+    }
+  }
+
+  private E fromName(Cursor c, int columnIndex) {
+    CharArrayBuffer buffer = CursorStrings.copyToBuffer(c, columnIndex);
+    if (buffer == null) {
+      return fromName(c.getString(columnIndex));
+    }
+    for (int slot = CursorStrings.hashCode(buffer) & mNameMask; mConstantsByName[slot] != null; slot = (slot + 1) & mNameMask) {
+      if (CursorStrings.contentEquals(mConstantsByName[slot].name(), buffer)) {
+        return mConstantsByName[slot];
+      }
+    }
+    throw unknownValue(new String(buffer.data, 0, buffer.sizeCopied));
+  }
+
+  private E fromName(String name) {
+    for (int slot = name.hashCode() & mNameMask; mConstantsByName[slot] != null; slot = (slot + 1) & mNameMask) {
+      if (mConstantsByName[slot].name().equals(name)) {
+        return mConstantsByName[slot];
+      }
+    }
+    throw unknownValue(name);
+  }
+
+  private E fromOrdinal(int ordinal) {
+    if (ordinal < 0 || ordinal >= mConstants.length) {
+      throw unknownValue(ordinal);
+    }
+    return mConstants[ordinal];
+  }
+
+  private E fromCode(long code) {
+    int index = Arrays.binarySearch(mSortedCodes, code);
+    if (index < 0) {
+      throw unknownValue(code);
+    }
+    return mConstantsBySortedCode[index];
+  }
+
+  private IllegalArgumentException unknownValue(Object value) {
+    return new IllegalArgumentException("No constant of " + mEnumClass.getName() + " for value " + value);
+  }
+
+  private abstract class EnumAdapter implements IndexedTypeAdapter<E>, ValueBinder<E> {
+    @Override
+    public E fromCursor(Cursor c, String columnName) {
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public E fromCursor(Cursor c, int columnIndex) {
+      return c.isNull(columnIndex) ? null : read(c, columnIndex);
+    }
+
+    @Override
+    public void toContentValues(ContentValues values, String columnName, E object) {
+      if (object == null) {
+        values.putNull(columnName);
+      } else {
+        put(values, columnName, object);
+      }
+    }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, E value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        bind(program, index, value);
+      }
+    }
+
+    abstract E read(Cursor c, int columnIndex);
+
+    abstract void put(ContentValues values, String columnName, E object);
+
+    abstract void bind(SQLiteProgram program, int index, E value);
+  }
+
+  private class NameAdapter extends EnumAdapter {
+    @Override
+    E read(Cursor c, int columnIndex) {
+      return fromName(c, columnIndex);
+    }
+
+    @Override
+    void put(ContentValues values, String columnName, E object) {
+      values.put(columnName, object.name());
+    }
+
+    @Override
+    void bind(SQLiteProgram program, int index, E value) {
+      program.bindString(index, value.name());
+    }
+  }
+
+  private class OrdinalAdapter extends EnumAdapter {
+    @Override
+    E read(Cursor c, int columnIndex) {
+      return fromOrdinal(c.getInt(columnIndex));
+    }
+
+    @Override
+    void put(ContentValues values, String columnName, E object) {
+      values.put(columnName, object.ordinal());
+    }
+
+    @Override
+    void bind(SQLiteProgram program, int index, E value) {
+      program.bindLong(index, value.ordinal());
+    }
+  }
+
+  private class CodeAdapter extends EnumAdapter {
+    @Override
+    E read(Cursor c, int columnIndex) {
+      return fromCode(c.getLong(columnIndex));
+    }
+
+    @Override
+    void put(ContentValues values, String columnName, E object) {
+      values.put(columnName, mCodes[object.ordinal()]);
+    }
+
+    @Override
+    void bind(SQLiteProgram program, int index, E value) {
+      program.bindLong(index, mCodes[value.ordinal()]);
+    }
+  }
+}
@@ -18,6 +18,7 @@ package org.chalup.microorm;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
 
 import java.lang.reflect.Field;
 
@@ -29,9 +30,19 @@ abstract class FieldAdapter {
     mField = field;
   }
 
-  public abstract void setValueFromCursor(Cursor inCursor, Object outTarget)
+  /**
+   * @return the value of the field read from the cursor, without setting it
+   */
+  public abstract Object readValueFromCursor(Cursor inCursor, int[] columnIndexes, int offset);
+
+  public abstract void setValueFromCursor(Cursor inCursor, int[] columnIndexes, int offset, Object outTarget)
       throws IllegalArgumentException, IllegalAccessException;
 
+  public void recycleValueFromCursor(Cursor inCursor, int[] columnIndexes, int offset, Object outTarget)
+      throws IllegalArgumentException, IllegalAccessException {
+    setValueFromCursor(inCursor, columnIndexes, offset, outTarget);
+  }
+
   public void putToContentValues(Object inObject, ContentValues outValues) throws IllegalAccessException {
     Object value = inObject != null ? mField.get(inObject) : null;
     putValueToContentValues(value, outValues);
@@ -39,6 +50,17 @@ abstract class FieldAdapter {
 
   protected abstract void putValueToContentValues(Object value, ContentValues outValues);
 
+  /**
+   * @return false if the value cannot be bound, because the column should be
+   * skipped to use the default value
+   */
+  public abstract boolean bindToProgram(Object inObject, SQLiteProgram program, int index) throws IllegalAccessException;
+
+  /**
+   * @see DaoAdapter#snapshotValues(Object, Object[], int)
+   */
+  public abstract void snapshotValues(Object inObject, Object[] outValues, int index) throws IllegalAccessException;
+
   public abstract String[] getColumnNames();
 
   public abstract String[] getWritableColumnNames();
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+
+import org.chalup.microorm.annotations.EnumStorage;
+import org.chalup.microorm.annotations.Intern;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Base class for the adapters generated by the microorm-compiler annotation
+ * processor. This class is not a part of the public API and should not be
+ * used or extended directly.
+ */
+public abstract class GeneratedDaoAdapter<T> implements DaoAdapter<T> {
+  static final String SUFFIX = "$$MicroOrmAdapter";
+
+  private final String[] mProjection;
+  private final String[] mDistinctProjection;
+  private final String[] mWritableColumns;
+
+  protected GeneratedDaoAdapter(String[] projection, String[] writableColumns) {
+    mProjection = projection;
+    mDistinctProjection = ImmutableSet.copyOf(projection).toArray(new String[0]);
+    mWritableColumns = writableColumns;
+  }
+
+  @Override
+  public abstract T createInstance();
+
+  @Override
+  public T newFromCursor(Cursor c, int[] columnIndexes, int offset) {
+    // the new instance has all @Embedded objects initialized already
+    return recycleFromCursor(c, columnIndexes, offset, createInstance());
+  }
+
+  @Override
+  public abstract T fromCursor(Cursor c, int[] columnIndexes, int offset, T object);
+
+  @Override
+  public abstract T recycleFromCursor(Cursor c, int[] columnIndexes, int offset, T object);
+
+  @Override
+  public abstract ContentValues toContentValues(ContentValues values, T object);
+
+  @Override
+  public abstract boolean bindToStatement(SQLiteProgram program, int index, T object);
+
+  @Override
+  public abstract void snapshotValues(T object, Object[] outValues, int index);
+
+  @Override
+  public T fromCursor(Cursor c, T object) {
+    return fromCursor(c, getColumnIndexes(c), 0, object);
+  }
+
+  @Override
+  public int[] getColumnIndexes(Cursor c) {
+    int[] columnIndexes = new int[mProjection.length];
+    for (int i = 0; i < mProjection.length; i++) {
+      columnIndexes[i] = c.getColumnIndexOrThrow(mProjection[i]);
+    }
+    return columnIndexes;
+  }
+
+  @Override
+  public ContentValues createContentValues() {
+    return new ContentValues(mWritableColumns.length);
+  }
+
+  @Override
+  public String[] getProjection() {
+    return mProjection.clone();
+  }
+
+  @Override
+  public String[] getDistinctProjection() {
+    return mDistinctProjection.clone();
+  }
+
+  @Override
+  public String[] getWritableColumns() {
+    return mWritableColumns.clone();
+  }
+
+  @SuppressWarnings("unchecked")
+  protected static <F> TypeAdapter<F> getTypeAdapter(MicroOrm microOrm, Class<F> klass) {
+    return (TypeAdapter<F>) microOrm.getTypeAdapter(klass);
+  }
+
+  @SuppressWarnings("unchecked")
+  protected static <F> TypeAdapter<F> getEnumAdapter(MicroOrm microOrm, Class<F> klass, EnumStorage storage) {
+    return (TypeAdapter<F>) microOrm.getEnumAdapter(klass, storage);
+  }
+
+  protected static <F> TypeAdapter<LazyValue<F>> getLazyValueAdapter(MicroOrm microOrm, Class<F> klass) {
+    return microOrm.getLazyValueAdapter(klass);
+  }
+
+  protected static TypeAdapter<String> getInterningAdapter(MicroOrm microOrm, Intern intern) {
+    return microOrm.getInterningAdapter(intern);
+  }
+
+  protected static void resetLazyColumns(MicroOrm microOrm, Object object) {
+    microOrm.mLazyColumnsTracker.resetLoaded(object);
+  }
+
+  protected static boolean isLazyColumnSkipped(MicroOrm microOrm, Object object, Object value) {
+    return microOrm.mLazyColumnsTracker.isSkipped(object, value);
+  }
+
+  protected static <F> F readColumn(TypeAdapter<F> typeAdapter, Cursor c, int columnIndex, String columnName, F currentValue) {
+    if (typeAdapter instanceof ReusingTypeAdapter) {
+      return ((ReusingTypeAdapter<F>) typeAdapter).fromCursor(c, columnIndex, currentValue);
+    }
+    return readColumn(typeAdapter, c, columnIndex, columnName);
+  }
+
+  protected static <F> F readColumn(TypeAdapter<F> typeAdapter, Cursor c, int columnIndex, String columnName) {
+    return typeAdapter instanceof IndexedTypeAdapter
+        ? ((IndexedTypeAdapter<F>) typeAdapter).fromCursor(c, columnIndex)
+        : typeAdapter.fromCursor(c, columnName);
+  }
+
+  protected static boolean allNull(Cursor c, int[] columnIndexes, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (!c.isNull(columnIndexes[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected static Short readOptionalShort(Cursor c, int columnIndex) {
+    return c.isNull(columnIndex) ? null : c.getShort(columnIndex);
+  }
+
+  protected static Integer readOptionalInteger(Cursor c, int columnIndex) {
+    return c.isNull(columnIndex) ? null : c.getInt(columnIndex);
+  }
+
+  protected static Long readOptionalLong(Cursor c, int columnIndex) {
+    return c.isNull(columnIndex) ? null : c.getLong(columnIndex);
+  }
+
+  protected static Float readOptionalFloat(Cursor c, int columnIndex) {
+    return c.isNull(columnIndex) ? null : c.getFloat(columnIndex);
+  }
+
+  protected static Double readOptionalDouble(Cursor c, int columnIndex) {
+    return c.isNull(columnIndex) ? null : c.getDouble(columnIndex);
+  }
+
+  protected static Boolean readOptionalBoolean(Cursor c, int columnIndex) {
+    return c.isNull(columnIndex) ? null : c.getInt(columnIndex) == 1;
+  }
+
+  protected static String readOptionalString(Cursor c, int columnIndex) {
+    return c.isNull(columnIndex) ? null : c.getString(columnIndex);
+  }
+
+  protected static <F> void bindColumn(TypeAdapter<F> typeAdapter, SQLiteProgram program, int index, String columnName, F value) {
+    ValueBinder<F> valueBinder = TypeAdapters.getValueBinder(typeAdapter);
+    if (valueBinder != null) {
+      valueBinder.bindValue(program, index, value);
+    } else {
+      TypeAdapters.bindWithContentValues(typeAdapter, program, index, columnName, value);
+    }
+  }
+
+  protected static <F> void snapshotColumn(TypeAdapter<F> typeAdapter, Object[] outValues, int index, String columnName, F value) {
+    TypeAdapters.putToSnapshot(typeAdapter, columnName, value, outValues, index);
+  }
+
+  protected static void bindOptionalLong(SQLiteProgram program, int index, Number value) {
+    if (value == null) {
+      program.bindNull(index);
+    } else {
+      program.bindLong(index, value.longValue());
+    }
+  }
+
+  protected static void bindOptionalDouble(SQLiteProgram program, int index, Number value) {
+    if (value == null) {
+      program.bindNull(index);
+    } else {
+      program.bindDouble(index, value.doubleValue());
+    }
+  }
+
+  protected static void bindOptionalBoolean(SQLiteProgram program, int index, Boolean value) {
+    if (value == null) {
+      program.bindNull(index);
+    } else {
+      program.bindLong(index, value ? 1 : 0);
+    }
+  }
+
+  protected static void bindOptionalString(SQLiteProgram program, int index, String value) {
+    if (value == null) {
+      program.bindNull(index);
+    } else {
+      program.bindString(index, value);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> DaoAdapter<T> find(Class<T> klass, MicroOrm microOrm) {
+    Class<?> adapterClass;
+    try {
+      adapterClass = Class.forName(klass.getName() + SUFFIX, true, klass.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+
+    try {
+      Constructor<?> constructor = adapterClass.getConstructor(MicroOrm.class);
+      return (DaoAdapter<T>) constructor.newInstance(microOrm);
+    } catch (NoSuchMethodException e) {
+      throw new AssertionError(e);
+    } catch (InvocationTargetException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    } catch (InstantiationException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
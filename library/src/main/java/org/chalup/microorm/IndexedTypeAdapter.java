@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import android.database.Cursor;
+
+/**
+ * {@link TypeAdapter} which can read the column by its index. MicroOrm
+ * resolves column indexes once per {@link Cursor} and uses this method
+ * instead of {@link #fromCursor(android.database.Cursor, String)} whenever
+ * the registered adapter implements this interface.
+ */
+public interface IndexedTypeAdapter<T> extends TypeAdapter<T> {
+
+  /**
+   * Reads a column from cursor and converts it to a Java object. Returns the
+   * converted object.
+   *
+   * @param c cursor containing the column
+   * @param columnIndex index of the column containing data representing the
+   * Java object
+   * @return the converted Java object. May be null.
+   */
+  public T fromCursor(Cursor c, int columnIndex);
+}
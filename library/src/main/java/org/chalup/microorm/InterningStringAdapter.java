@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+
+/**
+ * Reads String column through the {@link StringInterner}. For the cursors
+ * backed by {@link android.database.CursorWindow} the value is copied into
+ * the reusable buffer first, so no String is allocated if the canonical one
+ * is found.
+ *
+ * Every column has its own adapter, because in the adaptive mode the
+ * adapter tracks the lookups hit rate of its column.
+ */
+final class InterningStringAdapter extends TypeAdapters.StringAdapter {
+  private static final int SAMPLE_SIZE = 1024;
+
+  private final StringInterner mInterner;
+  private final boolean mAdaptive;
+
+  // The counters are updated without synchronization, because the
+  // approximate hit rate is good enough for the adaptive mode.
+  private int mLookups;
+  private int mHits;
+  private volatile boolean mDisabled;
+
+  InterningStringAdapter(StringInterner interner, boolean adaptive) {
+    mInterner = interner;
+    mAdaptive = adaptive;
+  }
+
+  @Override
+  public String fromCursor(Cursor c, int columnIndex) {
+    if (mDisabled || c.isNull(columnIndex)) {
+      return c.getString(columnIndex);
+    }
+
+    String canonical;
+    String value = null;
+    CharArrayBuffer buffer = CursorStrings.copyToBuffer(c, columnIndex);
+    if (buffer != null) {
+      canonical = mInterner.find(buffer);
+      if (canonical == null) {
+        value = new String(buffer.data, 0, buffer.sizeCopied);
+      }
+    } else {
+      value = c.getString(columnIndex);
+      canonical = mInterner.find(value);
+    }
+
+    if (mAdaptive) {
+      sample(canonical != null);
+    }
+    if (canonical != null) {
+      return canonical;
+    }
+    mInterner.add(value);
+    return value;
+  }
+
+  private void sample(boolean hit) {
+    if (hit) {
+      mHits++;
+    }
+    if (++mLookups >= SAMPLE_SIZE) {
+      // most values are seen for the first time, so the table only
+      // evicts the values of other, low-cardinality columns
+      if (mHits < SAMPLE_SIZE / 2) {
+        mDisabled = true;
+      }
+      mLookups = 0;
+      mHits = 0;
+    }
+  }
+}
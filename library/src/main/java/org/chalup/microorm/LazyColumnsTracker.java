@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import com.google.common.collect.MapMaker;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of the objects declaring the {@link org.chalup.microorm.annotations.Column#lazy()}
+ * fields, which were loaded by {@link LazyLoader}. The null lazy field of
+ * any other object means the column was not loaded, so it's skipped when
+ * the object is written. Only the loaded objects are recorded, so mapping
+ * the rows doesn't touch the map until some objects are loaded. The objects
+ * are referenced weakly and compared by identity.
+ */
+class LazyColumnsTracker {
+  private final ConcurrentMap<Object, Boolean> mLoaded = new MapMaker().weakKeys().makeMap();
+  private volatile boolean mHasLoadedObjects;
+
+  void markLoaded(Object object) {
+    mHasLoadedObjects = true;
+    mLoaded.put(object, Boolean.TRUE);
+  }
+
+  /**
+   * Called when the object is filled with another row.
+   */
+  void resetLoaded(Object object) {
+    if (mHasLoadedObjects && mLoaded.containsKey(object)) {
+      mLoaded.remove(object);
+    }
+  }
+
+  boolean isLoaded(Object object) {
+    return mHasLoadedObjects && mLoaded.containsKey(object);
+  }
+
+  /**
+   * @return true if the null value of the lazy field means the column was
+   * not loaded and should not be written
+   */
+  boolean isSkipped(Object object, Object value) {
+    return value == null && !isLoaded(object);
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads the columns annotated with {@link Column#lazy()}, which are left out
+ * of the projection, with the queries by the row id. You can get the
+ * LazyLoader instances with
+ * {@link MicroOrm#newLazyLoader(SQLiteDatabase, String, Class, String)}.
+ *
+ * <p>
+ * Every row is loaded at most once: {@link #load(Object)} is a no-op for
+ * the objects already loaded since they were filled with the current row,
+ * so it can be called every time before the lazy fields are accessed. The
+ * loaded state is reset whenever MicroOrm fills the object with another row,
+ * e.g. when the objects are recycled. This class is thread-safe, but the
+ * objects should not be loaded concurrently with other modifications.
+ * </p>
+ */
+public final class LazyLoader<T> {
+  // SQLite limits the number of parameters in a single statement to 999
+  private static final int MAX_BATCH_SIZE = 500;
+
+  private final SQLiteDatabase mDatabase;
+  private final String mTable;
+  private final String mIdColumn;
+  private final LazyField mIdField;
+  private final ImmutableList<LazyField> mLazyFields;
+  private final String[] mProjection;
+  private final LazyColumnsTracker mLazyColumnsTracker;
+
+  LazyLoader(MicroOrm microOrm, SQLiteDatabase db, String table, Class<T> klass, String idColumn) {
+    mDatabase = Preconditions.checkNotNull(db);
+    mTable = Preconditions.checkNotNull(table);
+    mIdColumn = Preconditions.checkNotNull(idColumn);
+    mLazyColumnsTracker = microOrm.mLazyColumnsTracker;
+
+    List<LazyField> columnFields = Lists.newArrayList();
+    collectColumnFields(microOrm, klass, Collections.<Field>emptyList(), columnFields);
+
+    LazyField idField = null;
+    ImmutableList.Builder<LazyField> lazyFields = ImmutableList.builder();
+    Set<String> lazyColumns = new LinkedHashSet<>();
+    for (LazyField field : columnFields) {
+      String columnName = field.mFieldAdapter.mColumnName;
+      if (field.mFieldAdapter.mLazy) {
+        lazyFields.add(field);
+        lazyColumns.add(columnName);
+      } else if (idField == null && columnName.equals(idColumn)) {
+        idField = field;
+      }
+    }
+    if (idField == null) {
+      throw new IllegalArgumentException(klass.getName() + " has no eagerly loaded column " + idColumn);
+    }
+    if (lazyColumns.isEmpty()) {
+      throw new IllegalArgumentException(klass.getName() + " has no lazy columns");
+    }
+    mIdField = idField;
+    mLazyFields = lazyFields.build();
+
+    mProjection = new String[lazyColumns.size() + 1];
+    mProjection[0] = idColumn;
+    int i = 1;
+    for (String column : lazyColumns) {
+      mProjection[i++] = column;
+    }
+  }
+
+  private static void collectColumnFields(MicroOrm microOrm, Class<?> klass, List<Field> path, List<LazyField> result) {
+    for (Field field : Fields.allFieldsIncludingPrivateAndSuper(klass)) {
+      Column columnAnnotation = field.getAnnotation(Column.class);
+      if (columnAnnotation != null) {
+        field.setAccessible(true);
+        result.add(new LazyField(path, microOrm.buildColumnFieldAdapter(field, columnAnnotation)));
+      }
+      if (field.isAnnotationPresent(Embedded.class)) {
+        field.setAccessible(true);
+        List<Field> embeddedPath = Lists.newArrayList(path);
+        embeddedPath.add(field);
+        collectColumnFields(microOrm, field.getType(), embeddedPath, result);
+      }
+    }
+  }
+
+  /**
+   * Loads the lazy columns of the object with a single query, unless they
+   * were already loaded.
+   *
+   * @param object the object created by MicroOrm from the row with the
+   * eagerly loaded id column
+   * @return the same object for easy chaining
+   */
+  public T load(T object) {
+    loadAll(Collections.singletonList(object));
+    return object;
+  }
+
+  /**
+   * Loads the lazy columns of all objects which were not loaded yet. The
+   * rows are queried in batches, so this method should be preferred over
+   * calling {@link #load(Object)} for each object, e.g. to prefetch the
+   * columns for the visible list items.
+   *
+   * @param objects the objects created by MicroOrm from the rows with the
+   * eagerly loaded id column
+   */
+  public void loadAll(Collection<? extends T> objects) {
+    ListMultimap<String, T> pending = ArrayListMultimap.create();
+    for (T object : objects) {
+      if (!isLoaded(object)) {
+        String id = getId(object);
+        if (id != null) {
+          pending.put(id, object);
+        }
+      }
+    }
+
+    for (List<String> batch : Iterables.partition(pending.keySet(), MAX_BATCH_SIZE)) {
+      String selection = mIdColumn + " IN (" + Joiner.on(", ").join(Collections.nCopies(batch.size(), "?")) + ")";
+      Cursor c = mDatabase.query(mTable, mProjection, selection, batch.toArray(new String[batch.size()]), null, null, null);
+      try {
+        while (c.moveToNext()) {
+          for (T object : pending.get(c.getString(0))) {
+            fill(c, object);
+          }
+        }
+      } finally {
+        c.close();
+      }
+    }
+
+    // the objects without rows are not queried again
+    for (T object : pending.values()) {
+      setLoaded(object);
+    }
+  }
+
+  /**
+   * @return true if the lazy columns of the object were already loaded, or
+   * all lazy fields were set to non-null values
+   */
+  public boolean isLoaded(T object) {
+    try {
+      for (LazyField field : mLazyFields) {
+        Object target = field.getTarget(object);
+        if (target != null && isSkipped(field, target)) {
+          return false;
+        }
+      }
+      return true;
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private boolean isSkipped(LazyField field, Object target) throws IllegalAccessException {
+    return mLazyColumnsTracker.isSkipped(target, field.mFieldAdapter.mField.get(target));
+  }
+
+  private void setLoaded(T object) {
+    try {
+      for (LazyField field : mLazyFields) {
+        Object target = field.getTarget(object);
+        if (target != null) {
+          mLazyColumnsTracker.markLoaded(target);
+        }
+      }
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private String getId(T object) {
+    try {
+      Object target = mIdField.getTarget(object);
+      Object id = target != null ? mIdField.mFieldAdapter.mField.get(target) : null;
+      return id != null ? id.toString() : null;
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private void fill(Cursor c, T object) {
+    try {
+      for (LazyField field : mLazyFields) {
+        Object target = field.getTarget(object);
+        // the values set before loading are kept
+        if (target != null && isSkipped(field, target)) {
+          field.mFieldAdapter.loadValueFromCursor(c, c.getColumnIndexOrThrow(field.mFieldAdapter.mColumnName), target);
+        }
+      }
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static class LazyField {
+    // the @Embedded fields leading to the object declaring the column field
+    private final Field[] mPath;
+    final ColumnFieldAdapter mFieldAdapter;
+
+    LazyField(List<Field> path, ColumnFieldAdapter fieldAdapter) {
+      mPath = path.toArray(new Field[path.size()]);
+      mFieldAdapter = fieldAdapter;
+    }
+
+    Object getTarget(Object object) throws IllegalAccessException {
+      Object target = object;
+      for (int i = 0; i < mPath.length && target != null; i++) {
+        target = mPath[i].get(target);
+      }
+      return target;
+    }
+  }
+}
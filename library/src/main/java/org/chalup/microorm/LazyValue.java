@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import android.database.MatrixCursor;
+
+/**
+ * Holder of the column value decoded by the {@link TypeAdapter} on the first
+ * call to {@link #get()}. MicroOrm maps the LazyValue&lt;T&gt; fields with
+ * the {@link TypeAdapter} registered for T, but only copies the raw column
+ * value when the row is converted, so the expensive decoding, e.g. parsing
+ * the JSON documents, is done only for the values which are actually used.
+ *
+ * <p>
+ * If the value was never decoded, the raw column value is written back
+ * unchanged by {@link MicroOrm#toContentValues(Object)}. The NULL column is
+ * converted into null field, not into the LazyValue holding null.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe, but the decoded values are not copied, so they
+ * should not be modified concurrently.
+ * </p>
+ */
+public final class LazyValue<T> {
+  private final TypeAdapter<T> mTypeAdapter;
+  private final String mColumnName;
+  private Object mRawValue;
+  private T mValue;
+  private volatile boolean mDecoded;
+
+  private LazyValue(TypeAdapter<T> typeAdapter, String columnName, Object rawValue, T value, boolean decoded) {
+    mTypeAdapter = typeAdapter;
+    mColumnName = columnName;
+    mRawValue = rawValue;
+    mValue = value;
+    mDecoded = decoded;
+  }
+
+  /**
+   * @return the LazyValue holding already decoded value, e.g. for inserting
+   * the new object
+   */
+  public static <T> LazyValue<T> of(T value) {
+    return new LazyValue<>(null, null, null, value, true);
+  }
+
+  static <T> LazyValue<T> ofRawValue(TypeAdapter<T> typeAdapter, String columnName, Object rawValue) {
+    return new LazyValue<>(typeAdapter, columnName, rawValue, null, false);
+  }
+
+  /**
+   * Decodes the value on the first call and returns the same value on
+   * subsequent calls.
+   *
+   * @return the decoded value
+   */
+  public T get() {
+    if (!mDecoded) {
+      synchronized (this) {
+        if (!mDecoded) {
+          mValue = decode();
+          mRawValue = null;
+          mDecoded = true;
+        }
+      }
+    }
+    return mValue;
+  }
+
+  /**
+   * @return true if the value was already decoded
+   */
+  public boolean isDecoded() {
+    return mDecoded;
+  }
+
+  /**
+   * @return the raw column value, or null if the value was already decoded
+   */
+  synchronized Object getRawValue() {
+    return mRawValue;
+  }
+
+  private T decode() {
+    // the column value is copied back into the single-row Cursor, which is
+    // cheap compared to the decoding and works with any TypeAdapter
+    MatrixCursor cursor = new MatrixCursor(new String[] { mColumnName }, 1);
+    cursor.addRow(new Object[] { mRawValue });
+    cursor.moveToFirst();
+    try {
+      return mTypeAdapter.fromCursor(cursor, mColumnName);
+    } finally {
+      cursor.close();
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import android.annotation.TargetApi;
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
+import android.os.Build;
+
+/**
+ * Wrapper for {@link TypeAdapter}, which creates the {@link LazyValue}s
+ * holding the raw column values instead of converting them right away.
+ */
+class LazyValueAdapter<T> implements IndexedTypeAdapter<LazyValue<T>>, ValueBinder<LazyValue<T>> {
+  private final TypeAdapter<T> mWrappedAdapter;
+
+  LazyValueAdapter(TypeAdapter<T> wrappedAdapter) {
+    mWrappedAdapter = wrappedAdapter;
+  }
+
+  @Override
+  public LazyValue<T> fromCursor(Cursor c, String columnName) {
+    return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+  }
+
+  @Override
+  public LazyValue<T> fromCursor(Cursor c, int columnIndex) {
+    Object rawValue = readRawValue(c, columnIndex);
+    return rawValue != null
+        ? LazyValue.ofRawValue(mWrappedAdapter, c.getColumnName(columnIndex), rawValue)
+        : null;
+  }
+
+  private static Object readRawValue(Cursor c, int columnIndex) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+      return readTypedValue(c, columnIndex);
+    }
+    // there is no way to tell the column type before Honeycomb
+    return c.isNull(columnIndex) ? null : c.getString(columnIndex);
+  }
+
+  @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+  private static Object readTypedValue(Cursor c, int columnIndex) {
+    switch (c.getType(columnIndex)) {
+      case Cursor.FIELD_TYPE_NULL:
+        return null;
+      case Cursor.FIELD_TYPE_INTEGER:
+        return c.getLong(columnIndex);
+      case Cursor.FIELD_TYPE_FLOAT:
+        return c.getDouble(columnIndex);
+      case Cursor.FIELD_TYPE_BLOB:
+        return c.getBlob(columnIndex);
+      default:
+        return c.getString(columnIndex);
+    }
+  }
+
+  @Override
+  public void toContentValues(ContentValues values, String columnName, LazyValue<T> object) {
+    Object rawValue = object != null ? object.getRawValue() : null;
+    if (object == null) {
+      values.putNull(columnName);
+    } else if (rawValue == null) {
+      mWrappedAdapter.toContentValues(values, columnName, object.get());
+    } else if (rawValue instanceof Long) {
+      values.put(columnName, (Long) rawValue);
+    } else if (rawValue instanceof Double) {
+      values.put(columnName, (Double) rawValue);
+    } else if (rawValue instanceof byte[]) {
+      values.put(columnName, (byte[]) rawValue);
+    } else {
+      values.put(columnName, (String) rawValue);
+    }
+  }
+
+  @Override
+  public void bindValue(SQLiteProgram program, int index, LazyValue<T> value) {
+    Object rawValue = value != null ? value.getRawValue() : null;
+    if (value == null) {
+      program.bindNull(index);
+    } else if (rawValue == null) {
+      TypeAdapters.bindWithContentValues(mWrappedAdapter, program, index, "value", value.get());
+    } else if (rawValue instanceof Long) {
+      program.bindLong(index, (Long) rawValue);
+    } else if (rawValue instanceof Double) {
+      program.bindDouble(index, (Double) rawValue);
+    } else if (rawValue instanceof byte[]) {
+      program.bindBlob(index, (byte[]) rawValue);
+    } else {
+      program.bindString(index, (String) rawValue);
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.MapMaker;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link MetricsListener} aggregating the operation counters and latency
+ * histograms per class. The histogram bucket {@code i} counts the operations
+ * which took between 2<sup>i</sup> and 2<sup>i+1</sup> nanoseconds. Recording
+ * the metrics doesn't allocate any memory after the first operation for
+ * given class. This class is thread-safe.
+ */
+public final class MetricsCollector implements MetricsListener {
+  /**
+   * The number of buckets in latency histograms.
+   */
+  public static final int HISTOGRAM_BUCKETS = 64;
+
+  private static final int OPERATIONS = Operation.values().length;
+
+  /**
+   * The metrics collected for a single class.
+   */
+  public static final class ClassMetrics {
+    private final AtomicLongArray mCounts = new AtomicLongArray(OPERATIONS);
+    private final AtomicLongArray mRowCounts = new AtomicLongArray(OPERATIONS);
+    private final AtomicLongArray mTotalNanos = new AtomicLongArray(OPERATIONS);
+    private final AtomicLongArray mHistograms = new AtomicLongArray(OPERATIONS * HISTOGRAM_BUCKETS);
+    private final AtomicLong mCacheHits = new AtomicLong();
+    private final AtomicLong mCacheMisses = new AtomicLong();
+
+    ClassMetrics() {
+    }
+
+    void record(Operation operation, int rowCount, long durationNanos) {
+      int ordinal = operation.ordinal();
+      mCounts.incrementAndGet(ordinal);
+      mRowCounts.addAndGet(ordinal, rowCount);
+      mTotalNanos.addAndGet(ordinal, durationNanos);
+      mHistograms.incrementAndGet(ordinal * HISTOGRAM_BUCKETS + bucket(durationNanos));
+    }
+
+    private static int bucket(long durationNanos) {
+      return durationNanos > 0 ? 63 - Long.numberOfLeadingZeros(durationNanos) : 0;
+    }
+
+    /**
+     * @return the number of finished operations of specified type
+     */
+    public long getCount(Operation operation) {
+      return mCounts.get(operation.ordinal());
+    }
+
+    /**
+     * @return the number of rows converted by operations of specified type
+     */
+    public long getRowCount(Operation operation) {
+      return mRowCounts.get(operation.ordinal());
+    }
+
+    /**
+     * @return the total duration of operations of specified type
+     */
+    public long getTotalNanos(Operation operation) {
+      return mTotalNanos.get(operation.ordinal());
+    }
+
+    /**
+     * @return the copy of the latency histogram of operations of specified
+     * type; see {@link MetricsCollector} for the bucket boundaries
+     */
+    public long[] getLatencyHistogram(Operation operation) {
+      long[] histogram = new long[HISTOGRAM_BUCKETS];
+      for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+        histogram[i] = mHistograms.get(operation.ordinal() * HISTOGRAM_BUCKETS + i);
+      }
+      return histogram;
+    }
+
+    /**
+     * @return the number of requests for already created adapter
+     */
+    public long getCacheHits() {
+      return mCacheHits.get();
+    }
+
+    /**
+     * @return the number of requests which required creating the adapter
+     */
+    public long getCacheMisses() {
+      return mCacheMisses.get();
+    }
+  }
+
+  private final ConcurrentMap<Class<?>, ClassMetrics> mMetrics = new MapMaker().weakKeys().makeMap();
+
+  @Override
+  public void onOperation(Operation operation, Class<?> klass, int rowCount, long durationNanos) {
+    getOrCreateMetrics(klass).record(operation, rowCount, durationNanos);
+  }
+
+  @Override
+  public void onAdapterCacheLookup(Class<?> klass, boolean hit) {
+    ClassMetrics metrics = getOrCreateMetrics(klass);
+    if (hit) {
+      metrics.mCacheHits.incrementAndGet();
+    } else {
+      metrics.mCacheMisses.incrementAndGet();
+    }
+  }
+
+  /**
+   * @param klass the {@link Class} of the converted objects
+   * @return the metrics collected for the specified class, or {@code null}
+   * if no operations for this class were recorded
+   */
+  public ClassMetrics getMetrics(Class<?> klass) {
+    return mMetrics.get(klass);
+  }
+
+  /**
+   * @return the metrics collected for all classes
+   */
+  public ImmutableMap<Class<?>, ClassMetrics> getAllMetrics() {
+    return ImmutableMap.copyOf(mMetrics);
+  }
+
+  private ClassMetrics getOrCreateMetrics(Class<?> klass) {
+    ClassMetrics metrics = mMetrics.get(klass);
+    if (metrics == null) {
+      ClassMetrics newMetrics = new ClassMetrics();
+      metrics = mMetrics.putIfAbsent(klass, newMetrics);
+      if (metrics == null) {
+        metrics = newMetrics;
+      }
+    }
+    return metrics;
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+/**
+ * Receives the timings of MicroOrm operations. You can register the
+ * MetricsListener with {@link MicroOrm.Builder#metricsListener(MetricsListener)}.
+ * {@link MetricsCollector} is the ready-to-use implementation aggregating
+ * the counters and latency histograms per class.
+ *
+ * <p>
+ * The listener methods are called synchronously, possibly from multiple
+ * threads at once, so they should be thread-safe and fast.
+ * </p>
+ */
+public interface MetricsListener {
+  /**
+   * The measured MicroOrm operations.
+   */
+  enum Operation {
+    /**
+     * {@link MicroOrm#fromCursor(android.database.Cursor, Class)} or
+     * {@link MicroOrm#fromCursor(android.database.Cursor, Object)}
+     */
+    FROM_CURSOR,
+    /**
+     * {@link MicroOrm#listFromCursor(android.database.Cursor, Class)}
+     */
+    LIST_FROM_CURSOR,
+    /**
+     * {@link MicroOrm#parallelListFromCursor(android.database.Cursor, Class, java.util.concurrent.Executor)},
+     * including reading the {@link android.database.Cursor} columns on the
+     * calling thread
+     */
+    PARALLEL_LIST_FROM_CURSOR,
+    /**
+     * {@link MicroOrm#listFromCursorAsync(android.database.Cursor, Class, java.util.concurrent.Executor)},
+     * measured on the background thread, excluding the
+     * {@link BatchCallback} calls; cancelled conversions are not reported
+     */
+    LIST_FROM_CURSOR_ASYNC,
+    /**
+     * The conversion of rows by the {@link Iterable}s returned from
+     * {@link MicroOrm#iterate(android.database.Cursor, Class)} and similar
+     * methods, excluding the time spent in the loop body. Reported when
+     * the iteration reaches the end of the {@link android.database.Cursor}.
+     */
+    ITERATE,
+    /**
+     * {@link MicroOrm#toContentValues(Object)}
+     */
+    TO_CONTENT_VALUES,
+    /**
+     * The creation of the internal adapter for the class, which happens
+     * when the class is used for the first time.
+     */
+    BUILD_ADAPTER
+  }
+
+  /**
+   * Called after the operation is finished.
+   *
+   * @param operation the finished operation
+   * @param klass the {@link Class} of the converted objects
+   * @param rowCount the number of converted rows; 0 for
+   * {@link Operation#BUILD_ADAPTER}
+   * @param durationNanos the duration of the operation in nanoseconds
+   */
+  void onOperation(Operation operation, Class<?> klass, int rowCount, long durationNanos);
+
+  /**
+   * Called when the internal adapter for the class is requested.
+   *
+   * @param klass the {@link Class} of the converted objects
+   * @param hit {@code true} if the adapter was already created
+   */
+  void onAdapterCacheLookup(Class<?> klass, boolean hit);
+}
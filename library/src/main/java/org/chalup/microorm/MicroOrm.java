@@ -18,20 +18,40 @@ package org.chalup.microorm;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.primitives.Primitives;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
+import org.chalup.microorm.MetricsListener.Operation;
 import org.chalup.microorm.annotations.Column;
 import org.chalup.microorm.annotations.Embedded;
+import org.chalup.microorm.annotations.EnumStorage;
+import org.chalup.microorm.annotations.Intern;
 
 import android.content.ContentValues;
+import android.database.CharArrayBuffer;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * This is the main class for using MicroOrm. MicroOrm is typically used by
@@ -43,6 +63,8 @@ import java.util.Map;
  * default configuration is all you need. You can also use
  * {@link MicroOrm.Builder} to build a MicroOrm instance
  * with support for custom fields' types.
+ *
+ * MicroOrm instances are thread-safe and can be shared between threads.
  */
 public class MicroOrm {
   /**
@@ -55,8 +77,29 @@ public class MicroOrm {
    * @return an object of type T created from the current row in {@link Cursor}
    */
   public <T> T fromCursor(Cursor c, Class<T> klass) {
-    DaoAdapter<T> adapter = getAdapter(klass);
-    return adapter.fromCursor(c, adapter.createInstance());
+    return fromCursor(c, klass, getAdapter(klass));
+  }
+
+  /**
+   * Same as {@link #fromCursor(Cursor, Class)}, except only the fields
+   * belonging to the specified group are set.
+   *
+   * @param <T> the type of the desired object
+   * @param c an open {@link Cursor} with position set to valid row,
+   * containing all columns from {@link #getProjection(Class, String)}
+   * @param klass The {@link Class} of the desired object
+   * @param group the name of the group from {@link Column#groups()}
+   * @return an object of type T created from the current row in {@link Cursor}
+   */
+  public <T> T fromCursor(Cursor c, Class<T> klass, String group) {
+    return fromCursor(c, klass, getGroupAdapter(klass, group));
+  }
+
+  private <T> T fromCursor(Cursor c, Class<T> klass, DaoAdapter<T> adapter) {
+    long start = startMeasurement();
+    T result = adapter.newFromCursor(c, adapter.getColumnIndexes(c), 0);
+    finishMeasurement(Operation.FROM_CURSOR, klass, 1, start);
+    return result;
   }
 
   /**
@@ -70,7 +113,10 @@ public class MicroOrm {
    */
   @SuppressWarnings("unchecked")
   public <T> T fromCursor(Cursor c, T object) {
-    return ((DaoAdapter<T>) getAdapter(object.getClass())).fromCursor(c, object);
+    long start = startMeasurement();
+    T result = ((DaoAdapter<T>) getAdapter(object.getClass())).fromCursor(c, object);
+    finishMeasurement(Operation.FROM_CURSOR, object.getClass(), 1, start);
+    return result;
   }
 
   /**
@@ -82,8 +128,101 @@ public class MicroOrm {
    */
   @SuppressWarnings("unchecked")
   public <T> ContentValues toContentValues(T object) {
+    long start = startMeasurement();
     DaoAdapter<T> adapter = (DaoAdapter<T>) getAdapter(object.getClass());
-    return adapter.toContentValues(adapter.createContentValues(), object);
+    ContentValues result = adapter.toContentValues(adapter.createContentValues(), object);
+    finishMeasurement(Operation.TO_CONTENT_VALUES, object.getClass(), 1, start);
+    return result;
+  }
+
+  /**
+   * Creates the {@link BulkInserter} inserting objects of specified type into
+   * the specified table without converting them into {@link ContentValues}.
+   *
+   * @param <T> the type of the inserted objects
+   * @param db the {@link SQLiteDatabase} to insert the objects into
+   * @param table the table to insert the objects into
+   * @param klass The {@link Class} of the inserted objects
+   * @param conflictAlgorithm one of the {@code CONFLICT_*} constants from
+   * {@link SQLiteDatabase}, e.g. {@link SQLiteDatabase#CONFLICT_REPLACE}
+   * @return the {@link BulkInserter} with compiled insert statement
+   */
+  public <T> BulkInserter<T> newBulkInserter(SQLiteDatabase db, String table, Class<T> klass, int conflictAlgorithm) {
+    return new BulkInserter<>(db, table, conflictAlgorithm, getAdapter(klass));
+  }
+
+  /**
+   * Creates the {@link LazyLoader} loading the columns annotated with
+   * {@link Column#lazy()} from the specified table.
+   *
+   * @param <T> the type of the loaded objects
+   * @param db the {@link SQLiteDatabase} to load the columns from
+   * @param table the table to load the columns from
+   * @param klass The {@link Class} of the loaded objects
+   * @param idColumn the column uniquely identifying the rows, e.g.
+   * {@link android.provider.BaseColumns#_ID}; it must be mapped to a field
+   * which is not lazy
+   * @return the {@link LazyLoader} for objects of type T
+   */
+  public <T> LazyLoader<T> newLazyLoader(SQLiteDatabase db, String table, Class<T> klass, String idColumn) {
+    return new LazyLoader<>(this, db, table, klass, idColumn);
+  }
+
+  /**
+   * Convenience method for inserting all objects into the specified table
+   * in a single transaction using the {@link BulkInserter}.
+   *
+   * @param <T> the type of the inserted objects
+   * @param db the {@link SQLiteDatabase} to insert the objects into
+   * @param table the table to insert the objects into
+   * @param klass The {@link Class} of the inserted objects
+   * @param objects the objects to insert
+   * @return the number of inserted rows
+   */
+  public <T> int insertAll(SQLiteDatabase db, String table, Class<T> klass, Iterable<? extends T> objects) {
+    BulkInserter<T> inserter = newBulkInserter(db, table, klass, SQLiteDatabase.CONFLICT_NONE);
+    try {
+      return inserter.insertAll(objects);
+    } finally {
+      inserter.close();
+    }
+  }
+
+  /**
+   * Creates the empty {@link OperationBatch} for building the
+   * {@link android.content.ContentProviderOperation}s from objects.
+   *
+   * @param yieldEvery the number of operations between the yield points
+   * @return the empty {@link OperationBatch}
+   */
+  public OperationBatch newOperationBatch(int yieldEvery) {
+    return new OperationBatch(this, yieldEvery);
+  }
+
+  /**
+   * Creates the {@link ChangeTracker} for objects of specified type, which
+   * creates the {@link ContentValues} containing only the changed columns.
+   *
+   * @param <T> the type of the tracked objects
+   * @param klass The {@link Class} of the tracked objects
+   * @return the {@link ChangeTracker} for objects of type T
+   */
+  public <T> ChangeTracker<T> newChangeTracker(Class<T> klass) {
+    return new ChangeTracker<>(getAdapter(klass));
+  }
+
+  /**
+   * Creates the {@link ColumnMask} for objects of specified type, which
+   * creates the {@link ContentValues} containing only the specified columns.
+   *
+   * @param <T> the type of the converted objects
+   * @param klass The {@link Class} of the converted objects
+   * @param columns the writable columns, which should be included in the
+   * {@link ContentValues}
+   * @return the {@link ColumnMask} for objects of type T
+   */
+  public <T> ColumnMask<T> newColumnMask(Class<T> klass, String... columns) {
+    return new ColumnMask<>(getAdapter(klass), columns);
   }
 
   /**
@@ -98,18 +237,265 @@ public class MicroOrm {
    * {@link Cursor}
    */
   public <T> List<T> listFromCursor(Cursor c, Class<T> klass) {
+    return listFromCursor(c, klass, getAdapter(klass));
+  }
+
+  /**
+   * Same as {@link #listFromCursor(Cursor, Class)}, except only the fields
+   * belonging to the specified group are set.
+   *
+   * @param <T> the type of the provided object
+   * @param c a valid {@link Cursor} containing all columns from
+   * {@link #getProjection(Class, String)}; the provided {@link Cursor} will
+   * not be closed
+   * @param klass The {@link Class} of the desired object
+   * @param group the name of the group from {@link Column#groups()}
+   * @return the {@link List} of object of type T created from the entire
+   * {@link Cursor}
+   */
+  public <T> List<T> listFromCursor(Cursor c, Class<T> klass, String group) {
+    return listFromCursor(c, klass, getGroupAdapter(klass, group));
+  }
+
+  private <T> List<T> listFromCursor(Cursor c, Class<T> klass, DaoAdapter<T> adapter) {
+    long start = startMeasurement();
+    List<T> result = mapList(c, adapter);
+    finishMeasurement(Operation.LIST_FROM_CURSOR, klass, result.size(), start);
+    return result;
+  }
+
+  private static <T> List<T> mapList(Cursor c, DaoAdapter<T> adapter) {
     List<T> result = Lists.newArrayList();
 
-    if (c != null && c.moveToFirst()) {
-      DaoAdapter<T> adapter = getAdapter(klass);
+    Cursor rows = WindowCursor.wrap(c);
+    if (rows != null && rows.moveToFirst()) {
+      BoundMapper<T> mapper = new BoundMapper<>(rows, adapter);
       do {
-        result.add(adapter.fromCursor(c, adapter.createInstance()));
-      } while (c.moveToNext());
+        result.add(mapper.map());
+      } while (rows.moveToNext());
+      WindowCursor.syncPosition(rows);
     }
+    return result;
+  }
+
+  /**
+   * Same as {@link #listFromCursor(Cursor, Class)}, except the objects are
+   * created concurrently on the provided {@link Executor}, using as many
+   * threads as there are available processors.
+   *
+   * @see #parallelListFromCursor(Cursor, Class, Executor, int)
+   */
+  public <T> List<T> parallelListFromCursor(Cursor c, Class<T> klass, Executor executor) {
+    return parallelListFromCursor(c, klass, executor, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Same as {@link #listFromCursor(Cursor, Class)}, except the objects are
+   * created concurrently on the provided {@link Executor}.
+   *
+   * <p>
+   * The {@link Cursor} itself is not thread-safe, so it's first read column
+   * by column on the calling thread (see {@link #columnsFromCursor(Cursor, Class)}),
+   * and then the rows are split into chunks converted into objects on separate
+   * threads. The calling thread converts the first chunk and waits until the
+   * other chunks are converted. The objects containing columns of custom types
+   * and the {@link Cursor}s with fewer rows than two chunks of the
+   * {@link Builder#minParallelChunkSize(int)} size are always converted on the
+   * calling thread.
+   * </p>
+   *
+   * @param <T> the type of the desired object
+   * @param c a valid {@link Cursor}; the provided {@link Cursor} will not be
+   * closed
+   * @param klass The {@link Class} of the desired object
+   * @param executor the {@link Executor} running the conversion tasks
+   * @param parallelism the maximum number of chunks processed concurrently
+   * @return the {@link List} of object of type T created from the entire
+   * {@link Cursor}, in the same order as the {@link Cursor} rows
+   */
+  public <T> List<T> parallelListFromCursor(Cursor c, Class<T> klass, Executor executor, int parallelism) {
+    Preconditions.checkNotNull(executor);
+    Preconditions.checkArgument(parallelism > 0, "Parallelism must be positive");
 
+    long start = startMeasurement();
+    List<T> result = parallelMapList(c, klass, executor, parallelism);
+    finishMeasurement(Operation.PARALLEL_LIST_FROM_CURSOR, klass, result.size(), start);
     return result;
   }
 
+  private <T> List<T> parallelMapList(Cursor c, Class<T> klass, Executor executor, int parallelism) {
+    int rowCount = c != null ? c.getCount() : 0;
+    int chunkCount = Math.min(parallelism, rowCount / mMinParallelChunkSize);
+    if (chunkCount < 2) {
+      return mapList(c, getAdapter(klass));
+    }
+
+    // the column kinds are checked before any column arrays are allocated
+    ColumnTable.Builder builder = newColumnTableBuilder(klass, rowCount);
+    if (builder.hasObjectColumns()) {
+      return mapList(c, getAdapter(klass));
+    }
+    return ParallelMapper.map(builder.read(c), getAdapter(klass), executor, chunkCount);
+  }
+
+  /**
+   * Same as {@link #listFromCursor(Cursor, Class)}, except the objects are
+   * created in the background on the provided {@link Executor}.
+   *
+   * @see #listFromCursorAsync(Cursor, Class, Executor, int, BatchCallback)
+   */
+  public <T> ListenableFuture<List<T>> listFromCursorAsync(Cursor c, Class<T> klass, Executor executor) {
+    return listFromCursorAsync(c, klass, executor, DEFAULT_ASYNC_BATCH_SIZE, null);
+  }
+
+  /**
+   * Same as {@link #listFromCursor(Cursor, Class)}, except the objects are
+   * created in the background on the provided {@link Executor} and passed
+   * to the {@link BatchCallback} in batches, as soon as they are created.
+   *
+   * <p>
+   * The conversion stops before the next row when the returned
+   * {@link ListenableFuture} is cancelled, so it doesn't waste the CPU time
+   * when the result is no longer needed, e.g. when the user leaves the screen
+   * displaying the objects.
+   * </p>
+   *
+   * <p>
+   * The {@link Cursor} is not thread-safe, so it must not be used by any other
+   * thread until the returned {@link ListenableFuture} is done.
+   * </p>
+   *
+   * @param <T> the type of the desired objects
+   * @param c a valid {@link Cursor}; the provided {@link Cursor} will not be
+   * closed
+   * @param klass The {@link Class} of the desired objects
+   * @param executor the {@link Executor} running the conversion
+   * @param batchSize the number of objects passed to every
+   * {@link BatchCallback#onBatch(List)} call
+   * @param callback the {@link BatchCallback} receiving the partial results
+   * or null
+   * @return the {@link ListenableFuture} of the {@link List} of objects of
+   * type T created from the entire {@link Cursor}
+   */
+  public <T> ListenableFuture<List<T>> listFromCursorAsync(Cursor c, Class<T> klass, Executor executor, int batchSize, BatchCallback<T> callback) {
+    Preconditions.checkNotNull(executor);
+    Preconditions.checkArgument(batchSize > 0, "Batch size must be positive");
+
+    AsyncMapper<T> mapper = new AsyncMapper<>(c, getAdapter(klass), batchSize, callback, klass, mMetricsListener);
+    executor.execute(mapper);
+    return mapper;
+  }
+
+  /**
+   * Returns the {@link Iterable} lazily converting the {@link Cursor} rows
+   * into objects of specified type, so only the object for the current row
+   * has to be kept in memory.
+   *
+   * @param <T> the type of the desired objects
+   * @param c a valid {@link Cursor}; the provided {@link Cursor} will not be
+   * closed
+   * @param klass The {@link Class} of the desired objects
+   * @return the {@link Iterable} of objects of type T created from the
+   * {@link Cursor} rows
+   */
+  public <T> Iterable<T> iterate(Cursor c, Class<T> klass) {
+    return new CursorIterable<>(c, getAdapter(klass), false, klass, mMetricsListener);
+  }
+
+  /**
+   * Same as {@link #iterate(Cursor, Class)}, except a single object is
+   * created for each iteration and refilled with the data from every row.
+   * The returned objects are valid only until the {@link Iterator} advances,
+   * so they should not be stored or passed outside of the loop.
+   *
+   * @param <T> the type of the desired objects
+   * @param c a valid {@link Cursor}; the provided {@link Cursor} will not be
+   * closed
+   * @param klass The {@link Class} of the desired objects
+   * @return the {@link Iterable} returning the same object of type T filled
+   * with data from subsequent {@link Cursor} rows
+   */
+  public <T> Iterable<T> iterateRecycling(Cursor c, Class<T> klass) {
+    return new CursorIterable<>(c, getAdapter(klass), false, true, null, klass, mMetricsListener);
+  }
+
+  /**
+   * Same as {@link #iterate(Cursor, Class)}, except the objects are acquired
+   * from the provided {@link ObjectPool}. The objects should be returned to
+   * the pool with {@link ObjectPool#release(Object)} when they are no longer
+   * needed.
+   *
+   * @param <T> the type of the desired objects
+   * @param c a valid {@link Cursor}; the provided {@link Cursor} will not be
+   * closed
+   * @param pool the {@link ObjectPool} created by this MicroOrm instance
+   * @return the {@link Iterable} of objects of type T acquired from the
+   * {@link ObjectPool} and filled with data from the {@link Cursor} rows
+   */
+  public <T> Iterable<T> iterate(Cursor c, ObjectPool<T> pool) {
+    Preconditions.checkNotNull(pool);
+    return new CursorIterable<>(c, pool.getDaoAdapter(), false, false, pool, pool.getObjectClass(), mMetricsListener);
+  }
+
+  /**
+   * Creates the bounded {@link ObjectPool} of objects of specified type.
+   *
+   * @param <T> the type of the pooled objects
+   * @param klass The {@link Class} of the pooled objects
+   * @param maxSize the maximum number of objects kept in the pool
+   * @return the empty {@link ObjectPool}
+   */
+  public <T> ObjectPool<T> newObjectPool(Class<T> klass, int maxSize) {
+    return new ObjectPool<>(klass, getAdapter(klass), maxSize);
+  }
+
+  /**
+   * Same as {@link #iterate(Cursor, Class)}, except the returned
+   * {@link CursorIterable} owns the provided {@link Cursor}: the
+   * {@link Cursor} is closed after the iteration is finished or when
+   * {@link CursorIterable#close()} is called.
+   *
+   * @param <T> the type of the desired objects
+   * @param c a valid {@link Cursor}, which will be closed by the returned
+   * {@link CursorIterable}
+   * @param klass The {@link Class} of the desired objects
+   * @return the {@link CursorIterable} of objects of type T created from the
+   * {@link Cursor} rows
+   */
+  public <T> CursorIterable<T> iterateAndClose(Cursor c, Class<T> klass) {
+    return new CursorIterable<>(c, getAdapter(klass), true, klass, mMetricsListener);
+  }
+
+  /**
+   * Creates the {@link BoundMapper} converting rows of the specified
+   * {@link Cursor} into objects of specified type. The column indexes are
+   * resolved once, so this is the fastest way to convert multiple rows.
+   *
+   * @param <T> the type of the desired objects
+   * @param c an open {@link Cursor} containing all columns from
+   * {@link #getProjection(Class)}
+   * @param klass The {@link Class} of the desired objects
+   * @return the {@link BoundMapper} for the provided {@link Cursor}
+   */
+  public <T> BoundMapper<T> bind(Cursor c, Class<T> klass) {
+    return new BoundMapper<>(c, getAdapter(klass));
+  }
+
+  /**
+   * Same as {@link #bind(Cursor, Class)}, except the returned
+   * {@link BoundMapper} sets only the fields belonging to the specified group.
+   *
+   * @param <T> the type of the desired objects
+   * @param c an open {@link Cursor} containing all columns from
+   * {@link #getProjection(Class, String)}
+   * @param klass The {@link Class} of the desired objects
+   * @param group the name of the group from {@link Column#groups()}
+   * @return the {@link BoundMapper} for the provided {@link Cursor}
+   */
+  public <T> BoundMapper<T> bind(Cursor c, Class<T> klass, String group) {
+    return new BoundMapper<>(c, getGroupAdapter(klass, group));
+  }
+
   /**
    * Method for acquiring the {@link Function} converting the {@link Cursor}
    * row into object of specified type.
@@ -122,14 +508,39 @@ public class MicroOrm {
   public <T> Function<Cursor, T> getFunctionFor(final Class<T> klass) {
     return new Function<Cursor, T>() {
       private final DaoAdapter<T> mAdapter = getAdapter(klass);
+      private volatile CursorColumnIndexes mColumnIndexes;
 
       @Override
       public T apply(Cursor c) {
-        return mAdapter.fromCursor(c, mAdapter.createInstance());
+        CursorColumnIndexes columnIndexes = mColumnIndexes;
+        if (columnIndexes == null || !columnIndexes.isFor(c)) {
+          columnIndexes = new CursorColumnIndexes(c, mAdapter.getColumnIndexes(c));
+          mColumnIndexes = columnIndexes;
+        }
+        return mAdapter.newFromCursor(c, columnIndexes.mIndexes, 0);
       }
     };
   }
 
+  /**
+   * The column indexes resolved for the last {@link Cursor}, which is
+   * referenced weakly, so the long-lived functions don't keep the closed
+   * cursors and their windows in memory.
+   */
+  private static final class CursorColumnIndexes {
+    private final WeakReference<Cursor> mCursor;
+    final int[] mIndexes;
+
+    CursorColumnIndexes(Cursor cursor, int[] indexes) {
+      mCursor = new WeakReference<>(cursor);
+      mIndexes = indexes;
+    }
+
+    boolean isFor(Cursor cursor) {
+      return mCursor.get() == cursor;
+    }
+  }
+
   /**
    * Constructs {@link Function} converting single column in {@link Cursor}
    * row into object of given type. You can get builder instances with
@@ -156,9 +567,8 @@ public class MicroOrm {
       @SuppressWarnings("unchecked")
       @Override
       public <T> Function<Cursor, T> as(Class<T> klass) {
-        Preconditions.checkArgument(mTypeAdapters.containsKey(klass));
-
-        final TypeAdapter<T> adapter = (TypeAdapter<T>) mTypeAdapters.get(klass);
+        final TypeAdapter<T> adapter = (TypeAdapter<T>) getTypeAdapter(klass);
+        Preconditions.checkArgument(adapter != null);
 
         return new Function<Cursor, T>() {
           @Override
@@ -170,6 +580,65 @@ public class MicroOrm {
     };
   }
 
+  /**
+   * Reads the whole {@link Cursor} into the {@link ColumnTable}, which keeps
+   * the values of each column mapped by the specified type in a single array
+   * instead of creating an object for every row. This is the most efficient
+   * way to compute something over few columns of a large {@link Cursor}.
+   *
+   * @param c a valid {@link Cursor} containing all columns from
+   * {@link #getProjection(Class)}; the provided {@link Cursor} will not be
+   * closed
+   * @param klass The {@link Class} of the objects stored in the
+   * {@link Cursor}
+   * @return the {@link ColumnTable} containing the entire {@link Cursor}
+   */
+  public ColumnTable columnsFromCursor(Cursor c, Class<?> klass) {
+    return newColumnTableBuilder(klass, c != null ? c.getCount() : 0).read(c);
+  }
+
+  private ColumnTable.Builder newColumnTableBuilder(Class<?> klass, int rowCount) {
+    Map<String, Field> columnFields = Maps.newHashMap();
+    collectColumnFields(klass, columnFields);
+
+    ColumnTable.Builder builder = new ColumnTable.Builder(rowCount);
+    for (String columnName : ImmutableSet.copyOf(getAdapter(klass).getProjection())) {
+      Field field = columnFields.get(columnName);
+      Class<?> type = field.getType();
+      TypeAdapter<?> typeAdapter = getFieldTypeAdapter(field, field.getAnnotation(Column.class));
+      builder.addColumn(columnName, getColumnKind(type, typeAdapter), typeAdapter, !type.isPrimitive());
+    }
+    return builder;
+  }
+
+  private static void collectColumnFields(Class<?> klass, Map<String, Field> columnFields) {
+    for (Field field : Fields.allFieldsIncludingPrivateAndSuper(klass)) {
+      Column columnAnnotation = field.getAnnotation(Column.class);
+      if (columnAnnotation != null && !columnAnnotation.lazy() && !columnFields.containsKey(columnAnnotation.value())) {
+        columnFields.put(columnAnnotation.value(), field);
+      }
+      if (field.isAnnotationPresent(Embedded.class)) {
+        collectColumnFields(field.getType(), columnFields);
+      }
+    }
+  }
+
+  private static ColumnTable.Kind getColumnKind(Class<?> type, TypeAdapter<?> typeAdapter) {
+    if (typeAdapter == null || typeAdapter != TYPE_ADAPTERS.get(type)) {
+      return ColumnTable.Kind.OBJECT;
+    } else if (type == String.class) {
+      return ColumnTable.Kind.STRING;
+    } else if (type == boolean.class || type == Boolean.class) {
+      return ColumnTable.Kind.BOOLEAN;
+    } else if (type == float.class || type == Float.class || type == double.class || type == Double.class) {
+      return ColumnTable.Kind.DOUBLE;
+    } else if (Primitives.unwrap(type).isPrimitive()) {
+      return ColumnTable.Kind.LONG;
+    } else {
+      return ColumnTable.Kind.OBJECT;
+    }
+  }
+
   /**
    * Returns an array containing column names needed by {@link MicroOrm} to
    * successfully create an object of the specified type from {@link Cursor}.
@@ -179,22 +648,145 @@ public class MicroOrm {
    * @return the {@link String[]} containing column names
    */
   public <T> String[] getProjection(Class<T> klass) {
-    return getAdapter(klass).getProjection();
+    return getAdapter(klass).getDistinctProjection();
+  }
+
+  /**
+   * Same as {@link #getProjection(Class)}, except only the columns
+   * belonging to the specified group are included.
+   *
+   * @param klass The {@link Class} of the object, for which the projection
+   * should be generated
+   * @param group the name of the group from {@link Column#groups()}
+   * @return the {@link String[]} containing column names
+   */
+  public <T> String[] getProjection(Class<T> klass, String group) {
+    return getGroupAdapter(klass, group).getDistinctProjection();
   }
 
   @SuppressWarnings("unchecked")
-  private <T> DaoAdapter<T> getAdapter(Class<T> klass) {
-    DaoAdapter<?> cached = mDaoAdapterCache.get(klass);
-    if (cached != null) {
-      return (DaoAdapter<T>) cached;
+  <T> DaoAdapter<T> getAdapter(Class<T> klass) {
+    if (mMetricsListener != null) {
+      DaoAdapter<?> adapter = mDaoAdapterCache.getIfPresent(klass);
+      mMetricsListener.onAdapterCacheLookup(klass, adapter != null);
+      if (adapter != null) {
+        return (DaoAdapter<T>) adapter;
+      }
     }
 
-    DaoAdapter<T> adapter = buildDaoAdapter(klass);
-    mDaoAdapterCache.put(klass, adapter);
+    try {
+      return (DaoAdapter<T>) mDaoAdapterCache.getUnchecked(klass);
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (ExecutionError e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  <T> DaoAdapter<T> getAdapter(Class<T> klass, String group) {
+    try {
+      return (DaoAdapter<T>) mGroupDaoAdapterCache.getUnchecked(klass).getUnchecked(group);
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (ExecutionError e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  private <T> DaoAdapter<T> getGroupAdapter(Class<T> klass, String group) {
+    Preconditions.checkNotNull(group);
+    DaoAdapter<T> adapter = getAdapter(klass, group);
+    if (adapter.getProjection().length == 0) {
+      throw new IllegalArgumentException("No columns in group " + group + " of " + klass.getName());
+    }
     return adapter;
   }
 
+  // The measurements are skipped entirely without the listener, so the
+  // default configuration doesn't even pay for System.nanoTime() calls.
+  private long startMeasurement() {
+    return mMetricsListener != null ? System.nanoTime() : 0;
+  }
+
+  private void finishMeasurement(Operation operation, Class<?> klass, int rowCount, long start) {
+    if (mMetricsListener != null) {
+      mMetricsListener.onOperation(operation, klass, rowCount, System.nanoTime() - start);
+    }
+  }
+
+  private TypeAdapter<?> getFieldTypeAdapter(Field field, Column columnAnnotation) {
+    Class<?> type = field.getType();
+    if (type.isEnum()) {
+      return getEnumAdapter(type, columnAnnotation.enumStorage());
+    }
+    if (type == LazyValue.class) {
+      Type genericType = field.getGenericType();
+      Type valueType = genericType instanceof ParameterizedType
+          ? ((ParameterizedType) genericType).getActualTypeArguments()[0]
+          : null;
+      if (!(valueType instanceof Class)) {
+        throw new IllegalArgumentException("LazyValue field " + field.getName() + " must have a non-generic type argument");
+      }
+      return getLazyValueAdapter((Class<?>) valueType);
+    }
+    return mTypeAdapters.get(type);
+  }
+
+  <T> TypeAdapter<LazyValue<T>> getLazyValueAdapter(Class<T> klass) {
+    @SuppressWarnings("unchecked")
+    TypeAdapter<T> typeAdapter = (TypeAdapter<T>) getTypeAdapter(klass);
+    if (typeAdapter == null) {
+      throw new IllegalArgumentException("No TypeAdapter for LazyValue of " + klass.getName());
+    }
+    return new LazyValueAdapter<>(typeAdapter);
+  }
+
+  TypeAdapter<?> getTypeAdapter(Class<?> klass) {
+    TypeAdapter<?> typeAdapter = mTypeAdapters.get(klass);
+    if (typeAdapter == null && klass.isEnum()) {
+      return getEnumAdapter(klass, EnumStorage.NAME);
+    }
+    return typeAdapter;
+  }
+
+  TypeAdapter<?> getEnumAdapter(Class<?> klass, EnumStorage storage) {
+    TypeAdapter<?> customTypeAdapter = mTypeAdapters.get(klass);
+    if (customTypeAdapter != null) {
+      return customTypeAdapter;
+    }
+    try {
+      return mEnumTypeAdapterCache.getUnchecked(klass).get(storage);
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  // Every column gets its own adapter, because the adaptive mode is decided
+  // separately for each column.
+  TypeAdapter<String> getInterningAdapter(Intern intern) {
+    @SuppressWarnings("unchecked")
+    TypeAdapter<String> stringAdapter = (TypeAdapter<String>) mTypeAdapters.get(String.class);
+    if (stringAdapter != TYPE_ADAPTERS.get(String.class)) {
+      return stringAdapter;
+    }
+    return new InterningStringAdapter(mStringInterner, intern == Intern.ADAPTIVE);
+  }
+
   private <T> DaoAdapter<T> buildDaoAdapter(Class<T> klass) {
+    if (mUseGeneratedAdapters) {
+      DaoAdapter<T> generatedAdapter = GeneratedDaoAdapter.find(klass, this);
+      if (generatedAdapter != null) {
+        return generatedAdapter;
+      }
+    }
+    return buildReflectiveDaoAdapter(klass, null);
+  }
+
+  /**
+   * @param group the name of the field group or null to map all fields
+   */
+  private <T> DaoAdapter<T> buildReflectiveDaoAdapter(Class<T> klass, String group) {
     ImmutableList.Builder<FieldAdapter> fieldAdapters = ImmutableList.builder();
     ImmutableList.Builder<EmbeddedFieldInitializer> fieldInitializers = ImmutableList.builder();
 
@@ -202,41 +794,129 @@ public class MicroOrm {
       field.setAccessible(true);
 
       Column columnAnnotation = field.getAnnotation(Column.class);
-      if (columnAnnotation != null) {
-        if (field.getType().isPrimitive() && columnAnnotation.treatNullAsDefault()) {
-          throw new IllegalArgumentException("Cannot set treatNullAsDefault on primitive members");
-        }
-        if (columnAnnotation.treatNullAsDefault() && columnAnnotation.readonly()) {
-          throw new IllegalArgumentException("It doesn't make sense to set treatNullAsDefault on readonly column");
-        }
-        ColumnFieldAdapter fieldAdapter = new ColumnFieldAdapter(field, mTypeAdapters.get(field.getType()));
-
-        fieldAdapters.add(fieldAdapter);
+      if (columnAnnotation != null && (group == null || Arrays.asList(columnAnnotation.groups()).contains(group))) {
+        fieldAdapters.add(buildColumnFieldAdapter(field, columnAnnotation));
       }
 
       Embedded embeddedAnnotation = field.getAnnotation(Embedded.class);
       if (embeddedAnnotation != null) {
-        DaoAdapter<?> daoAdapter = getAdapter(field.getType());
-        EmbeddedFieldAdapter fieldAdapter = new EmbeddedFieldAdapter(field, daoAdapter);
+        DaoAdapter<?> daoAdapter = group == null
+            ? getAdapter(field.getType())
+            : getAdapter(field.getType(), group);
+        // the adapters are never generated for the classes with @Creator
+        boolean hasCreator = daoAdapter instanceof ReflectiveDaoAdapter && ((ReflectiveDaoAdapter<?>) daoAdapter).hasObjectCreator();
+        EmbeddedFieldAdapter fieldAdapter = new EmbeddedFieldAdapter(field, daoAdapter, embeddedAnnotation.nullIfAllNull(), hasCreator);
 
         fieldAdapters.add(fieldAdapter);
-        fieldInitializers.add(new EmbeddedFieldInitializer(field, daoAdapter));
+        // the objects with @Creator can't be created before the values are read
+        if (!embeddedAnnotation.nullIfAllNull() && !hasCreator) {
+          fieldInitializers.add(new EmbeddedFieldInitializer(field, daoAdapter));
+        }
       }
     }
 
-    return new ReflectiveDaoAdapter<>(klass, fieldAdapters.build(), fieldInitializers.build());
+    ImmutableList<FieldAdapter> builtFieldAdapters = fieldAdapters.build();
+    // the objects mapped with the group have only some of the fields set,
+    // so they can't be created with the @Creator taking all fields
+    ObjectCreator<T> objectCreator = group == null
+        ? ObjectCreator.find(klass, builtFieldAdapters)
+        : null;
+    return new ReflectiveDaoAdapter<>(klass, builtFieldAdapters, fieldInitializers.build(), objectCreator);
+  }
+
+  ColumnFieldAdapter buildColumnFieldAdapter(Field field, Column columnAnnotation) {
+    if (field.getType().isPrimitive() && columnAnnotation.treatNullAsDefault()) {
+      throw new IllegalArgumentException("Cannot set treatNullAsDefault on primitive members");
+    }
+    if (columnAnnotation.treatNullAsDefault() && columnAnnotation.readonly()) {
+      throw new IllegalArgumentException("It doesn't make sense to set treatNullAsDefault on readonly column");
+    }
+    if (field.getType().isPrimitive() && columnAnnotation.lazy()) {
+      throw new IllegalArgumentException("Cannot load primitive members lazily");
+    }
+    if (columnAnnotation.intern() != Intern.NONE && field.getType() != String.class) {
+      throw new IllegalArgumentException("Cannot intern non-String members");
+    }
+    if (columnAnnotation.enumStorage() != EnumStorage.NAME && !field.getType().isEnum()) {
+      throw new IllegalArgumentException("Cannot set enumStorage on non-enum members");
+    }
+    TypeAdapter<?> typeAdapter = columnAnnotation.intern() != Intern.NONE
+        ? getInterningAdapter(columnAnnotation.intern())
+        : getFieldTypeAdapter(field, columnAnnotation);
+    return field.getType().isPrimitive() && typeAdapter instanceof PrimitiveTypeAdapter
+        ? new PrimitiveColumnFieldAdapter(field, typeAdapter)
+        : new ColumnFieldAdapter(field, typeAdapter, mLazyColumnsTracker);
   }
 
   /**
    * Constructs a MicroOrm object with default configuration, i.e. with support
-   * only for primitives, boxed primitives and String fields.
+   * only for primitives, boxed primitives, String, enum and blob fields. The
+   * String columns can be also read into reused {@link CharArrayBuffer} or
+   * {@link StringBuilder} fields. The blobs can be read as byte[] or
+   * {@link ByteBuffer}, or as int[], long[], float[] or double[] arrays of
+   * little-endian elements.
    */
   public MicroOrm() {
-    this(TYPE_ADAPTERS);
+    this(TYPE_ADAPTERS, false, null, DEFAULT_STRING_INTERNER_CAPACITY, DEFAULT_MIN_PARALLEL_CHUNK_SIZE);
   }
 
-  private MicroOrm(ImmutableMap<Class<?>, TypeAdapter<?>> typeAdapters) {
+  private MicroOrm(ImmutableMap<Class<?>, TypeAdapter<?>> typeAdapters, boolean weakClassKeys, MetricsListener metricsListener, int stringInternerCapacity, int minParallelChunkSize) {
     mTypeAdapters = typeAdapters;
+    mMinParallelChunkSize = minParallelChunkSize;
+    mMetricsListener = metricsListener;
+    mStringInterner = new StringInterner(stringInternerCapacity);
+    mUseGeneratedAdapters = hasDefaultTypeAdapters(typeAdapters);
+
+    CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+    if (weakClassKeys) {
+      // Adapters reference their classes, so they have to be collectable
+      // as well for the class keys to be ever released.
+      cacheBuilder.weakKeys().softValues();
+    }
+    mDaoAdapterCache = cacheBuilder.build(new CacheLoader<Class<?>, DaoAdapter<?>>() {
+      @Override
+      public DaoAdapter<?> load(Class<?> klass) {
+        long start = startMeasurement();
+        DaoAdapter<?> adapter = buildDaoAdapter(klass);
+        finishMeasurement(Operation.BUILD_ADAPTER, klass, 0, start);
+        return adapter;
+      }
+    });
+    mGroupDaoAdapterCache = cacheBuilder.build(new CacheLoader<Class<?>, LoadingCache<String, DaoAdapter<?>>>() {
+      @Override
+      public LoadingCache<String, DaoAdapter<?>> load(final Class<?> klass) {
+        return CacheBuilder.newBuilder().build(new CacheLoader<String, DaoAdapter<?>>() {
+          @Override
+          public DaoAdapter<?> load(String group) {
+            long start = startMeasurement();
+            DaoAdapter<?> adapter = buildReflectiveDaoAdapter(klass, group);
+            finishMeasurement(Operation.BUILD_ADAPTER, klass, 0, start);
+            return adapter;
+          }
+        });
+      }
+    });
+    mEnumTypeAdapterCache = cacheBuilder.build(new CacheLoader<Class<?>, EnumTypeAdapters<?>>() {
+      @Override
+      public EnumTypeAdapters<?> load(Class<?> klass) {
+        return EnumTypeAdapters.create(klass);
+      }
+    });
+  }
+
+  // Generated adapters read and write primitives, boxed primitives and
+  // Strings directly, so they cannot be used if any of the built-in type
+  // adapters for these types was replaced. Other types, like arrays, are
+  // converted with the registered adapters.
+  private static boolean hasDefaultTypeAdapters(ImmutableMap<Class<?>, TypeAdapter<?>> typeAdapters) {
+    for (Map.Entry<Class<?>, TypeAdapter<?>> entry : TYPE_ADAPTERS.entrySet()) {
+      Class<?> type = entry.getKey();
+      boolean accessedDirectly = type.isPrimitive() || Primitives.isWrapperType(type) || type == String.class;
+      if (accessedDirectly && typeAdapters.get(type) != entry.getValue()) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -249,6 +929,10 @@ public class MicroOrm {
    */
   public static class Builder {
     private final Map<Class<?>, TypeAdapter<?>> mTypeAdapters;
+    private boolean mWeakClassKeys;
+    private MetricsListener mMetricsListener;
+    private int mStringInternerCapacity = DEFAULT_STRING_INTERNER_CAPACITY;
+    private int mMinParallelChunkSize = DEFAULT_MIN_PARALLEL_CHUNK_SIZE;
 
     public Builder() {
       mTypeAdapters = Maps.newHashMap(TYPE_ADAPTERS);
@@ -269,6 +953,68 @@ public class MicroOrm {
       return this;
     }
 
+    /**
+     * Configures MicroOrm to reference the classes of converted objects
+     * weakly, so the classes loaded by custom {@link ClassLoader}s (e.g. from
+     * plugins) can be unloaded. The adapters for such classes might be
+     * rebuilt after they are released under memory pressure.
+     *
+     * @return a reference to this {@link Builder} object to fulfill the
+     * "Builder" pattern
+     */
+    public Builder weakClassKeys() {
+      mWeakClassKeys = true;
+      return this;
+    }
+
+    /**
+     * Configures MicroOrm to report the timings of its operations and the
+     * internal cache statistics to the specified listener. By default no
+     * metrics are collected.
+     *
+     * @param metricsListener the listener receiving the metrics, e.g.
+     * {@link MetricsCollector}
+     * @return a reference to this {@link Builder} object to fulfill the
+     * "Builder" pattern
+     */
+    public Builder metricsListener(MetricsListener metricsListener) {
+      mMetricsListener = Preconditions.checkNotNull(metricsListener);
+      return this;
+    }
+
+    /**
+     * Configures the number of canonical Strings kept for the columns
+     * annotated with {@link Column#intern()}. The table is shared by all
+     * interned columns, so it should be a few times larger than the number of
+     * their distinct values. The default capacity is 1024.
+     *
+     * @param capacity the maximum number of canonical Strings
+     * @return a reference to this {@link Builder} object to fulfill the
+     * "Builder" pattern
+     */
+    public Builder stringInternerCapacity(int capacity) {
+      Preconditions.checkArgument(capacity > 0, "capacity must be positive");
+      mStringInternerCapacity = capacity;
+      return this;
+    }
+
+    /**
+     * Configures the minimum number of rows converted by a single task of
+     * {@link MicroOrm#parallelListFromCursor(Cursor, Class, Executor, int)}.
+     * The smaller {@link Cursor}s are converted on the calling thread. The
+     * break-even point depends on the device and the converted class, so it
+     * should be measured on the target devices. The default is 1024 rows.
+     *
+     * @param rows the minimum number of rows per task
+     * @return a reference to this {@link Builder} object to fulfill the
+     * "Builder" pattern
+     */
+    public Builder minParallelChunkSize(int rows) {
+      Preconditions.checkArgument(rows > 0, "rows must be positive");
+      mMinParallelChunkSize = rows;
+      return this;
+    }
+
     /**
      * Creates a {@link MicroOrm} instance with support for custom types that
      * were registered with this {@link Builder}. This method is free of
@@ -279,7 +1025,7 @@ public class MicroOrm {
      * registered with this this builder
      */
     public MicroOrm build() {
-      return new MicroOrm(ImmutableMap.copyOf(mTypeAdapters));
+      return new MicroOrm(ImmutableMap.copyOf(mTypeAdapters), mWeakClassKeys, mMetricsListener, mStringInternerCapacity, mMinParallelChunkSize);
     }
   }
 
@@ -304,10 +1050,34 @@ public class MicroOrm {
     typeAdapters.put(Double.class, new OptionalTypeAdapter<>(new TypeAdapters.DoubleAdapter()));
 
     typeAdapters.put(String.class, new OptionalTypeAdapter<>(new TypeAdapters.StringAdapter()));
+    typeAdapters.put(CharArrayBuffer.class, new TypeAdapters.CharArrayBufferAdapter());
+    typeAdapters.put(StringBuilder.class, new TypeAdapters.StringBuilderAdapter());
+
+    typeAdapters.put(byte[].class, new TypeAdapters.BlobAdapter());
+    typeAdapters.put(ByteBuffer.class, new TypeAdapters.ByteBufferAdapter());
+    typeAdapters.put(int[].class, new TypeAdapters.IntArrayAdapter());
+    typeAdapters.put(long[].class, new TypeAdapters.LongArrayAdapter());
+    typeAdapters.put(float[].class, new TypeAdapters.FloatArrayAdapter());
+    typeAdapters.put(double[].class, new TypeAdapters.DoubleArrayAdapter());
 
     TYPE_ADAPTERS = ImmutableMap.copyOf(typeAdapters);
   }
 
+  // In ParallelListFromCursorBenchmark on the desktop JVM, the snapshot and
+  // the hand-off of a single chunk cost about as much as converting 1000 rows.
+  private static final int DEFAULT_MIN_PARALLEL_CHUNK_SIZE = 1024;
+  private static final int DEFAULT_ASYNC_BATCH_SIZE = 64;
+
+  private static final int DEFAULT_STRING_INTERNER_CAPACITY = 1024;
+
   private final ImmutableMap<Class<?>, TypeAdapter<?>> mTypeAdapters;
-  private final Map<Class<?>, DaoAdapter<?>> mDaoAdapterCache = Maps.newHashMap();
+  private final boolean mUseGeneratedAdapters;
+  private final MetricsListener mMetricsListener;
+  private final StringInterner mStringInterner;
+  private final int mMinParallelChunkSize;
+  private final LoadingCache<Class<?>, DaoAdapter<?>> mDaoAdapterCache;
+  final LazyColumnsTracker mLazyColumnsTracker = new LazyColumnsTracker();
+  // the adapters mapping only the fields of the group, by class and group name
+  private final LoadingCache<Class<?>, LoadingCache<String, DaoAdapter<?>>> mGroupDaoAdapterCache;
+  private final LoadingCache<Class<?>, EnumTypeAdapters<?>> mEnumTypeAdapterCache;
 }
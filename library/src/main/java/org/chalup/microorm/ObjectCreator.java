@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import com.google.common.collect.ImmutableList;
+
+import org.chalup.microorm.annotations.Creator;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates the objects with the constructor or the static factory method
+ * annotated with {@link Creator}.
+ */
+abstract class ObjectCreator<T> {
+  private final int[] mArgumentIndexes;
+
+  private ObjectCreator(int[] argumentIndexes) {
+    mArgumentIndexes = argumentIndexes;
+  }
+
+  abstract T newInstance(Object[] arguments) throws InvocationTargetException, IllegalAccessException, InstantiationException;
+
+  /**
+   * @return the index of the creator parameter for each field adapter
+   */
+  int[] getArgumentIndexes() {
+    return mArgumentIndexes.clone();
+  }
+
+  /**
+   * @return the {@link ObjectCreator} for the given class or null if the
+   * class doesn't have the {@link Creator} annotation
+   */
+  static <T> ObjectCreator<T> find(final Class<T> klass, ImmutableList<FieldAdapter> fieldAdapters) {
+    AccessibleObject creator = null;
+    for (Constructor<?> constructor : klass.getDeclaredConstructors()) {
+      if (constructor.isAnnotationPresent(Creator.class)) {
+        creator = checkSingleCreator(klass, creator, constructor);
+      }
+    }
+    for (Method method : klass.getDeclaredMethods()) {
+      if (method.isAnnotationPresent(Creator.class)) {
+        if (!Modifier.isStatic(method.getModifiers()) || !klass.isAssignableFrom(method.getReturnType())) {
+          throw new IllegalArgumentException("@Creator method " + method.getName() + " in " + klass.getName() + " must be static and return " + klass.getSimpleName());
+        }
+        creator = checkSingleCreator(klass, creator, method);
+      }
+    }
+    if (creator == null) {
+      return null;
+    }
+    creator.setAccessible(true);
+
+    if (creator instanceof Constructor) {
+      final Constructor<?> constructor = (Constructor<?>) creator;
+      int[] argumentIndexes = getArgumentIndexes(klass, fieldAdapters, constructor.getAnnotation(Creator.class), constructor.getParameterTypes());
+      return new ObjectCreator<T>(argumentIndexes) {
+        @Override
+        T newInstance(Object[] arguments) throws InvocationTargetException, IllegalAccessException, InstantiationException {
+          return klass.cast(constructor.newInstance(arguments));
+        }
+      };
+    } else {
+      final Method method = (Method) creator;
+      int[] argumentIndexes = getArgumentIndexes(klass, fieldAdapters, method.getAnnotation(Creator.class), method.getParameterTypes());
+      return new ObjectCreator<T>(argumentIndexes) {
+        @Override
+        T newInstance(Object[] arguments) throws InvocationTargetException, IllegalAccessException {
+          return klass.cast(method.invoke(null, arguments));
+        }
+      };
+    }
+  }
+
+  private static AccessibleObject checkSingleCreator(Class<?> klass, AccessibleObject previous, AccessibleObject creator) {
+    if (previous != null) {
+      throw new IllegalArgumentException("Multiple @Creator annotations in " + klass.getName());
+    }
+    return creator;
+  }
+
+  private static int[] getArgumentIndexes(Class<?> klass, List<FieldAdapter> fieldAdapters, Creator annotation, Class<?>[] parameterTypes) {
+    if (parameterTypes.length != fieldAdapters.size()) {
+      throw new IllegalArgumentException("@Creator in " + klass.getName() + " must take one parameter for each of " + fieldAdapters.size() + " annotated fields");
+    }
+
+    // The order of fields returned by Class.getDeclaredFields() is not
+    // specified (ART returns them sorted by name), so the parameters can
+    // be matched by position only if there is a single one of them.
+    List<String> names = Arrays.asList(annotation.value());
+    if (names.isEmpty() && parameterTypes.length > 1) {
+      throw new IllegalArgumentException("@Creator in " + klass.getName() + " must specify the field name for each parameter");
+    }
+    if (!names.isEmpty() && names.size() != parameterTypes.length) {
+      throw new IllegalArgumentException("@Creator in " + klass.getName() + " must specify one field name for each parameter");
+    }
+
+    int[] argumentIndexes = new int[fieldAdapters.size()];
+    for (int i = 0; i < fieldAdapters.size(); i++) {
+      Field field = fieldAdapters.get(i).mField;
+      int argumentIndex = names.isEmpty() ? 0 : names.indexOf(field.getName());
+      if (argumentIndex < 0) {
+        throw new IllegalArgumentException("@Creator in " + klass.getName() + " does not specify the parameter for field " + field.getName());
+      }
+      if (parameterTypes[argumentIndex] != field.getType()) {
+        throw new IllegalArgumentException("Parameter " + argumentIndex + " of @Creator in " + klass.getName() + " is not of type " + field.getType().getName() + " of field " + field.getName());
+      }
+      argumentIndexes[i] = argumentIndex;
+    }
+    return argumentIndexes;
+  }
+}
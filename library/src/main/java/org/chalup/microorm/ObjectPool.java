@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayDeque;
+
+/**
+ * Bounded pool of objects of specified type, which can be used with
+ * {@link MicroOrm#iterate(android.database.Cursor, ObjectPool)} to avoid
+ * allocating a new object for every converted row. You can get the pool
+ * instances with {@link MicroOrm#newObjectPool(Class, int)}.
+ *
+ * <p>
+ * The objects should be returned to the pool with {@link #release(Object)}
+ * as soon as they are no longer used; the released object might be refilled
+ * with the data from another row at any time. This class is thread-safe.
+ * </p>
+ */
+public final class ObjectPool<T> {
+  private final Class<T> mObjectClass;
+  private final DaoAdapter<T> mDaoAdapter;
+  private final int mMaxSize;
+  private final ArrayDeque<T> mPool;
+
+  ObjectPool(Class<T> objectClass, DaoAdapter<T> daoAdapter, int maxSize) {
+    Preconditions.checkArgument(maxSize > 0, "Pool size must be positive");
+
+    mObjectClass = objectClass;
+    mDaoAdapter = daoAdapter;
+    mMaxSize = maxSize;
+    mPool = new ArrayDeque<>(maxSize);
+  }
+
+  Class<T> getObjectClass() {
+    return mObjectClass;
+  }
+
+  DaoAdapter<T> getDaoAdapter() {
+    return mDaoAdapter;
+  }
+
+  /**
+   * @return the object from the pool, or the new object if the pool is empty
+   */
+  public T acquire() {
+    T object;
+    synchronized (mPool) {
+      object = mPool.poll();
+    }
+    return object != null ? object : mDaoAdapter.createInstance();
+  }
+
+  /**
+   * Returns the object to the pool. If the pool is full, the object is
+   * dropped.
+   *
+   * @param object the object previously acquired from this pool
+   */
+  public void release(T object) {
+    Preconditions.checkNotNull(object);
+    synchronized (mPool) {
+      if (mPool.size() < mMaxSize) {
+        mPool.push(object);
+      }
+    }
+  }
+}
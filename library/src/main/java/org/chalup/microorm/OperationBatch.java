@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentValues;
+import android.net.Uri;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the list of {@link ContentProviderOperation}s for
+ * {@link android.content.ContentResolver#applyBatch(String, ArrayList)}
+ * directly from the objects. You can get the OperationBatch instances with
+ * {@link MicroOrm#newOperationBatch(int)}.
+ *
+ * <p>
+ * Every method adding the operation returns its index in the batch, which
+ * can be used as a back-reference in the subsequent operations, e.g. to set
+ * the foreign key of the inserted child row to the id of its parent row
+ * inserted in the same batch. Every {@code yieldEvery} operations the yield
+ * point is added, so the content provider can release its lock during long
+ * batches. This class is not thread-safe.
+ * </p>
+ */
+public final class OperationBatch {
+  private final MicroOrm mMicroOrm;
+  private final int mYieldEvery;
+  private final List<ContentProviderOperation.Builder> mOperations = Lists.newArrayList();
+
+  // reused for all operations, since the builders copy the values anyway
+  private final ContentValues mValues = new ContentValues();
+
+  OperationBatch(MicroOrm microOrm, int yieldEvery) {
+    Preconditions.checkArgument(yieldEvery > 0, "yieldEvery must be positive");
+
+    mMicroOrm = microOrm;
+    mYieldEvery = yieldEvery;
+  }
+
+  /**
+   * Adds the insert operation for the specified object.
+   *
+   * @param uri the {@link Uri} to insert the object into
+   * @param object the object to insert
+   * @return the index of the added operation
+   */
+  public <T> int insert(Uri uri, T object) {
+    return add(ContentProviderOperation.newInsert(uri).withValues(toContentValues(object)));
+  }
+
+  /**
+   * Adds the insert operation for the specified object, with the specified
+   * column set to the id of the row inserted by the previous operation.
+   *
+   * @param uri the {@link Uri} to insert the object into
+   * @param object the object to insert
+   * @param backReferenceColumn the column, which should contain the id of
+   * the row inserted by the previous operation
+   * @param previousOperationIndex the index of the previous operation
+   * returned by one of the methods of this OperationBatch
+   * @return the index of the added operation
+   */
+  public <T> int insert(Uri uri, T object, String backReferenceColumn, int previousOperationIndex) {
+    Preconditions.checkElementIndex(previousOperationIndex, mOperations.size(), "previousOperationIndex");
+
+    return add(ContentProviderOperation.newInsert(uri)
+        .withValues(toContentValues(object))
+        .withValueBackReference(backReferenceColumn, previousOperationIndex));
+  }
+
+  /**
+   * Adds the insert operations for all specified objects.
+   *
+   * @param uri the {@link Uri} to insert the objects into
+   * @param objects the objects to insert
+   * @return the index of the first added operation
+   */
+  public <T> int insertAll(Uri uri, Iterable<T> objects) {
+    int firstIndex = mOperations.size();
+    for (T object : objects) {
+      insert(uri, object);
+    }
+    return firstIndex;
+  }
+
+  /**
+   * Adds the update operation for the specified object.
+   *
+   * @param uri the {@link Uri} of the updated rows
+   * @param object the object containing the new values
+   * @param selection the selection of the updated rows
+   * @param selectionArgs the selection arguments
+   * @return the index of the added operation
+   */
+  public <T> int update(Uri uri, T object, String selection, String[] selectionArgs) {
+    return add(ContentProviderOperation.newUpdate(uri)
+        .withValues(toContentValues(object))
+        .withSelection(selection, selectionArgs));
+  }
+
+  /**
+   * Adds the delete operation.
+   *
+   * @param uri the {@link Uri} of the deleted rows
+   * @param selection the selection of the deleted rows
+   * @param selectionArgs the selection arguments
+   * @return the index of the added operation
+   */
+  public int delete(Uri uri, String selection, String[] selectionArgs) {
+    return add(ContentProviderOperation.newDelete(uri).withSelection(selection, selectionArgs));
+  }
+
+  /**
+   * @return the number of operations in this batch
+   */
+  public int size() {
+    return mOperations.size();
+  }
+
+  /**
+   * Builds the {@link ContentProviderOperation}s. This method can be called
+   * multiple times.
+   *
+   * @return the list of operations, which can be passed to the
+   * {@link android.content.ContentResolver#applyBatch(String, ArrayList)}
+   */
+  public ArrayList<ContentProviderOperation> build() {
+    ArrayList<ContentProviderOperation> operations = Lists.newArrayListWithCapacity(mOperations.size());
+    for (ContentProviderOperation.Builder builder : mOperations) {
+      operations.add(builder.build());
+    }
+    return operations;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> ContentValues toContentValues(T object) {
+    Preconditions.checkNotNull(object);
+
+    mValues.clear();
+    return mMicroOrm.getAdapter((Class<T>) object.getClass()).toContentValues(mValues, object);
+  }
+
+  private int add(ContentProviderOperation.Builder builder) {
+    int index = mOperations.size();
+    if (index > 0 && index % mYieldEvery == 0) {
+      builder.withYieldAllowed(true);
+    }
+    mOperations.add(builder);
+    return index;
+  }
+}
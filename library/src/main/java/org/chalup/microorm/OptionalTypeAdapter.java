@@ -24,7 +24,7 @@ import android.database.Cursor;
  * {@link #fromCursor(android.database.Cursor, String)} if the data in the
  * database column is null, otherwise calls the wrapped adapter.
  */
-public class OptionalTypeAdapter<T> implements TypeAdapter<T> {
+public class OptionalTypeAdapter<T> implements IndexedTypeAdapter<T> {
 
   private final TypeAdapter<T> mWrappedAdapter;
 
@@ -34,11 +34,31 @@ public class OptionalTypeAdapter<T> implements TypeAdapter<T> {
 
   @Override
   public T fromCursor(Cursor c, String columnName) {
-    return c.isNull(c.getColumnIndexOrThrow(columnName))
-        ? null
+    int columnIndex = c.getColumnIndexOrThrow(columnName);
+    if (c.isNull(columnIndex)) {
+      return null;
+    }
+
+    return mWrappedAdapter instanceof IndexedTypeAdapter
+        ? ((IndexedTypeAdapter<T>) mWrappedAdapter).fromCursor(c, columnIndex)
         : mWrappedAdapter.fromCursor(c, columnName);
   }
 
+  @Override
+  public T fromCursor(Cursor c, int columnIndex) {
+    if (c.isNull(columnIndex)) {
+      return null;
+    }
+
+    return mWrappedAdapter instanceof IndexedTypeAdapter
+        ? ((IndexedTypeAdapter<T>) mWrappedAdapter).fromCursor(c, columnIndex)
+        : mWrappedAdapter.fromCursor(c, c.getColumnName(columnIndex));
+  }
+
+  TypeAdapter<T> getWrappedAdapter() {
+    return mWrappedAdapter;
+  }
+
   @Override
   public void toContentValues(ContentValues values, String columnName, T object) {
     if (object != null) {
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+import android.database.Cursor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+final class ParallelMapper {
+  private ParallelMapper() {
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> List<T> map(ColumnTable table, DaoAdapter<T> daoAdapter, Executor executor, int chunkCount) {
+    Object[] result = new Object[table.getRowCount()];
+    List<ListenableFuture<Void>> futures = Lists.newArrayListWithCapacity(chunkCount);
+
+    ListenableFutureTask<Void> firstChunk = null;
+    for (int i = 0; i < chunkCount; i++) {
+      int start = (int) ((long) result.length * i / chunkCount);
+      int end = (int) ((long) result.length * (i + 1) / chunkCount);
+      ListenableFutureTask<Void> task = ListenableFutureTask.create(new MapChunk<>(table, daoAdapter, result, start, end));
+      futures.add(task);
+
+      if (i == 0) {
+        firstChunk = task;
+      } else {
+        executor.execute(task);
+      }
+    }
+    // the calling thread would wait anyway, so it might as well do some work
+    firstChunk.run();
+
+    try {
+      Futures.allAsList(futures).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw Throwables.propagate(e);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+
+    return Lists.newArrayList(Arrays.asList((T[]) result));
+  }
+
+  private static class MapChunk<T> implements Callable<Void> {
+    private final ColumnTable mTable;
+    private final DaoAdapter<T> mDaoAdapter;
+    private final Object[] mResult;
+    private final int mStart;
+    private final int mEnd;
+
+    MapChunk(ColumnTable table, DaoAdapter<T> daoAdapter, Object[] result, int start, int end) {
+      mTable = table;
+      mDaoAdapter = daoAdapter;
+      mResult = result;
+      mStart = start;
+      mEnd = end;
+    }
+
+    @Override
+    public Void call() {
+      Cursor cursor = mTable.newCursor();
+      BoundMapper<T> mapper = new BoundMapper<>(cursor, mDaoAdapter);
+
+      for (int row = mStart; row < mEnd && cursor.moveToPosition(row); row++) {
+        mResult[row] = mapper.map();
+      }
+      return null;
+    }
+  }
+}
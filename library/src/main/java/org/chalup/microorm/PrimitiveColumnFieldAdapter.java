@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
+
+import java.lang.reflect.Field;
+
+class PrimitiveColumnFieldAdapter extends ColumnFieldAdapter {
+
+  private final PrimitiveTypeAdapter mPrimitiveTypeAdapter;
+
+  PrimitiveColumnFieldAdapter(Field field, TypeAdapter<?> typeAdapter) {
+    super(field, typeAdapter, null);
+    mPrimitiveTypeAdapter = (PrimitiveTypeAdapter) typeAdapter;
+  }
+
+  @Override
+  public void setValueFromCursor(Cursor inCursor, int[] columnIndexes, int offset, Object outTarget) throws IllegalArgumentException, IllegalAccessException {
+    mPrimitiveTypeAdapter.setField(mField, outTarget, inCursor, columnIndexes[offset]);
+  }
+
+  @Override
+  public void putToContentValues(Object inObject, ContentValues outValues) throws IllegalAccessException {
+    if (inObject == null) {
+      super.putToContentValues(null, outValues);
+    } else if (!mReadonly) {
+      mPrimitiveTypeAdapter.putField(mField, inObject, outValues, mColumnName);
+    }
+  }
+
+  @Override
+  public boolean bindToProgram(Object inObject, SQLiteProgram program, int index) throws IllegalAccessException {
+    if (inObject == null) {
+      return super.bindToProgram(null, program, index);
+    } else if (!mReadonly) {
+      mPrimitiveTypeAdapter.bindField(mField, inObject, program, index);
+    }
+    return true;
+  }
+}
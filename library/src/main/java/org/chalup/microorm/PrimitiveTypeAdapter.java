@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
+
+import java.lang.reflect.Field;
+
+/**
+ * Built-in adapter for primitive type, which moves the value between
+ * {@link Cursor}, {@link ContentValues} or compiled statement and the field
+ * of primitive type without boxing it.
+ */
+interface PrimitiveTypeAdapter {
+  void setField(Field field, Object target, Cursor c, int columnIndex) throws IllegalAccessException;
+
+  void putField(Field field, Object source, ContentValues values, String columnName) throws IllegalAccessException;
+
+  void bindField(Field field, Object source, SQLiteProgram program, int index) throws IllegalAccessException;
+}
@@ -17,6 +17,7 @@
 package org.chalup.microorm;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
@@ -24,6 +25,7 @@ import com.google.common.collect.Sets;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteProgram;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
@@ -32,25 +34,46 @@ import java.util.Set;
 class ReflectiveDaoAdapter<T> implements DaoAdapter<T> {
 
   private final ClassFactory<T> mClassFactory;
+  private final ObjectCreator<T> mObjectCreator;
+  private final int[] mArgumentIndexes;
   private final ImmutableList<FieldAdapter> mFieldAdapters;
   private final ImmutableList<EmbeddedFieldInitializer> mFieldInitializers;
   private final String[] mProjection;
+  private final String[] mDistinctProjection;
+  private final int[] mColumnOffsets;
   private final String[] mWritableColumns;
+  private final int[] mWritableColumnOffsets;
   private final ImmutableSet<String> mWritableDuplicates;
 
-  ReflectiveDaoAdapter(Class<T> klass, ImmutableList<FieldAdapter> fieldAdapters, ImmutableList<EmbeddedFieldInitializer> fieldInitializers) {
+  ReflectiveDaoAdapter(Class<T> klass, ImmutableList<FieldAdapter> fieldAdapters, ImmutableList<EmbeddedFieldInitializer> fieldInitializers, ObjectCreator<T> objectCreator) {
     mClassFactory = ClassFactory.get(klass);
+    mObjectCreator = objectCreator;
+    mArgumentIndexes = mObjectCreator != null ? mObjectCreator.getArgumentIndexes() : null;
     mFieldAdapters = fieldAdapters;
     mFieldInitializers = fieldInitializers;
 
     ImmutableList.Builder<String> projectionBuilder = ImmutableList.builder();
     ImmutableList.Builder<String> writableColumnsBuilder = ImmutableList.builder();
 
-    for (FieldAdapter fieldAdapter : fieldAdapters) {
-      projectionBuilder.add(fieldAdapter.getColumnNames());
-      writableColumnsBuilder.add(fieldAdapter.getWritableColumnNames());
+    mColumnOffsets = new int[fieldAdapters.size()];
+    mWritableColumnOffsets = new int[fieldAdapters.size()];
+    int offset = 0;
+    int writableOffset = 0;
+    for (int i = 0; i < fieldAdapters.size(); i++) {
+      FieldAdapter fieldAdapter = fieldAdapters.get(i);
+      String[] columnNames = fieldAdapter.getColumnNames();
+      String[] writableColumnNames = fieldAdapter.getWritableColumnNames();
+
+      mColumnOffsets[i] = offset;
+      offset += columnNames.length;
+      mWritableColumnOffsets[i] = writableOffset;
+      writableOffset += writableColumnNames.length;
+
+      projectionBuilder.add(columnNames);
+      writableColumnsBuilder.add(writableColumnNames);
     }
     mProjection = array(projectionBuilder.build());
+    mDistinctProjection = array(ImmutableSet.copyOf(mProjection));
     mWritableColumns = array(writableColumnsBuilder.build());
     mWritableDuplicates = findDuplicates(mWritableColumns);
   }
@@ -72,6 +95,10 @@ class ReflectiveDaoAdapter<T> implements DaoAdapter<T> {
     return result.build();
   }
 
+  boolean hasObjectCreator() {
+    return mObjectCreator != null;
+  }
+
   @Override
   public T createInstance() {
     try {
@@ -89,11 +116,38 @@ class ReflectiveDaoAdapter<T> implements DaoAdapter<T> {
     }
   }
 
+  @Override
+  public T newFromCursor(Cursor c, int[] columnIndexes, int offset) {
+    if (mObjectCreator == null) {
+      // the new instance has all @Embedded objects initialized already
+      return recycleFromCursor(c, columnIndexes, offset, createInstance());
+    }
+
+    Object[] arguments = new Object[mFieldAdapters.size()];
+    for (int i = 0; i < mFieldAdapters.size(); i++) {
+      arguments[mArgumentIndexes[i]] = mFieldAdapters.get(i).readValueFromCursor(c, columnIndexes, offset + mColumnOffsets[i]);
+    }
+    try {
+      return mObjectCreator.newInstance(arguments);
+    } catch (InvocationTargetException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    } catch (InstantiationException e) {
+      throw new AssertionError(e);
+    }
+  }
+
   @Override
   public T fromCursor(Cursor c, T object) {
+    return fromCursor(c, getColumnIndexes(c), 0, object);
+  }
+
+  @Override
+  public T fromCursor(Cursor c, int[] columnIndexes, int offset, T object) {
     try {
-      for (FieldAdapter fieldAdapter : mFieldAdapters) {
-        fieldAdapter.setValueFromCursor(c, object);
+      for (int i = 0; i < mFieldAdapters.size(); i++) {
+        mFieldAdapters.get(i).setValueFromCursor(c, columnIndexes, offset + mColumnOffsets[i], object);
       }
       return object;
     } catch (IllegalAccessException e) {
@@ -102,10 +156,29 @@ class ReflectiveDaoAdapter<T> implements DaoAdapter<T> {
   }
 
   @Override
-  public ContentValues toContentValues(ContentValues values, T object) {
-    if (!mWritableDuplicates.isEmpty()) {
-      throw new IllegalArgumentException("Duplicate columns definitions: " + Joiner.on(", ").join(mWritableDuplicates));
+  public T recycleFromCursor(Cursor c, int[] columnIndexes, int offset, T object) {
+    try {
+      for (int i = 0; i < mFieldAdapters.size(); i++) {
+        mFieldAdapters.get(i).recycleValueFromCursor(c, columnIndexes, offset + mColumnOffsets[i], object);
+      }
+      return object;
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
     }
+  }
+
+  @Override
+  public int[] getColumnIndexes(Cursor c) {
+    int[] columnIndexes = new int[mProjection.length];
+    for (int i = 0; i < mProjection.length; i++) {
+      columnIndexes[i] = c.getColumnIndexOrThrow(mProjection[i]);
+    }
+    return columnIndexes;
+  }
+
+  @Override
+  public ContentValues toContentValues(ContentValues values, T object) {
+    checkWritableDuplicates();
     try {
       for (FieldAdapter fieldAdapter : mFieldAdapters) {
         fieldAdapter.putToContentValues(object, values);
@@ -119,6 +192,39 @@ class ReflectiveDaoAdapter<T> implements DaoAdapter<T> {
     return values;
   }
 
+  @Override
+  public boolean bindToStatement(SQLiteProgram program, int index, T object) {
+    checkWritableDuplicates();
+    try {
+      for (int i = 0; i < mFieldAdapters.size(); i++) {
+        if (!mFieldAdapters.get(i).bindToProgram(object, program, index + mWritableColumnOffsets[i])) {
+          return false;
+        }
+      }
+      return true;
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  @Override
+  public void snapshotValues(T object, Object[] outValues, int index) {
+    checkWritableDuplicates();
+    try {
+      for (int i = 0; i < mFieldAdapters.size(); i++) {
+        mFieldAdapters.get(i).snapshotValues(object, outValues, index + mWritableColumnOffsets[i]);
+      }
+    } catch (IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private void checkWritableDuplicates() {
+    if (!mWritableDuplicates.isEmpty()) {
+      throw new IllegalArgumentException("Duplicate columns definitions: " + Joiner.on(", ").join(mWritableDuplicates));
+    }
+  }
+
   @Override
   public ContentValues createContentValues() {
     return new ContentValues(mWritableColumns.length);
@@ -129,6 +235,11 @@ class ReflectiveDaoAdapter<T> implements DaoAdapter<T> {
     return mProjection.clone();
   }
 
+  @Override
+  public String[] getDistinctProjection() {
+    return mDistinctProjection.clone();
+  }
+
   @Override
   public String[] getWritableColumns() {
     return mWritableColumns.clone();
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import android.database.Cursor;
+
+/**
+ * {@link TypeAdapter} which can read the column into the existing value of
+ * the field instead of allocating a new object, e.g. into an array of the
+ * same length.
+ */
+interface ReusingTypeAdapter<T> extends IndexedTypeAdapter<T> {
+
+  /**
+   * @param reusableValue the current value of the field. May be null.
+   * @return the converted Java object, which is either the reusableValue
+   * filled with the data from the cursor or a new object. May be null.
+   */
+  T fromCursor(Cursor c, int columnIndex, T reusableValue);
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import android.database.CharArrayBuffer;
+
+/**
+ * Bounded table of canonical Strings. Every value is stored in a single slot
+ * selected by its hash code, and replaces the previous value stored there,
+ * so the table never grows and the lookup is a single comparison.
+ *
+ * The table can be used from multiple threads without locking: the slots
+ * hold references to immutable Strings, so the worst outcome of a race is
+ * a lost entry and a duplicated String instance.
+ */
+final class StringInterner {
+  private final String[] mTable;
+  private final int mMask;
+
+  StringInterner(int capacity) {
+    int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+    mTable = new String[size];
+    mMask = size - 1;
+  }
+
+  /**
+   * @return the canonical String with the same contents as the buffer or
+   * null if it's not in the table
+   */
+  String find(CharArrayBuffer buffer) {
+    String candidate = mTable[slot(CursorStrings.hashCode(buffer))];
+    return candidate != null && CursorStrings.contentEquals(candidate, buffer) ? candidate : null;
+  }
+
+  /**
+   * @return the canonical String equal to the given value or null if it's
+   * not in the table
+   */
+  String find(String value) {
+    String candidate = mTable[slot(value.hashCode())];
+    return value.equals(candidate) ? candidate : null;
+  }
+
+  /**
+   * Makes the given value canonical, possibly evicting the other value.
+   */
+  void add(String value) {
+    mTable[slot(value.hashCode())] = value;
+  }
+
+  private int slot(int hash) {
+    return (hash ^ (hash >>> 16)) & mMask;
+  }
+}
@@ -17,93 +17,665 @@
 package org.chalup.microorm;
 
 import android.content.ContentValues;
+import android.database.CharArrayBuffer;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteProgram;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 final class TypeAdapters {
   private TypeAdapters() {
   }
 
-  public static class StringAdapter implements TypeAdapter<String> {
+  @SuppressWarnings("unchecked")
+  static <T> ValueBinder<T> getValueBinder(TypeAdapter<T> typeAdapter) {
+    if (typeAdapter instanceof ValueBinder) {
+      return (ValueBinder<T>) typeAdapter;
+    }
+    if (typeAdapter instanceof OptionalTypeAdapter) {
+      // all built-in binders handle nulls
+      return getValueBinder(((OptionalTypeAdapter<T>) typeAdapter).getWrappedAdapter());
+    }
+    return null;
+  }
+
+  static <T> void bindWithContentValues(TypeAdapter<T> typeAdapter, SQLiteProgram program, int index, String columnName, T value) {
+    ContentValues values = new ContentValues(1);
+    typeAdapter.toContentValues(values, columnName, value);
+    DatabaseUtils.bindObjectToProgram(program, index, values.get(columnName));
+  }
+
+  /**
+   * Stores the value, which equals the previously stored one only if the
+   * column value would be the same. The immutable values of the built-in
+   * types are stored as they are; the other values are converted to the
+   * column values. Nothing is stored if the adapter skips the column.
+   */
+  static <T> void putToSnapshot(TypeAdapter<T> typeAdapter, String columnName, T value, Object[] outValues, int index) {
+    if (isImmutableValue(value) && getValueBinder(typeAdapter) != null) {
+      outValues[index] = value;
+      return;
+    }
+    ContentValues values = new ContentValues(1);
+    typeAdapter.toContentValues(values, columnName, value);
+    if (values.containsKey(columnName)) {
+      outValues[index] = values.get(columnName);
+    }
+  }
+
+  private static boolean isImmutableValue(Object value) {
+    return value == null
+        || value instanceof String
+        || value instanceof Number
+        || value instanceof Boolean
+        || value instanceof Enum;
+  }
+
+  public static class StringAdapter implements IndexedTypeAdapter<String>, ValueBinder<String> {
     @Override
     public String fromCursor(Cursor c, String columnName) {
-      return c.getString(c.getColumnIndexOrThrow(columnName));
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public String fromCursor(Cursor c, int columnIndex) {
+      return c.getString(columnIndex);
     }
 
     @Override
     public void toContentValues(ContentValues values, String columnName, String object) {
       values.put(columnName, object);
     }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, String value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindString(index, value);
+      }
+    }
   }
 
-  public static class ShortAdapter implements TypeAdapter<Short> {
+  public static class ShortAdapter implements IndexedTypeAdapter<Short>, ValueBinder<Short>, PrimitiveTypeAdapter {
     @Override
     public Short fromCursor(Cursor c, String columnName) {
-      return c.getShort(c.getColumnIndexOrThrow(columnName));
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public Short fromCursor(Cursor c, int columnIndex) {
+      return c.getShort(columnIndex);
     }
 
     @Override
     public void toContentValues(ContentValues values, String columnName, Short object) {
       values.put(columnName, object);
     }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, Short value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindLong(index, value);
+      }
+    }
+
+    @Override
+    public void setField(Field field, Object target, Cursor c, int columnIndex) throws IllegalAccessException {
+      field.setShort(target, c.getShort(columnIndex));
+    }
+
+    @Override
+    public void putField(Field field, Object source, ContentValues values, String columnName) throws IllegalAccessException {
+      values.put(columnName, field.getShort(source));
+    }
+
+    @Override
+    public void bindField(Field field, Object source, SQLiteProgram program, int index) throws IllegalAccessException {
+      program.bindLong(index, field.getShort(source));
+    }
   }
 
-  public static class IntegerAdapter implements TypeAdapter<Integer> {
+  public static class IntegerAdapter implements IndexedTypeAdapter<Integer>, ValueBinder<Integer>, PrimitiveTypeAdapter {
     @Override
     public Integer fromCursor(Cursor c, String columnName) {
-      return c.getInt(c.getColumnIndexOrThrow(columnName));
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public Integer fromCursor(Cursor c, int columnIndex) {
+      return c.getInt(columnIndex);
     }
 
     @Override
     public void toContentValues(ContentValues values, String columnName, Integer object) {
       values.put(columnName, object);
     }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, Integer value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindLong(index, value);
+      }
+    }
+
+    @Override
+    public void setField(Field field, Object target, Cursor c, int columnIndex) throws IllegalAccessException {
+      field.setInt(target, c.getInt(columnIndex));
+    }
+
+    @Override
+    public void putField(Field field, Object source, ContentValues values, String columnName) throws IllegalAccessException {
+      values.put(columnName, field.getInt(source));
+    }
+
+    @Override
+    public void bindField(Field field, Object source, SQLiteProgram program, int index) throws IllegalAccessException {
+      program.bindLong(index, field.getInt(source));
+    }
   }
 
-  public static class LongAdapter implements TypeAdapter<Long> {
+  public static class LongAdapter implements IndexedTypeAdapter<Long>, ValueBinder<Long>, PrimitiveTypeAdapter {
     @Override
     public Long fromCursor(Cursor c, String columnName) {
-      return c.getLong(c.getColumnIndexOrThrow(columnName));
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public Long fromCursor(Cursor c, int columnIndex) {
+      return c.getLong(columnIndex);
     }
 
     @Override
     public void toContentValues(ContentValues values, String columnName, Long object) {
       values.put(columnName, object);
     }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, Long value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindLong(index, value);
+      }
+    }
+
+    @Override
+    public void setField(Field field, Object target, Cursor c, int columnIndex) throws IllegalAccessException {
+      field.setLong(target, c.getLong(columnIndex));
+    }
+
+    @Override
+    public void putField(Field field, Object source, ContentValues values, String columnName) throws IllegalAccessException {
+      values.put(columnName, field.getLong(source));
+    }
+
+    @Override
+    public void bindField(Field field, Object source, SQLiteProgram program, int index) throws IllegalAccessException {
+      program.bindLong(index, field.getLong(source));
+    }
   }
 
-  public static class FloatAdapter implements TypeAdapter<Float> {
+  public static class FloatAdapter implements IndexedTypeAdapter<Float>, ValueBinder<Float>, PrimitiveTypeAdapter {
     @Override
     public Float fromCursor(Cursor c, String columnName) {
-      return c.getFloat(c.getColumnIndexOrThrow(columnName));
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public Float fromCursor(Cursor c, int columnIndex) {
+      return c.getFloat(columnIndex);
     }
 
     @Override
     public void toContentValues(ContentValues values, String columnName, Float object) {
       values.put(columnName, object);
     }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, Float value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindDouble(index, value);
+      }
+    }
+
+    @Override
+    public void setField(Field field, Object target, Cursor c, int columnIndex) throws IllegalAccessException {
+      field.setFloat(target, c.getFloat(columnIndex));
+    }
+
+    @Override
+    public void putField(Field field, Object source, ContentValues values, String columnName) throws IllegalAccessException {
+      values.put(columnName, field.getFloat(source));
+    }
+
+    @Override
+    public void bindField(Field field, Object source, SQLiteProgram program, int index) throws IllegalAccessException {
+      program.bindDouble(index, field.getFloat(source));
+    }
   }
 
-  public static class DoubleAdapter implements TypeAdapter<Double> {
+  public static class DoubleAdapter implements IndexedTypeAdapter<Double>, ValueBinder<Double>, PrimitiveTypeAdapter {
     @Override
     public Double fromCursor(Cursor c, String columnName) {
-      return c.getDouble(c.getColumnIndexOrThrow(columnName));
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public Double fromCursor(Cursor c, int columnIndex) {
+      return c.getDouble(columnIndex);
     }
 
     @Override
     public void toContentValues(ContentValues values, String columnName, Double object) {
       values.put(columnName, object);
     }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, Double value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindDouble(index, value);
+      }
+    }
+
+    @Override
+    public void setField(Field field, Object target, Cursor c, int columnIndex) throws IllegalAccessException {
+      field.setDouble(target, c.getDouble(columnIndex));
+    }
+
+    @Override
+    public void putField(Field field, Object source, ContentValues values, String columnName) throws IllegalAccessException {
+      values.put(columnName, field.getDouble(source));
+    }
+
+    @Override
+    public void bindField(Field field, Object source, SQLiteProgram program, int index) throws IllegalAccessException {
+      program.bindDouble(index, field.getDouble(source));
+    }
   }
 
-  public static class BooleanAdapter implements TypeAdapter<Boolean> {
+  public static class BooleanAdapter implements IndexedTypeAdapter<Boolean>, ValueBinder<Boolean>, PrimitiveTypeAdapter {
     @Override
     public Boolean fromCursor(Cursor c, String columnName) {
-      return c.getInt(c.getColumnIndexOrThrow(columnName)) == 1;
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public Boolean fromCursor(Cursor c, int columnIndex) {
+      return c.getInt(columnIndex) == 1;
     }
 
     @Override
     public void toContentValues(ContentValues values, String columnName, Boolean object) {
       values.put(columnName, object);
     }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, Boolean value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindLong(index, value ? 1 : 0);
+      }
+    }
+
+    @Override
+    public void setField(Field field, Object target, Cursor c, int columnIndex) throws IllegalAccessException {
+      field.setBoolean(target, c.getInt(columnIndex) == 1);
+    }
+
+    @Override
+    public void putField(Field field, Object source, ContentValues values, String columnName) throws IllegalAccessException {
+      values.put(columnName, field.getBoolean(source));
+    }
+
+    @Override
+    public void bindField(Field field, Object source, SQLiteProgram program, int index) throws IllegalAccessException {
+      program.bindLong(index, field.getBoolean(source) ? 1 : 0);
+    }
+  }
+
+  /**
+   * Copies the String columns into the reused {@link CharArrayBuffer}, so the
+   * objects refilled with {@link MicroOrm#fromCursor(Cursor, Object)} don't
+   * allocate the new String for every row. NULL is read as null, so it's
+   * written back as NULL; the next non-null value allocates a new buffer.
+   */
+  public static class CharArrayBufferAdapter implements ReusingTypeAdapter<CharArrayBuffer>, ValueBinder<CharArrayBuffer> {
+    private static final int INITIAL_CAPACITY = 32;
+
+    @Override
+    public CharArrayBuffer fromCursor(Cursor c, String columnName) {
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public CharArrayBuffer fromCursor(Cursor c, int columnIndex) {
+      return fromCursor(c, columnIndex, null);
+    }
+
+    @Override
+    public CharArrayBuffer fromCursor(Cursor c, int columnIndex, CharArrayBuffer reusableValue) {
+      if (c.isNull(columnIndex)) {
+        return null;
+      }
+      CharArrayBuffer buffer = reusableValue != null
+          ? reusableValue
+          : new CharArrayBuffer(INITIAL_CAPACITY);
+      // grows the buffer data if necessary
+      c.copyStringToBuffer(columnIndex, buffer);
+      return buffer;
+    }
+
+    @Override
+    public void toContentValues(ContentValues values, String columnName, CharArrayBuffer object) {
+      values.put(columnName, object != null ? toString(object) : null);
+    }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, CharArrayBuffer value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindString(index, toString(value));
+      }
+    }
+
+    private static String toString(CharArrayBuffer buffer) {
+      return new String(buffer.data, 0, buffer.sizeCopied);
+    }
+  }
+
+  /**
+   * Same as {@link CharArrayBufferAdapter}, but for the {@link StringBuilder}
+   * fields. The String is not allocated only for the cursors backed by
+   * {@link android.database.CursorWindow}.
+   */
+  public static class StringBuilderAdapter implements ReusingTypeAdapter<StringBuilder>, ValueBinder<StringBuilder> {
+    @Override
+    public StringBuilder fromCursor(Cursor c, String columnName) {
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public StringBuilder fromCursor(Cursor c, int columnIndex) {
+      return fromCursor(c, columnIndex, null);
+    }
+
+    @Override
+    public StringBuilder fromCursor(Cursor c, int columnIndex, StringBuilder reusableValue) {
+      if (c.isNull(columnIndex)) {
+        return null;
+      }
+      StringBuilder builder = reusableValue != null
+          ? reusableValue
+          : new StringBuilder();
+      builder.setLength(0);
+
+      CharArrayBuffer buffer = CursorStrings.copyToBuffer(c, columnIndex);
+      if (buffer != null) {
+        builder.append(buffer.data, 0, buffer.sizeCopied);
+      } else {
+        builder.append(c.getString(columnIndex));
+      }
+      return builder;
+    }
+
+    @Override
+    public void toContentValues(ContentValues values, String columnName, StringBuilder object) {
+      values.put(columnName, object != null ? object.toString() : null);
+    }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, StringBuilder value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindString(index, value.toString());
+      }
+    }
+  }
+
+  public static class BlobAdapter implements IndexedTypeAdapter<byte[]>, ValueBinder<byte[]> {
+    @Override
+    public byte[] fromCursor(Cursor c, String columnName) {
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public byte[] fromCursor(Cursor c, int columnIndex) {
+      return c.getBlob(columnIndex);
+    }
+
+    @Override
+    public void toContentValues(ContentValues values, String columnName, byte[] object) {
+      values.put(columnName, object);
+    }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, byte[] value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindBlob(index, value);
+      }
+    }
+  }
+
+  public static class ByteBufferAdapter implements IndexedTypeAdapter<ByteBuffer>, ValueBinder<ByteBuffer> {
+    @Override
+    public ByteBuffer fromCursor(Cursor c, String columnName) {
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public ByteBuffer fromCursor(Cursor c, int columnIndex) {
+      byte[] blob = c.getBlob(columnIndex);
+      return blob != null ? ByteBuffer.wrap(blob) : null;
+    }
+
+    @Override
+    public void toContentValues(ContentValues values, String columnName, ByteBuffer object) {
+      values.put(columnName, object != null ? toByteArray(object) : null);
+    }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, ByteBuffer value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindBlob(index, toByteArray(value));
+      }
+    }
+
+    // Copies the remaining bytes without changing the buffer position.
+    private static byte[] toByteArray(ByteBuffer buffer) {
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.duplicate().get(bytes);
+      return bytes;
+    }
+  }
+
+  /**
+   * Base class for the adapters of primitive arrays stored as blobs with
+   * the little-endian elements. The arrays are converted in bulk through
+   * the {@link ByteBuffer} views, without boxing the elements.
+   */
+  abstract static class PackedArrayAdapter<T> implements ReusingTypeAdapter<T>, ValueBinder<T> {
+    private final int mElementSize;
+
+    PackedArrayAdapter(int elementSize) {
+      mElementSize = elementSize;
+    }
+
+    @Override
+    public T fromCursor(Cursor c, String columnName) {
+      return fromCursor(c, c.getColumnIndexOrThrow(columnName));
+    }
+
+    @Override
+    public T fromCursor(Cursor c, int columnIndex) {
+      return fromCursor(c, columnIndex, null);
+    }
+
+    @Override
+    public T fromCursor(Cursor c, int columnIndex, T reusableValue) {
+      byte[] blob = c.getBlob(columnIndex);
+      if (blob == null) {
+        return null;
+      }
+      if (blob.length % mElementSize != 0) {
+        throw new IllegalArgumentException("Blob of " + blob.length + " bytes cannot be converted to the array of " + mElementSize + "-byte elements");
+      }
+      int length = blob.length / mElementSize;
+      T array = reusableValue != null && length(reusableValue) == length
+          ? reusableValue
+          : newArray(length);
+      decode(ByteBuffer.wrap(blob).order(ByteOrder.LITTLE_ENDIAN), array);
+      return array;
+    }
+
+    @Override
+    public void toContentValues(ContentValues values, String columnName, T object) {
+      values.put(columnName, object != null ? encode(object) : null);
+    }
+
+    @Override
+    public void bindValue(SQLiteProgram program, int index, T value) {
+      if (value == null) {
+        program.bindNull(index);
+      } else {
+        program.bindBlob(index, encode(value));
+      }
+    }
+
+    private byte[] encode(T array) {
+      ByteBuffer buffer = ByteBuffer.allocate(length(array) * mElementSize).order(ByteOrder.LITTLE_ENDIAN);
+      encode(array, buffer);
+      return buffer.array();
+    }
+
+    abstract int length(T array);
+
+    abstract T newArray(int length);
+
+    abstract void decode(ByteBuffer source, T target);
+
+    abstract void encode(T source, ByteBuffer target);
+  }
+
+  public static class IntArrayAdapter extends PackedArrayAdapter<int[]> {
+    public IntArrayAdapter() {
+      super(4);
+    }
+
+    @Override
+    int length(int[] array) {
+      return array.length;
+    }
+
+    @Override
+    int[] newArray(int length) {
+      return new int[length];
+    }
+
+    @Override
+    void decode(ByteBuffer source, int[] target) {
+      source.asIntBuffer().get(target);
+    }
+
+    @Override
+    void encode(int[] source, ByteBuffer target) {
+      target.asIntBuffer().put(source);
+    }
+  }
+
+  public static class LongArrayAdapter extends PackedArrayAdapter<long[]> {
+    public LongArrayAdapter() {
+      super(8);
+    }
+
+    @Override
+    int length(long[] array) {
+      return array.length;
+    }
+
+    @Override
+    long[] newArray(int length) {
+      return new long[length];
+    }
+
+    @Override
+    void decode(ByteBuffer source, long[] target) {
+      source.asLongBuffer().get(target);
+    }
+
+    @Override
+    void encode(long[] source, ByteBuffer target) {
+      target.asLongBuffer().put(source);
+    }
+  }
+
+  public static class FloatArrayAdapter extends PackedArrayAdapter<float[]> {
+    public FloatArrayAdapter() {
+      super(4);
+    }
+
+    @Override
+    int length(float[] array) {
+      return array.length;
+    }
+
+    @Override
+    float[] newArray(int length) {
+      return new float[length];
+    }
+
+    @Override
+    void decode(ByteBuffer source, float[] target) {
+      source.asFloatBuffer().get(target);
+    }
+
+    @Override
+    void encode(float[] source, ByteBuffer target) {
+      target.asFloatBuffer().put(source);
+    }
+  }
+
+  public static class DoubleArrayAdapter extends PackedArrayAdapter<double[]> {
+    public DoubleArrayAdapter() {
+      super(8);
+    }
+
+    @Override
+    int length(double[] array) {
+      return array.length;
+    }
+
+    @Override
+    double[] newArray(int length) {
+      return new double[length];
+    }
+
+    @Override
+    void decode(ByteBuffer source, double[] target) {
+      source.asDoubleBuffer().get(target);
+    }
+
+    @Override
+    void encode(double[] source, ByteBuffer target) {
+      target.asDoubleBuffer().put(source);
+    }
   }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm;
+
+import android.annotation.TargetApi;
+import android.database.AbstractCursor;
+import android.database.AbstractWindowedCursor;
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+import android.database.CursorWindow;
+import android.os.Build;
+
+/**
+ * Reads the rows of {@link AbstractWindowedCursor}, e.g. SQLiteCursor,
+ * straight from its {@link CursorWindow}. The getters of the wrapped
+ * {@link Cursor} check the position and the window on every call, and moving
+ * to the next row checks whether the window has to be refilled. This cursor
+ * skips all that for the rows in the current window, and moves the wrapped
+ * {@link Cursor} only to fill the next window.
+ *
+ * <p>
+ * The getters don't check the position, so this cursor is meant only for
+ * iterating over all rows during the mapping. The position of the wrapped
+ * {@link Cursor} is undefined until {@link #syncPosition()} is called.
+ * </p>
+ */
+final class WindowCursor extends AbstractCursor {
+  private final AbstractWindowedCursor mCursor;
+  private CursorWindow mWindow;
+  private int mWindowStart;
+  private int mWindowEnd;
+
+  private WindowCursor(AbstractWindowedCursor cursor) {
+    mCursor = cursor;
+  }
+
+  /**
+   * @return the {@link WindowCursor} reading the rows of the given
+   * {@link Cursor} or the given {@link Cursor} itself, if it's not backed by
+   * {@link CursorWindow}
+   */
+  static Cursor wrap(Cursor c) {
+    if (c instanceof AbstractWindowedCursor) {
+      return new WindowCursor((AbstractWindowedCursor) c);
+    }
+    return c;
+  }
+
+  /**
+   * Moves the wrapped {@link Cursor} to the current position of the given
+   * {@link Cursor} returned from {@link #wrap(Cursor)}.
+   */
+  static void syncPosition(Cursor c) {
+    if (c instanceof WindowCursor) {
+      WindowCursor windowCursor = (WindowCursor) c;
+      windowCursor.mCursor.moveToPosition(windowCursor.getPosition());
+    }
+  }
+
+  @Override
+  public boolean onMove(int oldPosition, int newPosition) {
+    if (mWindow != null && newPosition >= mWindowStart && newPosition < mWindowEnd) {
+      return true;
+    }
+
+    mWindow = null;
+    // the wrapped Cursor fills its window with the rows around the new position
+    if (!mCursor.moveToPosition(newPosition)) {
+      return false;
+    }
+    CursorWindow window = mCursor.getWindow();
+    if (window == null) {
+      return false;
+    }
+    int windowStart = window.getStartPosition();
+    int windowEnd = windowStart + window.getNumRows();
+    if (newPosition < windowStart || newPosition >= windowEnd) {
+      return false;
+    }
+    mWindow = window;
+    mWindowStart = windowStart;
+    mWindowEnd = windowEnd;
+    return true;
+  }
+
+  @Override
+  public int getCount() {
+    return mCursor.getCount();
+  }
+
+  @Override
+  public String[] getColumnNames() {
+    return mCursor.getColumnNames();
+  }
+
+  @Override
+  public int getColumnIndex(String columnName) {
+    return mCursor.getColumnIndex(columnName);
+  }
+
+  @Override
+  public int getColumnIndexOrThrow(String columnName) {
+    return mCursor.getColumnIndexOrThrow(columnName);
+  }
+
+  @Override
+  public CursorWindow getWindow() {
+    return mWindow;
+  }
+
+  @Override
+  public String getString(int column) {
+    return mWindow.getString(mPos, column);
+  }
+
+  @Override
+  public void copyStringToBuffer(int column, CharArrayBuffer buffer) {
+    mWindow.copyStringToBuffer(mPos, column, buffer);
+  }
+
+  @Override
+  public byte[] getBlob(int column) {
+    return mWindow.getBlob(mPos, column);
+  }
+
+  @Override
+  public short getShort(int column) {
+    return mWindow.getShort(mPos, column);
+  }
+
+  @Override
+  public int getInt(int column) {
+    return mWindow.getInt(mPos, column);
+  }
+
+  @Override
+  public long getLong(int column) {
+    return mWindow.getLong(mPos, column);
+  }
+
+  @Override
+  public float getFloat(int column) {
+    return mWindow.getFloat(mPos, column);
+  }
+
+  @Override
+  public double getDouble(int column) {
+    return mWindow.getDouble(mPos, column);
+  }
+
+  @SuppressWarnings("deprecation")
+  @Override
+  public boolean isNull(int column) {
+    // CursorWindow.getType() is not available before Honeycomb
+    return mWindow.isNull(mPos, column);
+  }
+
+  @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+  @Override
+  public int getType(int column) {
+    return mWindow.getType(mPos, column);
+  }
+}
@@ -43,4 +43,37 @@ public @interface Column {
   String value();
   boolean treatNullAsDefault() default false;
   boolean readonly() default false;
+
+  /**
+   * @return whether the values of String field should be deduplicated, see
+   * {@link Intern}. Ignored if the {@link org.chalup.microorm.TypeAdapter}
+   * for String was replaced.
+   */
+  Intern intern() default Intern.NONE;
+
+  /**
+   * @return how the enum field is stored in the database, see
+   * {@link EnumStorage}. Ignored if the custom
+   * {@link org.chalup.microorm.TypeAdapter} was registered for the enum.
+   */
+  EnumStorage enumStorage() default EnumStorage.NAME;
+
+  /**
+   * @return whether the column should be left out of the projection and
+   * loaded on demand with {@link org.chalup.microorm.LazyLoader}, e.g. for
+   * the large TEXT or BLOB columns. The field is set to null whenever the
+   * object is filled with a row. The null field which wasn't loaded is
+   * skipped in the ContentValues and statements, so the stored value is not
+   * overwritten; the column can be set to NULL only after it's loaded.
+   * Cannot be set on primitive members.
+   */
+  boolean lazy() default false;
+
+  /**
+   * @return the names of the field groups this column belongs to. The group
+   * name can be passed to {@link MicroOrm#getProjection(Class, String)} and
+   * other methods of {@link MicroOrm} to query and convert only the columns
+   * of this group, e.g. only the columns displayed on the list screen.
+   */
+  String[] groups() default {};
 }
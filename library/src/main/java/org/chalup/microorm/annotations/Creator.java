@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the constructor or the static factory method, which MicroOrm should
+ * use to create the objects from {@link android.database.Cursor} rows. All
+ * column values are read first and passed to the creator in a single call,
+ * so the fields don't have to be written with reflection. This is the
+ * preferred way of mapping the immutable classes with final fields, like
+ * Kotlin data classes.
+ *
+ * <p>
+ * The creator must take one parameter for every field annotated with
+ * {@link Column} or {@link Embedded}, of exactly the same type as the field.
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.CONSTRUCTOR, ElementType.METHOD })
+public @interface Creator {
+
+  /**
+   * @return the names of the annotated fields in the order of the creator
+   * parameters. Required if the creator takes more than one parameter,
+   * because the order of the fields returned by reflection is not specified
+   * and differs between the desktop JVM and Android runtime.
+   */
+  String[] value() default {};
+}
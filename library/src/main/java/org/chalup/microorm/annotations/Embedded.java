@@ -13,4 +13,11 @@ import java.lang.annotation.Target;
 @Target(ElementType.FIELD)
 public @interface Embedded {
 
+  /**
+   * @return true if the field should be left null instead of holding an
+   * object with all fields set to null, when all columns of the embedded
+   * object are NULL, e.g. for the rows without a match in a LEFT JOIN.
+   * The field is not initialized when a new object is created either.
+   */
+  boolean nullIfAllNull() default false;
 }
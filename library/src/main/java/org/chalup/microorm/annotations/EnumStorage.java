@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm.annotations;
+
+/**
+ * Defines how the enum {@link Column} is stored in the database.
+ */
+public enum EnumStorage {
+  /**
+   * The column contains the {@link Enum#name()} of the constant.
+   */
+  NAME,
+
+  /**
+   * The column contains the {@link Enum#ordinal()} of the constant. Note
+   * that the stored values change if the constants are reordered.
+   */
+  ORDINAL,
+
+  /**
+   * The column contains the value of {@link EnumCode} annotation, which has
+   * to be present on every constant of the enum.
+   */
+  CODE
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm.annotations;
+
+/**
+ * Defines if the values read from a String {@link Column} should be
+ * deduplicated, i.e. if the same String instance should be returned for all
+ * rows with the same value in this column. Useful for columns with a few
+ * distinct values, like statuses, currencies or MIME types, when lots of
+ * converted objects are kept in memory.
+ */
+public enum Intern {
+  /**
+   * Every value is a new String instance.
+   */
+  NONE,
+
+  /**
+   * The values are looked up in the bounded table of canonical Strings
+   * shared by all adapters created by the same {@link org.chalup.microorm.MicroOrm}.
+   */
+  ALWAYS,
+
+  /**
+   * Like {@link #ALWAYS}, but the lookups are turned off for good if most of
+   * the sampled values read from the column were not found in the table,
+   * i.e. when the column has too many distinct values.
+   */
+  ADAPTIVE
+}
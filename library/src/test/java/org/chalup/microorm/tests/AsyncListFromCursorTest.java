@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.chalup.microorm.BatchCallback;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.database.MatrixCursor;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class AsyncListFromCursorTest {
+
+  private MicroOrm testSubject;
+  private ExecutorService executor;
+  private MatrixCursor cursor;
+  private DeferredExecutor deferredExecutor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+    executor = Executors.newSingleThreadExecutor();
+    deferredExecutor = new DeferredExecutor();
+
+    cursor = new MatrixCursor(new String[] { "id" });
+    for (int i = 0; i < 10; i++) {
+      cursor.addRow(new Object[] { i });
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldConvertCursorInBackground() throws Exception {
+    List<SimpleEntity> result = testSubject.listFromCursorAsync(cursor, SimpleEntity.class, executor).get(5, TimeUnit.SECONDS);
+
+    assertThat(result).hasSize(10);
+    for (int i = 0; i < result.size(); i++) {
+      assertThat(result.get(i).id).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void shouldReturnEmptyListForNullCursor() throws Exception {
+    List<SimpleEntity> result = testSubject.listFromCursorAsync(null, SimpleEntity.class, executor).get(5, TimeUnit.SECONDS);
+
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  public void shouldConvertEmptyCursor() throws Exception {
+    MatrixCursor emptyCursor = new MatrixCursor(new String[] { "id" });
+
+    assertThat(testSubject.listFromCursorAsync(emptyCursor, SimpleEntity.class, executor).get(5, TimeUnit.SECONDS)).isEmpty();
+  }
+
+  @Test
+  public void shouldDeliverPartialResultsInBatches() throws Exception {
+    RecordingCallback callback = new RecordingCallback();
+
+    List<SimpleEntity> result = testSubject.listFromCursorAsync(cursor, SimpleEntity.class, executor, 4, callback).get(5, TimeUnit.SECONDS);
+
+    assertThat(callback.batchSizes).containsExactly(4, 4, 2).inOrder();
+    assertThat(callback.objects).isEqualTo(result);
+  }
+
+  @Test
+  public void shouldNotConvertAnythingWhenCancelledBeforeStart() throws Exception {
+    RecordingCallback callback = new RecordingCallback();
+    ListenableFuture<List<SimpleEntity>> future = testSubject.listFromCursorAsync(cursor, SimpleEntity.class, deferredExecutor, 1, callback);
+
+    future.cancel(false);
+    deferredExecutor.runAll();
+
+    assertThat(future.isCancelled()).isTrue();
+    assertThat(callback.batchSizes).isEmpty();
+  }
+
+  @Test
+  public void shouldStopConvertingWhenCancelled() throws Exception {
+    final List<ListenableFuture<List<SimpleEntity>>> futures = Lists.newArrayList();
+    final List<Integer> batchSizes = Lists.newArrayList();
+    futures.add(testSubject.listFromCursorAsync(cursor, SimpleEntity.class, deferredExecutor, 3, new BatchCallback<SimpleEntity>() {
+      @Override
+      public void onBatch(List<SimpleEntity> batch) {
+        batchSizes.add(batch.size());
+        futures.get(0).cancel(true);
+      }
+    }));
+
+    deferredExecutor.runAll();
+
+    assertThat(batchSizes).containsExactly(3);
+    assertThat(cursor.getPosition()).isEqualTo(3);
+    assertThat(futures.get(0).isCancelled()).isTrue();
+  }
+
+  @Test(expected = CancellationException.class)
+  public void shouldThrowCancellationExceptionFromCancelledFuture() throws Exception {
+    ListenableFuture<List<SimpleEntity>> future = testSubject.listFromCursorAsync(cursor, SimpleEntity.class, deferredExecutor);
+    future.cancel(false);
+    deferredExecutor.runAll();
+
+    future.get();
+  }
+
+  @Test
+  public void shouldFailFutureWhenConversionThrows() throws Exception {
+    ListenableFuture<List<EntityWithMissingColumn>> future = testSubject.listFromCursorAsync(cursor, EntityWithMissingColumn.class, executor);
+
+    try {
+      future.get(5, TimeUnit.SECONDS);
+      throw new AssertionError("Expected the ExecutionException");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAcceptNonPositiveBatchSize() throws Exception {
+    testSubject.listFromCursorAsync(cursor, SimpleEntity.class, executor, 0, null);
+  }
+
+  public static class SimpleEntity {
+    @Column("id")
+    int id;
+  }
+
+  public static class EntityWithMissingColumn {
+    @Column("missing")
+    int missing;
+  }
+
+  private static class RecordingCallback implements BatchCallback<SimpleEntity> {
+    final List<Integer> batchSizes = Lists.newArrayList();
+    final List<SimpleEntity> objects = Lists.newArrayList();
+
+    @Override
+    public void onBatch(List<SimpleEntity> batch) {
+      batchSizes.add(batch.size());
+      objects.addAll(batch);
+    }
+  }
+
+  private static class DeferredExecutor implements Executor {
+    private final List<Runnable> commands = Lists.newArrayList();
+
+    @Override
+    public void execute(Runnable command) {
+      commands.add(command);
+    }
+
+    void runAll() {
+      for (Runnable command : commands) {
+        command.run();
+      }
+      commands.clear();
+    }
+  }
+}
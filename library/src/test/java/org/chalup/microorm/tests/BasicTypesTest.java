@@ -484,6 +484,69 @@ public class BasicTypesTest {
     assertThat(o.id).isEqualTo(1500);
   }
 
+  public static class PrivatePrimitivesDao {
+    static final String SHORT_COLUMN = "SHORT_COLUMN";
+    static final String INTEGER_COLUMN = "INTEGER_COLUMN";
+    static final String LONG_COLUMN = "LONG_COLUMN";
+    static final String FLOAT_COLUMN = "FLOAT_COLUMN";
+    static final String DOUBLE_COLUMN = "DOUBLE_COLUMN";
+    static final String BOOLEAN_COLUMN = "BOOLEAN_COLUMN";
+
+    @Column(SHORT_COLUMN)
+    private short mShort;
+
+    @Column(INTEGER_COLUMN)
+    private int mInt;
+
+    @Column(LONG_COLUMN)
+    private long mLong;
+
+    @Column(FLOAT_COLUMN)
+    private float mFloat;
+
+    @Column(DOUBLE_COLUMN)
+    private double mDouble;
+
+    @Column(BOOLEAN_COLUMN)
+    private boolean mBoolean;
+  }
+
+  @Test
+  public void shouldUnpackPrivatePrimitiveFieldsFromCursor() throws Exception {
+    Cursor c = TestCursorBuilder
+        .cursor(PrivatePrimitivesDao.SHORT_COLUMN, PrivatePrimitivesDao.INTEGER_COLUMN, PrivatePrimitivesDao.LONG_COLUMN, PrivatePrimitivesDao.FLOAT_COLUMN, PrivatePrimitivesDao.DOUBLE_COLUMN, PrivatePrimitivesDao.BOOLEAN_COLUMN)
+        .addRow((short) 1, 2, 3L, 4.0f, 5.0, 1);
+
+    PrivatePrimitivesDao dao = testSubject.fromCursor(c, PrivatePrimitivesDao.class);
+    assertThat(dao.mShort).isEqualTo((short) 1);
+    assertThat(dao.mInt).isEqualTo(2);
+    assertThat(dao.mLong).isEqualTo(3L);
+    assertThat(dao.mFloat).isEqualTo(4.0f);
+    assertThat(dao.mDouble).isEqualTo(5.0);
+    assertThat(dao.mBoolean).isTrue();
+  }
+
+  @Test
+  public void shouldPackPrivatePrimitiveFieldsIntoContentValues() throws Exception {
+    PrivatePrimitivesDao dao = new PrivatePrimitivesDao();
+    dao.mShort = 1;
+    dao.mInt = 2;
+    dao.mLong = 3L;
+    dao.mFloat = 4.0f;
+    dao.mDouble = 5.0;
+    dao.mBoolean = true;
+
+    ContentValues values = testSubject.toContentValues(dao);
+    assertThat(values).contains(
+        entry(PrivatePrimitivesDao.SHORT_COLUMN, (short) 1),
+        entry(PrivatePrimitivesDao.INTEGER_COLUMN, 2),
+        entry(PrivatePrimitivesDao.LONG_COLUMN, 3L),
+        entry(PrivatePrimitivesDao.FLOAT_COLUMN, 4.0f),
+        entry(PrivatePrimitivesDao.DOUBLE_COLUMN, 5.0),
+        entry(PrivatePrimitivesDao.BOOLEAN_COLUMN, true)
+    );
+  }
+
   @Test
   public void shouldHandleKotlinDataClass() throws Exception {
     Cursor c = TestCursorBuilder.cursor(BaseColumns._ID).addRow(1500L);
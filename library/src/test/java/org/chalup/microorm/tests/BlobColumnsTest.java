@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class BlobColumnsTest {
+
+  private static final String[] COLUMNS = { "bytes", "buffer", "ints", "longs", "floats", "doubles" };
+
+  private static final byte[] TEST_BYTES = { 1, 2, 3 };
+  private static final int[] TEST_INTS = { 1, -2, Integer.MAX_VALUE };
+  private static final long[] TEST_LONGS = { 1L, -2L, Long.MIN_VALUE };
+  private static final float[] TEST_FLOATS = { 1.5f, -2.25f };
+  private static final double[] TEST_DOUBLES = { Math.PI, -Math.E };
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    cursor = new MatrixCursor(COLUMNS);
+    cursor.addRow(new Object[] {
+        TEST_BYTES,
+        TEST_BYTES,
+        littleEndian(4 * TEST_INTS.length).putInt(1).putInt(-2).putInt(Integer.MAX_VALUE).array(),
+        littleEndian(8 * TEST_LONGS.length).putLong(1L).putLong(-2L).putLong(Long.MIN_VALUE).array(),
+        littleEndian(4 * TEST_FLOATS.length).putFloat(1.5f).putFloat(-2.25f).array(),
+        littleEndian(8 * TEST_DOUBLES.length).putDouble(Math.PI).putDouble(-Math.E).array()
+    });
+    cursor.addRow(new Object[] { null, null, null, null, null, null });
+    cursor.moveToFirst();
+  }
+
+  private static ByteBuffer littleEndian(int size) {
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  @Test
+  public void shouldReadBlobColumns() throws Exception {
+    Blobs blobs = testSubject.fromCursor(cursor, Blobs.class);
+
+    assertThat(blobs.bytes).isEqualTo(TEST_BYTES);
+    assertThat(blobs.buffer).isEqualTo(ByteBuffer.wrap(TEST_BYTES));
+    assertThat(blobs.ints).isEqualTo(TEST_INTS);
+    assertThat(blobs.longs).isEqualTo(TEST_LONGS);
+    assertThat(blobs.floats).isEqualTo(TEST_FLOATS, 0.0f);
+    assertThat(blobs.doubles).isEqualTo(TEST_DOUBLES, 0.0);
+  }
+
+  @Test
+  public void shouldReadBlobColumnsWithReflectiveAdapter() throws Exception {
+    PrivateBlobs blobs = testSubject.fromCursor(cursor, PrivateBlobs.class);
+
+    assertThat(blobs.bytes).isEqualTo(TEST_BYTES);
+    assertThat(blobs.buffer).isEqualTo(ByteBuffer.wrap(TEST_BYTES));
+    assertThat(blobs.ints).isEqualTo(TEST_INTS);
+    assertThat(blobs.longs).isEqualTo(TEST_LONGS);
+    assertThat(blobs.floats).isEqualTo(TEST_FLOATS, 0.0f);
+    assertThat(blobs.doubles).isEqualTo(TEST_DOUBLES, 0.0);
+  }
+
+  @Test
+  public void shouldReadNullBlobColumns() throws Exception {
+    cursor.moveToLast();
+
+    Blobs blobs = testSubject.fromCursor(cursor, Blobs.class);
+
+    assertThat(blobs.bytes).isNull();
+    assertThat(blobs.buffer).isNull();
+    assertThat(blobs.ints).isNull();
+    assertThat(blobs.longs).isNull();
+    assertThat(blobs.floats).isNull();
+    assertThat(blobs.doubles).isNull();
+  }
+
+  @Test
+  public void shouldReuseArraysOfTheSameLength() throws Exception {
+    Blobs blobs = new Blobs();
+    long[] longs = new long[TEST_LONGS.length];
+    blobs.longs = longs;
+    blobs.doubles = new double[1];
+
+    testSubject.fromCursor(cursor, blobs);
+
+    assertThat(blobs.longs).isSameAs(longs);
+    assertThat(blobs.longs).isEqualTo(TEST_LONGS);
+    assertThat(blobs.doubles).isEqualTo(TEST_DOUBLES, 0.0);
+  }
+
+  @Test
+  public void shouldReuseArraysOfTheSameLengthWithReflectiveAdapter() throws Exception {
+    PrivateBlobs blobs = new PrivateBlobs();
+    int[] ints = new int[TEST_INTS.length];
+    blobs.ints = ints;
+
+    testSubject.fromCursor(cursor, blobs);
+
+    assertThat(blobs.ints).isSameAs(ints);
+    assertThat(blobs.ints).isEqualTo(TEST_INTS);
+  }
+
+  @Test
+  public void shouldPutLittleEndianBlobsIntoContentValues() throws Exception {
+    Blobs blobs = new Blobs();
+    blobs.ints = TEST_INTS;
+    blobs.buffer = ByteBuffer.wrap(TEST_BYTES);
+
+    ContentValues values = testSubject.toContentValues(blobs);
+
+    assertThat(values.getAsByteArray("ints")).isEqualTo(littleEndian(4 * TEST_INTS.length).putInt(1).putInt(-2).putInt(Integer.MAX_VALUE).array());
+    assertThat(values.getAsByteArray("buffer")).isEqualTo(TEST_BYTES);
+    assertThat(values.containsKey("longs")).isTrue();
+    assertThat(values.get("longs")).isNull();
+  }
+
+  @Test
+  public void shouldConvertBlobColumnsBackAndForth() throws Exception {
+    Blobs blobs = testSubject.fromCursor(cursor, Blobs.class);
+    ContentValues values = testSubject.toContentValues(blobs);
+
+    MatrixCursor copy = new MatrixCursor(COLUMNS);
+    copy.addRow(new Object[] {
+        values.get("bytes"),
+        values.get("buffer"),
+        values.get("ints"),
+        values.get("longs"),
+        values.get("floats"),
+        values.get("doubles")
+    });
+    copy.moveToFirst();
+
+    PrivateBlobs converted = testSubject.fromCursor(copy, PrivateBlobs.class);
+    assertThat(converted.ints).isEqualTo(TEST_INTS);
+    assertThat(converted.longs).isEqualTo(TEST_LONGS);
+    assertThat(converted.floats).isEqualTo(TEST_FLOATS, 0.0f);
+    assertThat(converted.doubles).isEqualTo(TEST_DOUBLES, 0.0);
+  }
+
+  @Test
+  public void shouldBindBlobColumnsToStatement() throws Exception {
+    SQLiteDatabase db = SQLiteDatabase.create(null);
+    db.execSQL("CREATE TABLE blobs (bytes BLOB, buffer BLOB, ints BLOB, longs BLOB, floats BLOB, doubles BLOB)");
+
+    Blobs blobs = testSubject.fromCursor(cursor, Blobs.class);
+    testSubject.insertAll(db, "blobs", Blobs.class, ImmutableList.of(blobs));
+
+    Cursor inserted = db.query("blobs", COLUMNS, null, null, null, null, null);
+    List<Blobs> rows = testSubject.listFromCursor(inserted, Blobs.class);
+    assertThat(rows).hasSize(1);
+    assertThat(rows.get(0).bytes).isEqualTo(TEST_BYTES);
+    assertThat(rows.get(0).longs).isEqualTo(TEST_LONGS);
+    assertThat(rows.get(0).doubles).isEqualTo(TEST_DOUBLES, 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAcceptBlobsOfInvalidLength() throws Exception {
+    MatrixCursor cursor = new MatrixCursor(COLUMNS);
+    cursor.addRow(new Object[] { null, null, null, new byte[7], null, null });
+    cursor.moveToFirst();
+
+    testSubject.fromCursor(cursor, Blobs.class);
+  }
+
+  public static class Blobs {
+    @Column("bytes")
+    public byte[] bytes;
+
+    @Column("buffer")
+    public ByteBuffer buffer;
+
+    @Column("ints")
+    public int[] ints;
+
+    @Column("longs")
+    public long[] longs;
+
+    @Column("floats")
+    public float[] floats;
+
+    @Column("doubles")
+    public double[] doubles;
+  }
+
+  public static class PrivateBlobs {
+    @Column("bytes")
+    private byte[] bytes;
+
+    @Column("buffer")
+    private ByteBuffer buffer;
+
+    @Column("ints")
+    private int[] ints;
+
+    @Column("longs")
+    private long[] longs;
+
+    @Column("floats")
+    private float[] floats;
+
+    @Column("doubles")
+    private double[] doubles;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.google.common.base.Function;
+
+import org.chalup.microorm.BoundMapper;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.OptionalTypeAdapter;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+import org.chalup.microorm.tests.CustomTypeAdapterTest.CustomType;
+import org.chalup.microorm.tests.CustomTypeAdapterTest.CustomTypeAdapter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.database.Cursor;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class BoundMapperTest {
+
+  private static final String ID_COLUMN = "ID_COLUMN";
+  private static final String NAME_COLUMN = "NAME_COLUMN";
+  private static final String CUSTOM_COLUMN = "CUSTOM_COLUMN";
+
+  private MicroOrm testSubject;
+  private Cursor cursorMock;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm.Builder()
+        .registerTypeAdapter(CustomType.class, new OptionalTypeAdapter<>(new CustomTypeAdapter()))
+        .build();
+
+    cursorMock = mock(Cursor.class);
+    when(cursorMock.getColumnIndexOrThrow(ID_COLUMN)).thenReturn(0);
+    when(cursorMock.getColumnIndexOrThrow(NAME_COLUMN)).thenReturn(1);
+    when(cursorMock.getColumnIndexOrThrow(CUSTOM_COLUMN)).thenReturn(2);
+    when(cursorMock.getColumnName(2)).thenReturn(CUSTOM_COLUMN);
+    when(cursorMock.getLong(0)).thenReturn(1L, 2L, 3L);
+    when(cursorMock.getString(1)).thenReturn("name");
+    when(cursorMock.getLong(2)).thenReturn(42L);
+  }
+
+  public static class Entity {
+    @Column(ID_COLUMN)
+    long id;
+
+    @Embedded
+    Name name;
+
+    @Column(CUSTOM_COLUMN)
+    CustomType custom;
+  }
+
+  public static class Name {
+    @Column(NAME_COLUMN)
+    String name;
+  }
+
+  @Test
+  public void shouldResolveColumnIndexesOnlyOnce() throws Exception {
+    BoundMapper<Entity> mapper = testSubject.bind(cursorMock, Entity.class);
+
+    mapper.map();
+    mapper.map();
+    Entity entity = mapper.map();
+
+    assertThat(entity.id).isEqualTo(3L);
+    assertThat(entity.name.name).isEqualTo("name");
+    assertThat(entity.custom.mBackingLong).isEqualTo(42L);
+
+    verify(cursorMock, times(1)).getColumnIndexOrThrow(ID_COLUMN);
+    verify(cursorMock, times(1)).getColumnIndexOrThrow(NAME_COLUMN);
+  }
+
+  @Test
+  public void shouldFillProvidedObject() throws Exception {
+    Entity entity = new Entity();
+
+    assertThat(testSubject.bind(cursorMock, Entity.class).map(entity)).isSameAs(entity);
+    assertThat(entity.id).isEqualTo(1L);
+    assertThat(entity.name.name).isEqualTo("name");
+  }
+
+  @Test
+  public void functionShouldResolveColumnIndexesOncePerCursor() throws Exception {
+    Function<Cursor, Entity> function = testSubject.getFunctionFor(Entity.class);
+
+    function.apply(cursorMock);
+    function.apply(cursorMock);
+
+    verify(cursorMock, times(1)).getColumnIndexOrThrow(ID_COLUMN);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldFailToBindCursorWithMissingColumns() throws Exception {
+    testSubject.bind(TestCursorBuilder.cursor(ID_COLUMN), Entity.class);
+  }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+
+import org.chalup.microorm.BulkInserter;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.TypeAdapter;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class BulkInserterTest {
+
+  private MicroOrm testSubject;
+  private SQLiteDatabase db;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm.Builder()
+        .registerTypeAdapter(Tag.class, new TagAdapter())
+        .build();
+
+    db = SQLiteDatabase.create(null);
+    db.execSQL("CREATE TABLE entities ("
+        + "id INTEGER PRIMARY KEY, "
+        + "name TEXT, "
+        + "price REAL, "
+        + "active INTEGER, "
+        + "quantity INTEGER DEFAULT 42, "
+        + "city TEXT, "
+        + "zip INTEGER, "
+        + "tag TEXT)");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    db.close();
+  }
+
+  @Test
+  public void shouldInsertObjectsWhichCanBeReadBack() throws Exception {
+    List<Entity> entities = ImmutableList.of(
+        entity(1, "first", 1.5, true, 10, "Warsaw", 12345, "a"),
+        entity(2, null, null, false, 20, null, null, null)
+    );
+
+    int inserted = testSubject.insertAll(db, "entities", Entity.class, entities);
+
+    assertThat(inserted).isEqualTo(2);
+    List<Entity> result = readAll(Entity.class);
+    assertThat(result).hasSize(2);
+    assertEntity(result.get(0), 1, "first", 1.5, true, 10, "Warsaw", 12345, "a");
+    assertEntity(result.get(1), 2, null, null, false, 20, null, null, null);
+  }
+
+  @Test
+  public void shouldBindNullsForNullEmbeddedObject() throws Exception {
+    Entity entity = entity(1, "first", 1.5, true, 10, null, null, null);
+    entity.address = null;
+
+    testSubject.insertAll(db, "entities", Entity.class, ImmutableList.of(entity));
+
+    assertEntity(readAll(Entity.class).get(0), 1, "first", 1.5, true, 10, null, null, null);
+  }
+
+  @Test
+  public void shouldUseDefaultValueForNullColumnWithTreatNullAsDefault() throws Exception {
+    Entity entity = entity(1, "first", 1.5, true, null, null, null, null);
+
+    testSubject.insertAll(db, "entities", Entity.class, ImmutableList.of(entity));
+
+    assertThat(readAll(Entity.class).get(0).quantity).isEqualTo(42);
+  }
+
+  @Test
+  public void shouldInsertObjectsUsingReflectiveAdapter() throws Exception {
+    PrivateEntity entity = new PrivateEntity();
+    entity.id = 7;
+    entity.name = "private";
+    entity.active = true;
+
+    testSubject.insertAll(db, "entities", PrivateEntity.class, ImmutableList.of(entity));
+
+    PrivateEntity result = readAll(PrivateEntity.class).get(0);
+    assertThat(result.id).isEqualTo(7);
+    assertThat(result.name).isEqualTo("private");
+    assertThat(result.active).isTrue();
+    assertThat(result.price).isNull();
+  }
+
+  @Test
+  public void shouldReplaceRowsWithConflictReplace() throws Exception {
+    BulkInserter<Entity> inserter = testSubject.newBulkInserter(db, "entities", Entity.class, SQLiteDatabase.CONFLICT_REPLACE);
+    try {
+      inserter.insert(entity(1, "first", 1.5, true, 10, null, null, null));
+      inserter.insert(entity(1, "second", 2.5, false, 20, null, null, null));
+    } finally {
+      inserter.close();
+    }
+
+    List<Entity> result = readAll(Entity.class);
+    assertThat(result).hasSize(1);
+    assertThat(result.get(0).name).isEqualTo("second");
+  }
+
+  @Test
+  public void shouldRollbackAllRowsOnConflict() throws Exception {
+    List<Entity> entities = ImmutableList.of(
+        entity(1, "first", 1.5, true, 10, null, null, null),
+        entity(1, "duplicate", 1.5, true, 10, null, null, null)
+    );
+
+    try {
+      testSubject.insertAll(db, "entities", Entity.class, entities);
+    } catch (Exception ignored) {
+    }
+
+    assertThat(readAll(Entity.class)).isEmpty();
+  }
+
+  // Robolectric reports the constraint violations as the plain SQLiteException
+  // instead of its SQLiteConstraintException subclass
+  @Test(expected = SQLiteException.class)
+  public void shouldThrowOnConflictWithCompiledStatement() throws Exception {
+    BulkInserter<Entity> inserter = testSubject.newBulkInserter(db, "entities", Entity.class, SQLiteDatabase.CONFLICT_ABORT);
+    try {
+      inserter.insert(entity(1, "first", 1.5, true, 10, null, null, null));
+      inserter.insert(entity(1, "duplicate", 1.5, true, 10, null, null, null));
+    } finally {
+      inserter.close();
+    }
+  }
+
+  @Test(expected = SQLiteException.class)
+  public void shouldThrowOnConflictWithDefaultValues() throws Exception {
+    BulkInserter<Entity> inserter = testSubject.newBulkInserter(db, "entities", Entity.class, SQLiteDatabase.CONFLICT_ABORT);
+    try {
+      inserter.insert(entity(1, "first", 1.5, true, null, null, null, null));
+      inserter.insert(entity(1, "duplicate", 1.5, true, null, null, null, null));
+    } finally {
+      inserter.close();
+    }
+  }
+
+  @Test
+  public void shouldIgnoreConflictsWithBothStatements() throws Exception {
+    BulkInserter<Entity> inserter = testSubject.newBulkInserter(db, "entities", Entity.class, SQLiteDatabase.CONFLICT_IGNORE);
+    try {
+      inserter.insert(entity(1, "first", 1.5, true, 10, null, null, null));
+      inserter.insert(entity(1, "compiled", 1.5, true, 10, null, null, null));
+      inserter.insert(entity(1, "default", 1.5, true, null, null, null, null));
+      inserter.insert(entity(2, "default", 1.5, true, null, null, null, null));
+    } finally {
+      inserter.close();
+    }
+
+    List<Entity> result = readAll(Entity.class);
+    assertThat(result).hasSize(2);
+    assertThat(result.get(0).name).isEqualTo("first");
+    assertThat(result.get(1).quantity).isEqualTo(42);
+  }
+
+  private <T> List<T> readAll(Class<T> klass) {
+    Cursor cursor = db.query("entities", testSubject.getProjection(klass), null, null, null, null, "id");
+    try {
+      return testSubject.listFromCursor(cursor, klass);
+    } finally {
+      cursor.close();
+    }
+  }
+
+  private static Entity entity(long id, String name, Double price, boolean active, Integer quantity, String city, Integer zip, String tag) {
+    Entity entity = new Entity();
+    entity.id = id;
+    entity.name = name;
+    entity.price = price;
+    entity.active = active;
+    entity.quantity = quantity;
+    entity.address = new Address();
+    entity.address.city = city;
+    entity.address.zip = zip;
+    entity.tag = tag != null ? new Tag(tag) : null;
+    return entity;
+  }
+
+  private static void assertEntity(Entity entity, long id, String name, Double price, boolean active, Integer quantity, String city, Integer zip, String tag) {
+    assertThat(entity.id).isEqualTo(id);
+    assertThat(entity.name).isEqualTo(name);
+    assertThat(entity.price).isEqualTo(price);
+    assertThat(entity.active).isEqualTo(active);
+    assertThat(entity.quantity).isEqualTo(quantity);
+    assertThat(entity.address.city).isEqualTo(city);
+    assertThat(entity.address.zip).isEqualTo(zip);
+    if (tag == null) {
+      assertThat(entity.tag).isNull();
+    } else {
+      assertThat(entity.tag.mValue).isEqualTo(tag);
+    }
+  }
+
+  public static class Entity {
+    @Column("id")
+    public long id;
+
+    @Column("name")
+    public String name;
+
+    @Column("price")
+    public Double price;
+
+    @Column("active")
+    public boolean active;
+
+    @Column(value = "quantity", treatNullAsDefault = true)
+    public Integer quantity;
+
+    @Embedded
+    public Address address;
+
+    @Column("tag")
+    public Tag tag;
+  }
+
+  public static class Address {
+    @Column("city")
+    public String city;
+
+    @Column("zip")
+    public Integer zip;
+  }
+
+  public static class PrivateEntity {
+    @Column("id")
+    private long id;
+
+    @Column("name")
+    private String name;
+
+    @Column("price")
+    private Double price;
+
+    @Column("active")
+    private boolean active;
+  }
+
+  public static class Tag {
+    final String mValue;
+
+    Tag(String value) {
+      mValue = value;
+    }
+  }
+
+  public static class TagAdapter implements TypeAdapter<Tag> {
+    @Override
+    public Tag fromCursor(Cursor c, String columnName) {
+      int columnIndex = c.getColumnIndexOrThrow(columnName);
+      return c.isNull(columnIndex) ? null : new Tag(c.getString(columnIndex));
+    }
+
+    @Override
+    public void toContentValues(ContentValues values, String columnName, Tag object) {
+      values.put(columnName, object != null ? object.mValue : null);
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.fest.assertions.api.ANDROID.assertThat;
+import static org.fest.assertions.api.android.content.ContentValuesEntry.entry;
+
+import org.chalup.microorm.ChangeTracker;
+import org.chalup.microorm.ColumnMask;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.MatrixCursor;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ChangeTrackerTest {
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    cursor = new MatrixCursor(new String[] { "id", "name", "price", "city", "version" });
+    cursor.addRow(new Object[] { 1L, "name", 2.5, "Warsaw", 3 });
+    cursor.moveToFirst();
+  }
+
+  @Test
+  public void shouldIncludeOnlyChangedColumns() throws Exception {
+    ChangeTracker<Entity> tracker = testSubject.newChangeTracker(Entity.class);
+    Entity entity = tracker.fromCursor(cursor);
+
+    entity.price = 3.5;
+    entity.address.city = "Cracow";
+
+    ContentValues values = tracker.toUpdateContentValues(entity);
+    assertThat(values).hasSize(2);
+    assertThat(values).contains(entry("price", 3.5), entry("city", "Cracow"));
+  }
+
+  @Test
+  public void shouldReturnEmptyValuesForUnchangedObject() throws Exception {
+    ChangeTracker<Entity> tracker = testSubject.newChangeTracker(Entity.class);
+
+    assertThat(tracker.toUpdateContentValues(tracker.fromCursor(cursor))).isEmpty();
+  }
+
+  @Test
+  public void shouldIncludeColumnsChangedToNull() throws Exception {
+    ChangeTracker<Entity> tracker = testSubject.newChangeTracker(Entity.class);
+    Entity entity = tracker.fromCursor(cursor);
+
+    entity.name = null;
+
+    ContentValues values = tracker.toUpdateContentValues(entity);
+    assertThat(values).hasSize(1);
+    assertThat(values.containsKey("name")).isTrue();
+    assertThat(values.get("name")).isNull();
+  }
+
+  @Test
+  public void shouldIncludeColumnsOfNulledEmbeddedObject() throws Exception {
+    ChangeTracker<Entity> tracker = testSubject.newChangeTracker(Entity.class);
+    Entity entity = tracker.fromCursor(cursor);
+
+    entity.address = null;
+
+    assertThat(tracker.toUpdateContentValues(entity)).contains(entry("city", null));
+  }
+
+  @Test
+  public void shouldCompareWithValuesFromLastTrackCall() throws Exception {
+    ChangeTracker<Entity> tracker = testSubject.newChangeTracker(Entity.class);
+    Entity entity = tracker.fromCursor(cursor);
+
+    entity.price = 3.5;
+    tracker.track(entity);
+    entity.name = "other";
+
+    ContentValues values = tracker.toUpdateContentValues(entity);
+    assertThat(values).hasSize(1);
+    assertThat(values).contains(entry("name", "other"));
+  }
+
+  @Test
+  public void shouldIncludeAllColumnsForUntrackedObject() throws Exception {
+    ChangeTracker<Entity> tracker = testSubject.newChangeTracker(Entity.class);
+    Entity entity = testSubject.fromCursor(cursor, Entity.class);
+
+    assertThat(tracker.toUpdateContentValues(entity)).isEqualTo(testSubject.toContentValues(entity));
+  }
+
+  @Test
+  public void shouldTrackObjectsUsingReflectiveAdapter() throws Exception {
+    ChangeTracker<PrivateEntity> tracker = testSubject.newChangeTracker(PrivateEntity.class);
+    PrivateEntity entity = tracker.fromCursor(cursor);
+
+    entity.version = 4;
+
+    ContentValues values = tracker.toUpdateContentValues(entity);
+    assertThat(values).hasSize(1);
+    assertThat(values).contains(entry("version", 4));
+  }
+
+  @Test
+  public void shouldIncludeValuesChangedInPlace() throws Exception {
+    ChangeTracker<BufferEntity> tracker = testSubject.newChangeTracker(BufferEntity.class);
+    BufferEntity entity = tracker.fromCursor(cursor);
+
+    entity.name.append(" changed");
+
+    ContentValues values = tracker.toUpdateContentValues(entity);
+    assertThat(values).hasSize(1);
+    assertThat(values).contains(entry("name", "name changed"));
+  }
+
+  @Test
+  public void shouldIncludeValuesChangedInPlaceUsingReflectiveAdapter() throws Exception {
+    ChangeTracker<PrivateBufferEntity> tracker = testSubject.newChangeTracker(PrivateBufferEntity.class);
+    PrivateBufferEntity entity = tracker.fromCursor(cursor);
+
+    entity.name.append(" changed");
+
+    ContentValues values = tracker.toUpdateContentValues(entity);
+    assertThat(values).hasSize(1);
+    assertThat(values).contains(entry("name", "name changed"));
+  }
+
+  @Test
+  public void shouldIncludeOnlyMaskedColumns() throws Exception {
+    ColumnMask<Entity> mask = testSubject.newColumnMask(Entity.class, "name", "city");
+    Entity entity = testSubject.fromCursor(cursor, Entity.class);
+
+    ContentValues values = mask.toContentValues(entity);
+    assertThat(values).hasSize(2);
+    assertThat(values).contains(entry("name", "name"), entry("city", "Warsaw"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowReadonlyColumnsInMask() throws Exception {
+    testSubject.newColumnMask(Entity.class, "id");
+  }
+
+  public static class Entity {
+    @Column(value = "id", readonly = true)
+    public long id;
+
+    @Column("name")
+    public String name;
+
+    @Column("price")
+    public double price;
+
+    @Embedded
+    public Address address;
+  }
+
+  public static class Address {
+    @Column("city")
+    public String city;
+  }
+
+  public static class BufferEntity {
+    @Column("name")
+    public StringBuilder name;
+
+    @Column("version")
+    public int version;
+  }
+
+  public static class PrivateBufferEntity {
+    @Column("name")
+    private StringBuilder name;
+
+    @Column("version")
+    private int version;
+  }
+
+  public static class PrivateEntity {
+    @Column("name")
+    private String name;
+
+    @Column("version")
+    private int version;
+  }
+}
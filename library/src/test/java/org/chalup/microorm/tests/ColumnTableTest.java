@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.chalup.microorm.ColumnTable;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.TypeAdapter;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ColumnTableTest {
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    cursor = new MatrixCursor(new String[] { "id", "price", "discount", "name", "active", "quantity" });
+    cursor.addRow(new Object[] { 1L, 2.5, 0.5, "first", 1, 10 });
+    cursor.addRow(new Object[] { 2L, 3.5, null, null, 0, null });
+    cursor.addRow(new Object[] { 3L, 4.5, 1.5, "third", 1, 30 });
+  }
+
+  @Test
+  public void shouldStoreEachColumnInSingleArray() throws Exception {
+    ColumnTable table = testSubject.columnsFromCursor(cursor, Entity.class);
+
+    assertThat(table.getRowCount()).isEqualTo(3);
+    assertThat(table.getLongs("id")).isEqualTo(new long[] { 1, 2, 3 });
+    assertThat(table.getDoubles("price")).isEqualTo(new double[] { 2.5, 3.5, 4.5 }, 0.0);
+    assertThat(table.getStrings("name")).isEqualTo(new String[] { "first", null, "third" });
+    assertThat(table.getLongs("active")).isEqualTo(new long[] { 1, 0, 1 });
+    assertThat(table.getLongs("quantity")).isEqualTo(new long[] { 10, 0, 30 });
+  }
+
+  @Test
+  public void shouldTrackNullsOnlyForNullableColumns() throws Exception {
+    ColumnTable table = testSubject.columnsFromCursor(cursor, Entity.class);
+
+    assertThat(table.getNulls("id")).isNull();
+    assertThat(table.isNull("discount", 0)).isFalse();
+    assertThat(table.isNull("discount", 1)).isTrue();
+    assertThat(table.isNull("quantity", 1)).isTrue();
+    assertThat(table.getNulls("name").cardinality()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldIncludeColumnsOfEmbeddedObjects() throws Exception {
+    ColumnTable table = testSubject.columnsFromCursor(cursor, Entity.class);
+
+    assertThat(table.getColumnNames()).asList().containsExactly("id", "price", "discount", "name", "active", "quantity");
+  }
+
+  @Test
+  public void shouldUseTypeAdaptersForCustomTypes() throws Exception {
+    MicroOrm microOrm = new MicroOrm.Builder()
+        .registerTypeAdapter(Price.class, new PriceAdapter())
+        .build();
+
+    ColumnTable table = microOrm.columnsFromCursor(cursor, EntityWithCustomType.class);
+
+    Object[] prices = table.getObjects("price");
+    assertThat(((Price) prices[0]).mValue).isEqualTo(2.5);
+    assertThat(((Price) prices[2]).mValue).isEqualTo(4.5);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowOnColumnKindMismatch() throws Exception {
+    testSubject.columnsFromCursor(cursor, Entity.class).getDoubles("id");
+  }
+
+  @Test
+  public void shouldHandleNullCursor() throws Exception {
+    ColumnTable table = testSubject.columnsFromCursor(null, Entity.class);
+
+    assertThat(table.getRowCount()).isEqualTo(0);
+    assertThat(table.getLongs("id")).isEmpty();
+  }
+
+  public static class Entity {
+    @Column("id")
+    private long id;
+
+    @Column("price")
+    private double price;
+
+    @Column("discount")
+    private Double discount;
+
+    @Embedded
+    private Details details;
+  }
+
+  public static class Details {
+    @Column("name")
+    private String name;
+
+    @Column("active")
+    private boolean active;
+
+    @Column("quantity")
+    private Integer quantity;
+  }
+
+  public static class EntityWithCustomType {
+    @Column("price")
+    private Price price;
+  }
+
+  public static class Price {
+    double mValue;
+  }
+
+  public static class PriceAdapter implements TypeAdapter<Price> {
+    @Override
+    public Price fromCursor(Cursor c, String columnName) {
+      Price price = new Price();
+      price.mValue = c.getDouble(c.getColumnIndexOrThrow(columnName));
+      return price;
+    }
+
+    @Override
+    public void toContentValues(ContentValues values, String columnName, Price object) {
+      values.put(columnName, object.mValue);
+    }
+  }
+}
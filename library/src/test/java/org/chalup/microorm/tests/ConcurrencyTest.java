@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Lists;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.database.MatrixCursor;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ConcurrencyTest {
+
+  private static final String ID_COLUMN = "ID_COLUMN";
+  private static final String NAME_COLUMN = "NAME_COLUMN";
+
+  private static final int THREADS = 16;
+  private static final int ITERATIONS = 200;
+  private static final int ROWS = 20;
+
+  public static class Name {
+    @Column(NAME_COLUMN)
+    private String name;
+  }
+
+  public static class Entity {
+    @Column(ID_COLUMN)
+    private long id;
+
+    @Embedded
+    private Name name;
+  }
+
+  public static class DerivedEntity extends Entity {
+  }
+
+  @Test
+  public void shouldConvertCursorsConcurrently() throws Exception {
+    assertConcurrentConversions(new MicroOrm());
+  }
+
+  @Test
+  public void shouldConvertCursorsConcurrentlyWithWeakClassKeys() throws Exception {
+    assertConcurrentConversions(new MicroOrm.Builder().weakClassKeys().build());
+  }
+
+  private void assertConcurrentConversions(final MicroOrm microOrm) throws Exception {
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    try {
+      List<Future<Void>> results = Lists.newArrayList();
+      for (int i = 0; i != THREADS; i++) {
+        final Class<? extends Entity> klass = i % 2 == 0 ? Entity.class : DerivedEntity.class;
+
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            startLatch.await();
+
+            for (int iteration = 0; iteration != ITERATIONS; iteration++) {
+              MatrixCursor cursor = new MatrixCursor(new String[] { ID_COLUMN, NAME_COLUMN });
+              for (int row = 0; row != ROWS; row++) {
+                cursor.addRow(new Object[] { (long) row, "name" + row });
+              }
+
+              List<? extends Entity> entities = microOrm.listFromCursor(cursor, klass);
+              assertThat(entities).hasSize(ROWS);
+              for (int row = 0; row != ROWS; row++) {
+                Entity entity = entities.get(row);
+                assertThat(entity.id).isEqualTo(row);
+                assertThat(entity.name.name).isEqualTo("name" + row);
+              }
+            }
+            return null;
+          }
+        }));
+      }
+
+      startLatch.countDown();
+      for (Future<Void> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
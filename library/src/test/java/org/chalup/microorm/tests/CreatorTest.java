@@ -0,0 +1,387 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Creator;
+import org.chalup.microorm.annotations.Embedded;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.MatrixCursor;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class CreatorTest {
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    cursor = new MatrixCursor(new String[] { "id", "name", "street", "number" });
+    cursor.addRow(new Object[] { 1, "John", "Main", 12 });
+    cursor.addRow(new Object[] { 2, null, null, null });
+    cursor.moveToFirst();
+  }
+
+  @Test
+  public void shouldCreateObjectWithAnnotatedConstructor() throws Exception {
+    int invocations = ImmutablePerson.sInvocations;
+
+    ImmutablePerson person = testSubject.fromCursor(cursor, ImmutablePerson.class);
+
+    assertThat(ImmutablePerson.sInvocations).isEqualTo(invocations + 1);
+    assertThat(person.id).isEqualTo(1);
+    assertThat(person.name).isEqualTo("John");
+    assertThat(person.address.street).isEqualTo("Main");
+    assertThat(person.address.number).isEqualTo(12);
+  }
+
+  @Test
+  public void shouldCreateEveryObjectInListWithAnnotatedConstructor() throws Exception {
+    List<ImmutablePerson> persons = testSubject.listFromCursor(cursor, ImmutablePerson.class);
+
+    assertThat(persons).hasSize(2);
+    assertThat(persons.get(1).id).isEqualTo(2);
+    assertThat(persons.get(1).name).isNull();
+    assertThat(persons.get(1).address).isNull();
+  }
+
+  @Test
+  public void shouldCreateObjectWithStaticFactory() throws Exception {
+    FactoryPerson person = testSubject.fromCursor(cursor, FactoryPerson.class);
+
+    assertThat(person.id).isEqualTo(1);
+    assertThat(person.name).isEqualTo("John");
+    assertThat(person.createdByFactory).isTrue();
+  }
+
+  @Test
+  public void shouldPassArgumentsInOrderOfNamesSpecifiedInAnnotation() throws Exception {
+    ReorderedPerson person = testSubject.fromCursor(cursor, ReorderedPerson.class);
+
+    assertThat(person.id).isEqualTo(1);
+    assertThat(person.name).isEqualTo("John");
+  }
+
+  @Test
+  public void shouldCreateKotlinDataClassWithAnnotatedConstructor() throws Exception {
+    KotlinCreatorDataClass person = testSubject.fromCursor(cursor, KotlinCreatorDataClass.class);
+
+    assertThat(person).isEqualTo(new KotlinCreatorDataClass(1, "John"));
+  }
+
+  @Test
+  public void shouldStillFillExistingObjectsFieldByField() throws Exception {
+    ImmutablePerson person = testSubject.fromCursor(cursor, ImmutablePerson.class);
+    cursor.moveToNext();
+
+    testSubject.fromCursor(cursor, person);
+
+    assertThat(person.id).isEqualTo(2);
+    assertThat(person.name).isNull();
+  }
+
+  @Test
+  public void shouldConvertObjectCreatedWithConstructorToContentValues() throws Exception {
+    ContentValues values = testSubject.toContentValues(testSubject.fromCursor(cursor, ImmutablePerson.class));
+
+    assertThat(values.getAsLong("id")).isEqualTo(1L);
+    assertThat(values.getAsString("name")).isEqualTo("John");
+    assertThat(values.getAsString("street")).isEqualTo("Main");
+  }
+
+  @Test
+  public void shouldCreateEmbeddedObjectWithAnnotatedConstructorInsidePlainObject() throws Exception {
+    int invocations = CheckedAddress.sInvocations;
+
+    MutablePerson person = testSubject.fromCursor(cursor, MutablePerson.class);
+
+    assertThat(CheckedAddress.sInvocations).isEqualTo(invocations + 1);
+    assertThat(person.id).isEqualTo(1);
+    assertThat(person.address.street).isEqualTo("Main");
+    assertThat(person.address.number).isEqualTo(12);
+  }
+
+  @Test
+  public void shouldCreateEmbeddedObjectWithAnnotatedConstructorWhenRecycling() throws Exception {
+    MutablePerson person = testSubject.fromCursor(cursor, MutablePerson.class);
+    CheckedAddress firstAddress = person.address;
+    int invocations = CheckedAddress.sInvocations;
+    cursor.moveToNext();
+
+    testSubject.bind(cursor, MutablePerson.class).recycle(person);
+
+    assertThat(CheckedAddress.sInvocations).isEqualTo(invocations + 1);
+    assertThat(person.id).isEqualTo(2);
+    assertThat(person.address).isNotSameAs(firstAddress);
+    assertThat(person.address.street).isEqualTo("unknown");
+    assertThat(firstAddress.street).isEqualTo("Main");
+  }
+
+  @Test
+  public void shouldMatchParametersByNamesRegardlessOfFieldsOrder() throws Exception {
+    cursor = new MatrixCursor(new String[] { "street", "city" });
+    cursor.addRow(new Object[] { "Main", "Springfield" });
+    cursor.moveToFirst();
+
+    UnsortedFieldsAddress address = testSubject.fromCursor(cursor, UnsortedFieldsAddress.class);
+
+    assertThat(address.street).isEqualTo("Main");
+    assertThat(address.city).isEqualTo("Springfield");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowForMultipleUnnamedParameters() throws Exception {
+    testSubject.fromCursor(cursor, UnnamedParameters.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowForMultipleCreators() throws Exception {
+    testSubject.fromCursor(cursor, MultipleCreators.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowForMissingParameter() throws Exception {
+    testSubject.fromCursor(cursor, MissingParameter.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowForMismatchedParameterType() throws Exception {
+    testSubject.fromCursor(cursor, MismatchedParameterType.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowForUnknownFieldName() throws Exception {
+    testSubject.fromCursor(cursor, UnknownFieldName.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowForNonStaticFactory() throws Exception {
+    testSubject.fromCursor(cursor, NonStaticFactory.class);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRethrowExceptionFromCreator() throws Exception {
+    testSubject.fromCursor(cursor, ThrowingCreator.class);
+  }
+
+  static class ImmutablePerson {
+    static int sInvocations;
+
+    @Column("id")
+    final long id;
+
+    @Column("name")
+    final String name;
+
+    @Embedded(nullIfAllNull = true)
+    final ImmutableAddress address;
+
+    @Creator({ "id", "name", "address" })
+    ImmutablePerson(long id, String name, ImmutableAddress address) {
+      sInvocations++;
+      this.id = id;
+      this.name = name;
+      this.address = address;
+    }
+  }
+
+  static class ImmutableAddress {
+    @Column("street")
+    final String street;
+
+    @Column("number")
+    final Integer number;
+
+    @Creator({ "street", "number" })
+    ImmutableAddress(String street, Integer number) {
+      this.street = street;
+      this.number = number;
+    }
+  }
+
+  static class FactoryPerson {
+    @Column("id")
+    final long id;
+
+    @Column("name")
+    final String name;
+
+    final boolean createdByFactory;
+
+    private FactoryPerson(long id, String name, boolean createdByFactory) {
+      this.id = id;
+      this.name = name;
+      this.createdByFactory = createdByFactory;
+    }
+
+    @Creator({ "id", "name" })
+    static FactoryPerson create(long id, String name) {
+      return new FactoryPerson(id, name, true);
+    }
+  }
+
+  static class ReorderedPerson {
+    @Column("id")
+    final long id;
+
+    @Column("name")
+    final String name;
+
+    @Creator({ "name", "id" })
+    ReorderedPerson(String name, long id) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  static class MutablePerson {
+    @Column("id")
+    long id;
+
+    @Embedded
+    CheckedAddress address;
+  }
+
+  static class CheckedAddress {
+    static int sInvocations;
+
+    @Column("street")
+    final String street;
+
+    @Column("number")
+    final Integer number;
+
+    @Creator({ "street", "number" })
+    CheckedAddress(String street, Integer number) {
+      sInvocations++;
+      this.street = street != null ? street : "unknown";
+      this.number = number;
+    }
+  }
+
+  static class UnsortedFieldsAddress {
+    // declared in the reverse alphabetical order, so the order of
+    // reflected fields differs between the desktop JVM and ART
+    @Column("street")
+    final String street;
+
+    @Column("city")
+    final String city;
+
+    @Creator({ "city", "street" })
+    UnsortedFieldsAddress(String city, String street) {
+      this.city = city;
+      this.street = street;
+    }
+  }
+
+  static class UnnamedParameters {
+    @Column("id")
+    final long id;
+
+    @Column("name")
+    final String name;
+
+    @Creator
+    UnnamedParameters(long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  static class MultipleCreators {
+    @Column("id")
+    final long id;
+
+    @Creator
+    MultipleCreators(long id) {
+      this.id = id;
+    }
+
+    @Creator
+    static MultipleCreators create(long id) {
+      return new MultipleCreators(id);
+    }
+  }
+
+  static class MissingParameter {
+    @Column("id")
+    final long id;
+
+    @Column("name")
+    final String name;
+
+    @Creator("id")
+    MissingParameter(long id) {
+      this.id = id;
+      this.name = null;
+    }
+  }
+
+  static class MismatchedParameterType {
+    @Column("id")
+    final long id;
+
+    @Creator
+    MismatchedParameterType(int id) {
+      this.id = id;
+    }
+  }
+
+  static class UnknownFieldName {
+    @Column("id")
+    final long id;
+
+    @Creator("mId")
+    UnknownFieldName(long id) {
+      this.id = id;
+    }
+  }
+
+  static class NonStaticFactory {
+    @Column("id")
+    long id;
+
+    @Creator
+    NonStaticFactory create(long id) {
+      return this;
+    }
+  }
+
+  static class ThrowingCreator {
+    @Column("id")
+    final long id;
+
+    @Creator
+    ThrowingCreator(long id) {
+      throw new IllegalStateException();
+    }
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.TypeAdapter;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.EnumCode;
+import org.chalup.microorm.annotations.EnumStorage;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class EnumColumnsTest {
+
+  private static final String[] COLUMNS = { "by_name", "by_ordinal", "by_code" };
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    cursor = new MatrixCursor(COLUMNS);
+    cursor.addRow(new Object[] { "PLN", 2, 404 });
+    cursor.addRow(new Object[] { null, null, null });
+    cursor.moveToFirst();
+  }
+
+  @Test
+  public void shouldReadEnumColumns() throws Exception {
+    Enums enums = testSubject.fromCursor(cursor, Enums.class);
+
+    assertThat(enums.byName).isEqualTo(Currency.PLN);
+    assertThat(enums.byOrdinal).isEqualTo(Currency.USD);
+    assertThat(enums.byCode).isEqualTo(Status.NOT_FOUND);
+  }
+
+  @Test
+  public void shouldReadEnumColumnsWithReflectiveAdapter() throws Exception {
+    PrivateEnums enums = testSubject.fromCursor(cursor, PrivateEnums.class);
+
+    assertThat(enums.byName).isEqualTo(Currency.PLN);
+    assertThat(enums.byOrdinal).isEqualTo(Currency.USD);
+    assertThat(enums.byCode).isEqualTo(Status.NOT_FOUND);
+  }
+
+  @Test
+  public void shouldReadNullEnumColumns() throws Exception {
+    cursor.moveToLast();
+
+    Enums enums = testSubject.fromCursor(cursor, Enums.class);
+
+    assertThat(enums.byName).isNull();
+    assertThat(enums.byOrdinal).isNull();
+    assertThat(enums.byCode).isNull();
+  }
+
+  @Test
+  public void shouldPutEnumColumnsIntoContentValues() throws Exception {
+    Enums enums = new Enums();
+    enums.byName = Currency.EUR;
+    enums.byOrdinal = Currency.PLN;
+    enums.byCode = Status.OK;
+
+    ContentValues values = testSubject.toContentValues(enums);
+
+    assertThat(values.getAsString("by_name")).isEqualTo("EUR");
+    assertThat(values.getAsInteger("by_ordinal")).isEqualTo(1);
+    assertThat(values.getAsLong("by_code")).isEqualTo(200L);
+  }
+
+  @Test
+  public void shouldPutNullEnumColumnsIntoContentValues() throws Exception {
+    ContentValues values = testSubject.toContentValues(new PrivateEnums());
+
+    assertThat(values.size()).isEqualTo(3);
+    assertThat(values.get("by_name")).isNull();
+    assertThat(values.get("by_ordinal")).isNull();
+    assertThat(values.get("by_code")).isNull();
+  }
+
+  @Test
+  public void shouldBindEnumColumnsToStatement() throws Exception {
+    SQLiteDatabase db = SQLiteDatabase.create(null);
+    db.execSQL("CREATE TABLE enums (by_name TEXT, by_ordinal INTEGER, by_code INTEGER)");
+
+    Enums enums = new Enums();
+    enums.byName = Currency.USD;
+    enums.byOrdinal = Currency.PLN;
+    enums.byCode = Status.NOT_FOUND;
+    testSubject.insertAll(db, "enums", Enums.class, ImmutableList.of(enums));
+
+    assertThat(DatabaseUtils.stringForQuery(db, "SELECT by_name FROM enums", null)).isEqualTo("USD");
+    assertThat(DatabaseUtils.longForQuery(db, "SELECT by_ordinal FROM enums", null)).isEqualTo(1L);
+    assertThat(DatabaseUtils.longForQuery(db, "SELECT by_code FROM enums", null)).isEqualTo(404L);
+  }
+
+  @Test
+  public void shouldReadEnumWithGetColumnFunction() throws Exception {
+    assertThat(testSubject.getColumn("by_name").as(Currency.class).apply(cursor)).isEqualTo(Currency.PLN);
+  }
+
+  @Test
+  public void shouldReadEnumColumnsIntoColumnTable() throws Exception {
+    List<Object> byCode = Arrays.asList(testSubject.columnsFromCursor(cursor, Enums.class).getObjects("by_code"));
+
+    assertThat(byCode).containsExactly(Status.NOT_FOUND, null).inOrder();
+  }
+
+  @Test
+  public void shouldPreferRegisteredTypeAdapter() throws Exception {
+    MicroOrm microOrm = new MicroOrm.Builder()
+        .registerTypeAdapter(Currency.class, new TypeAdapter<Currency>() {
+          @Override
+          public Currency fromCursor(Cursor c, String columnName) {
+            return Currency.EUR;
+          }
+
+          @Override
+          public void toContentValues(ContentValues values, String columnName, Currency object) {
+          }
+        })
+        .build();
+
+    Enums enums = microOrm.fromCursor(cursor, Enums.class);
+
+    assertThat(enums.byName).isEqualTo(Currency.EUR);
+    assertThat(enums.byOrdinal).isEqualTo(Currency.EUR);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectUnknownName() throws Exception {
+    MatrixCursor cursor = new MatrixCursor(COLUMNS);
+    cursor.addRow(new Object[] { "GBP", 0, 200 });
+    cursor.moveToFirst();
+
+    testSubject.fromCursor(cursor, Enums.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectUnknownOrdinal() throws Exception {
+    MatrixCursor cursor = new MatrixCursor(COLUMNS);
+    cursor.addRow(new Object[] { "EUR", 3, 200 });
+    cursor.moveToFirst();
+
+    testSubject.fromCursor(cursor, PrivateEnums.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectUnknownCode() throws Exception {
+    MatrixCursor cursor = new MatrixCursor(COLUMNS);
+    cursor.addRow(new Object[] { "EUR", 0, 500 });
+    cursor.moveToFirst();
+
+    testSubject.fromCursor(cursor, Enums.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRequireCodesOnAllConstants() throws Exception {
+    testSubject.getProjection(CurrencyByCode.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRequireCodesOnAllConstantsWithGeneratedAdapter() throws Exception {
+    testSubject.getProjection(PublicCurrencyByCode.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectDuplicateCodes() throws Exception {
+    testSubject.getProjection(DuplicateCodes.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowEnumStorageOnNonEnumColumns() throws Exception {
+    testSubject.getProjection(NotEnum.class);
+  }
+
+  public enum Currency {
+    EUR,
+    PLN,
+    USD
+  }
+
+  public enum Status {
+    @EnumCode(404)
+    NOT_FOUND,
+    @EnumCode(200)
+    OK,
+    @EnumCode(-1)
+    UNKNOWN
+  }
+
+  public enum DuplicateStatus {
+    @EnumCode(1)
+    FIRST,
+    @EnumCode(1)
+    SECOND
+  }
+
+  public static class Enums {
+    @Column("by_name")
+    public Currency byName;
+
+    @Column(value = "by_ordinal", enumStorage = EnumStorage.ORDINAL)
+    public Currency byOrdinal;
+
+    @Column(value = "by_code", enumStorage = EnumStorage.CODE)
+    public Status byCode;
+  }
+
+  public static class PrivateEnums {
+    @Column("by_name")
+    private Currency byName;
+
+    @Column(value = "by_ordinal", enumStorage = EnumStorage.ORDINAL)
+    private Currency byOrdinal;
+
+    @Column(value = "by_code", enumStorage = EnumStorage.CODE)
+    private Status byCode;
+  }
+
+  public static class CurrencyByCode {
+    @Column(value = "by_code", enumStorage = EnumStorage.CODE)
+    private Currency byCode;
+  }
+
+  public static class PublicCurrencyByCode {
+    @Column(value = "by_code", enumStorage = EnumStorage.CODE)
+    public Currency byCode;
+  }
+
+  public static class DuplicateCodes {
+    @Column(value = "by_code", enumStorage = EnumStorage.CODE)
+    private DuplicateStatus byCode;
+  }
+
+  public static class NotEnum {
+    @Column(value = "by_code", enumStorage = EnumStorage.CODE)
+    private long byCode;
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.chalup.microorm.tests.TestCursorBuilder.cursor;
+
+import org.chalup.microorm.BoundMapper;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Creator;
+import org.chalup.microorm.annotations.Embedded;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.database.Cursor;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class FieldGroupsTest {
+
+  private static final String SUMMARY = "summary";
+
+  private MicroOrm testSubject;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+  }
+
+  @Test
+  public void shouldIncludeOnlyGroupColumnsInProjection() throws Exception {
+    assertThat(testSubject.getProjection(Article.class, SUMMARY)).asList().containsExactly("id", "title").inOrder();
+    assertThat(testSubject.getProjection(PrivateArticle.class, SUMMARY)).asList().containsExactly("id", "title").inOrder();
+    assertThat(testSubject.getProjection(Article.class, "details")).asList().containsExactly("id", "body").inOrder();
+  }
+
+  @Test
+  public void shouldIncludeAllColumnsInProjectionWithoutGroup() throws Exception {
+    assertThat(testSubject.getProjection(Article.class)).asList().containsExactly("id", "title", "body").inOrder();
+  }
+
+  @Test
+  public void shouldMapOnlyGroupFields() throws Exception {
+    Cursor c = cursor("id", "title").addRow(1L, "title1");
+
+    Article article = testSubject.fromCursor(c, Article.class, SUMMARY);
+    assertThat(article.id).isEqualTo(1L);
+    assertThat(article.title).isEqualTo("title1");
+    assertThat(article.body).isNull();
+
+    PrivateArticle privateArticle = testSubject.fromCursor(c, PrivateArticle.class, SUMMARY);
+    assertThat(privateArticle.id).isEqualTo(1L);
+    assertThat(privateArticle.title).isEqualTo("title1");
+    assertThat(privateArticle.body).isNull();
+  }
+
+  @Test
+  public void shouldListGroupFields() throws Exception {
+    Cursor c = cursor("id", "title")
+        .addRow(1L, "title1")
+        .addRow(2L, "title2");
+
+    List<Article> articles = testSubject.listFromCursor(c, Article.class, SUMMARY);
+    assertThat(articles).hasSize(2);
+    assertThat(articles.get(1).id).isEqualTo(2L);
+    assertThat(articles.get(1).title).isEqualTo("title2");
+    assertThat(articles.get(1).body).isNull();
+  }
+
+  @Test
+  public void shouldBindGroupFields() throws Exception {
+    Cursor c = cursor("id", "body").addRow(1L, "body1");
+
+    BoundMapper<Article> mapper = testSubject.bind(c, Article.class, "details");
+    Article article = mapper.map();
+    assertThat(article.id).isEqualTo(1L);
+    assertThat(article.title).isNull();
+    assertThat(article.body).isEqualTo("body1");
+  }
+
+  @Test
+  public void shouldMapGroupFieldsOfEmbeddedObjects() throws Exception {
+    assertThat(testSubject.getProjection(Order.class, SUMMARY)).asList().containsExactly("id", "city").inOrder();
+
+    Cursor c = cursor("id", "city").addRow(1L, "Warsaw");
+    Order order = testSubject.fromCursor(c, Order.class, SUMMARY);
+    assertThat(order.id).isEqualTo(1L);
+    assertThat(order.address).isNotNull();
+    assertThat(order.address.city).isEqualTo("Warsaw");
+    assertThat(order.address.street).isNull();
+  }
+
+  @Test
+  public void shouldNotDuplicateColumnsOfOverlappingEmbeddedObjects() throws Exception {
+    assertThat(testSubject.getProjection(Shipment.class)).asList().containsExactly("id", "city", "street").inOrder();
+    assertThat(testSubject.getProjection(Shipment.class, SUMMARY)).asList().containsExactly("id", "city").inOrder();
+  }
+
+  @Test
+  public void shouldMapGroupFieldsWithoutCreator() throws Exception {
+    Cursor c = cursor("id", "title").addRow(1L, "title1");
+
+    ImmutableArticle article = testSubject.fromCursor(c, ImmutableArticle.class, SUMMARY);
+    assertThat(article.id).isEqualTo(1L);
+    assertThat(article.title).isEqualTo("title1");
+    assertThat(article.body).isNull();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowOnUnknownGroup() throws Exception {
+    testSubject.getProjection(Article.class, "summray");
+  }
+
+  public static class Article {
+    @Column(value = "id", groups = { SUMMARY, "details" })
+    public long id;
+
+    @Column(value = "title", groups = SUMMARY)
+    public String title;
+
+    @Column(value = "body", groups = "details")
+    public String body;
+  }
+
+  public static class PrivateArticle {
+    @Column(value = "id", groups = SUMMARY)
+    private long id;
+
+    @Column(value = "title", groups = SUMMARY)
+    private String title;
+
+    @Column("body")
+    private String body;
+  }
+
+  public static class Address {
+    @Column(value = "city", groups = SUMMARY)
+    public String city;
+
+    @Column("street")
+    public String street;
+  }
+
+  public static class Order {
+    @Column(value = "id", groups = SUMMARY)
+    public long id;
+
+    @Embedded
+    public Address address;
+  }
+
+  public static class Shipment {
+    @Column(value = "id", groups = SUMMARY)
+    public long id;
+
+    @Embedded
+    public Address from;
+
+    @Embedded
+    public Address to;
+  }
+
+  static class ImmutableArticle {
+    @Column(value = "id", groups = SUMMARY)
+    final long id;
+
+    @Column(value = "title", groups = SUMMARY)
+    final String title;
+
+    @Column("body")
+    final String body;
+
+    @Creator({ "id", "title", "body" })
+    ImmutableArticle(long id, String title, String body) {
+      this.id = id;
+      this.title = title;
+      this.body = body;
+    }
+  }
+}
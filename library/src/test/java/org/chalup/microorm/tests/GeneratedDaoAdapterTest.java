@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.fest.assertions.api.ANDROID.assertThat;
+import static org.fest.assertions.api.android.content.ContentValuesEntry.entry;
+
+import org.chalup.microorm.GeneratedDaoAdapter;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.TypeAdapter;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class GeneratedDaoAdapterTest {
+
+  private static final String ID_COLUMN = "ID_COLUMN";
+  private static final String NAME_COLUMN = "NAME_COLUMN";
+  private static final String NOTE_COLUMN = "NOTE_COLUMN";
+
+  private MicroOrm testSubject;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+  }
+
+  public static class Name {
+    @Column(NAME_COLUMN)
+    String name;
+  }
+
+  public static class BaseEntity {
+    @Column(ID_COLUMN)
+    long id;
+  }
+
+  public static class GeneratedEntity extends BaseEntity {
+    @Embedded
+    Name name;
+
+    @Column(value = NOTE_COLUMN, treatNullAsDefault = true)
+    String note;
+  }
+
+  public static class ReflectiveEntity {
+    @Column(ID_COLUMN)
+    private long id;
+  }
+
+  @Test
+  public void shouldGenerateAdapterForEntityWithAccessibleFields() throws Exception {
+    Class<?> adapterClass = Class.forName(GeneratedEntity.class.getName() + "$$MicroOrmAdapter");
+    assertThat(GeneratedDaoAdapter.class.isAssignableFrom(adapterClass)).isTrue();
+  }
+
+  @Test(expected = ClassNotFoundException.class)
+  public void shouldNotGenerateAdapterForEntityWithPrivateFields() throws Exception {
+    Class.forName(ReflectiveEntity.class.getName() + "$$MicroOrmAdapter");
+  }
+
+  @Test
+  public void shouldConvertEntityWithGeneratedAdapter() throws Exception {
+    Cursor c = TestCursorBuilder
+        .cursor(ID_COLUMN, NAME_COLUMN, NOTE_COLUMN)
+        .addRow(42L, "name", null);
+
+    GeneratedEntity entity = testSubject.fromCursor(c, GeneratedEntity.class);
+    assertThat(entity.id).isEqualTo(42L);
+    assertThat(entity.name.name).isEqualTo("name");
+    assertThat(entity.note).isNull();
+
+    ContentValues values = testSubject.toContentValues(entity);
+    assertThat(values).contains(entry(ID_COLUMN, 42L), entry(NAME_COLUMN, "name"));
+    assertThat(values.containsKey(NOTE_COLUMN)).isFalse();
+  }
+
+  @Test
+  public void shouldNotUseGeneratedAdaptersWhenBuiltInTypeAdapterIsReplaced() throws Exception {
+    MicroOrm microOrm = new MicroOrm.Builder()
+        .registerTypeAdapter(String.class, new TypeAdapter<String>() {
+          @Override
+          public String fromCursor(Cursor c, String columnName) {
+            return c.getString(c.getColumnIndexOrThrow(columnName)).toUpperCase();
+          }
+
+          @Override
+          public void toContentValues(ContentValues values, String columnName, String object) {
+            values.put(columnName, object);
+          }
+        })
+        .build();
+
+    Cursor c = TestCursorBuilder
+        .cursor(ID_COLUMN, NAME_COLUMN, NOTE_COLUMN)
+        .addRow(42L, "name", "note");
+
+    GeneratedEntity entity = microOrm.fromCursor(c, GeneratedEntity.class);
+    assertThat(entity.name.name).isEqualTo("NAME");
+    assertThat(entity.note).isEqualTo("NOTE");
+  }
+}
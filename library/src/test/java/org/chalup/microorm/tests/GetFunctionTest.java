@@ -33,6 +33,7 @@ import org.robolectric.annotation.Config;
 import android.database.Cursor;
 import android.database.MatrixCursor;
 
+import java.lang.ref.WeakReference;
 import java.util.List;
 
 @RunWith(RobolectricTestRunner.class)
@@ -85,4 +86,31 @@ public class GetFunctionTest {
 
     assertThat(fromFunction).containsSequence(reference);
   }
+
+  @Test
+  public void functionShouldNotKeepLastCursorInMemory() throws Exception {
+    Function<Cursor, SimpleEntity> function = testSubject.getFunctionFor(SimpleEntity.class);
+    WeakReference<Cursor> cursorReference = applyToNewCursor(function);
+
+    for (int i = 0; i != 10 && cursorReference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertThat(cursorReference.get()).isNull();
+    assertThat(function.apply(cursorWithSingleRow("next")).simpleColumn).isEqualTo("next");
+  }
+
+  private static WeakReference<Cursor> applyToNewCursor(Function<Cursor, SimpleEntity> function) {
+    Cursor cursor = cursorWithSingleRow("first");
+    assertThat(function.apply(cursor).simpleColumn).isEqualTo("first");
+    return new WeakReference<>(cursor);
+  }
+
+  private static Cursor cursorWithSingleRow(String value) {
+    MatrixCursor cursor = new MatrixCursor(new String[] { SIMPLE_ENTITY_COLUMN });
+    cursor.addRow(new Object[] { value });
+    cursor.moveToFirst();
+    return cursor;
+  }
 }
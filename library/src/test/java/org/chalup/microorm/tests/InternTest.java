@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Intern;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class InternTest {
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    cursor = new MatrixCursor(new String[] { "currency" });
+    cursor.addRow(new Object[] { new String("EUR") });
+    cursor.addRow(new Object[] { new String("EUR") });
+    cursor.addRow(new Object[] { null });
+    cursor.addRow(new Object[] { new String("PLN") });
+  }
+
+  @Test
+  public void shouldReturnTheSameInstanceForEqualValues() throws Exception {
+    List<Interned> rows = testSubject.listFromCursor(cursor, Interned.class);
+
+    assertThat(rows.get(0).currency).isEqualTo("EUR");
+    assertThat(rows.get(1).currency).isSameAs(rows.get(0).currency);
+    assertThat(rows.get(2).currency).isNull();
+    assertThat(rows.get(3).currency).isEqualTo("PLN");
+  }
+
+  @Test
+  public void shouldReturnTheSameInstanceForEqualValuesWithReflectiveAdapter() throws Exception {
+    List<PrivateInterned> rows = testSubject.listFromCursor(cursor, PrivateInterned.class);
+
+    assertThat(rows.get(0).currency).isEqualTo("EUR");
+    assertThat(rows.get(1).currency).isSameAs(rows.get(0).currency);
+    assertThat(rows.get(2).currency).isNull();
+    assertThat(rows.get(3).currency).isEqualTo("PLN");
+  }
+
+  @Test
+  public void shouldNotInternByDefault() throws Exception {
+    List<NotInterned> rows = testSubject.listFromCursor(cursor, NotInterned.class);
+
+    assertThat(rows.get(1).currency).isEqualTo(rows.get(0).currency);
+    assertThat(rows.get(1).currency).isNotSameAs(rows.get(0).currency);
+  }
+
+  @Test
+  public void shouldShareInternedValuesBetweenColumns() throws Exception {
+    Interned interned = testSubject.fromCursor(firstRow(cursor), Interned.class);
+    PrivateInterned privateInterned = testSubject.fromCursor(firstRow(cursor), PrivateInterned.class);
+
+    assertThat(privateInterned.currency).isSameAs(interned.currency);
+  }
+
+  @Test
+  public void shouldKeepInterningLowCardinalityColumnInAdaptiveMode() throws Exception {
+    MatrixCursor cursor = new MatrixCursor(new String[] { "currency" });
+    for (int i = 0; i != 5000; i++) {
+      cursor.addRow(new Object[] { new String(i % 2 == 0 ? "EUR" : "PLN") });
+    }
+
+    List<Adaptive> rows = testSubject.listFromCursor(cursor, Adaptive.class);
+
+    assertThat(rows.get(4998).currency).isSameAs(rows.get(0).currency);
+    assertThat(rows.get(4999).currency).isSameAs(rows.get(1).currency);
+  }
+
+  @Test
+  public void shouldStopInterningHighCardinalityColumnInAdaptiveMode() throws Exception {
+    MatrixCursor cursor = new MatrixCursor(new String[] { "currency" });
+    for (int i = 0; i != 5000; i++) {
+      cursor.addRow(new Object[] { "value" + i });
+    }
+    cursor.addRow(new Object[] { new String("EUR") });
+    cursor.addRow(new Object[] { new String("EUR") });
+
+    List<Adaptive> rows = testSubject.listFromCursor(cursor, Adaptive.class);
+
+    assertThat(rows.get(5001).currency).isEqualTo(rows.get(5000).currency);
+    assertThat(rows.get(5001).currency).isNotSameAs(rows.get(5000).currency);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowInterningNonStringColumns() throws Exception {
+    testSubject.getProjection(InternedNumber.class);
+  }
+
+  private static Cursor firstRow(Cursor cursor) {
+    cursor.moveToFirst();
+    return cursor;
+  }
+
+  public static class Interned {
+    @Column(value = "currency", intern = Intern.ALWAYS)
+    public String currency;
+  }
+
+  public static class PrivateInterned {
+    @Column(value = "currency", intern = Intern.ALWAYS)
+    private String currency;
+  }
+
+  public static class NotInterned {
+    @Column("currency")
+    public String currency;
+  }
+
+  public static class Adaptive {
+    @Column(value = "currency", intern = Intern.ADAPTIVE)
+    public String currency;
+  }
+
+  public static class InternedNumber {
+    @Column(value = "currency", intern = Intern.ALWAYS)
+    private long currency;
+  }
+}
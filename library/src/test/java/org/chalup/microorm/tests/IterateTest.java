@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Lists;
+
+import org.chalup.microorm.CursorIterable;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.tests.GetFunctionTest.SimpleEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.database.MatrixCursor;
+
+import java.util.Iterator;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class IterateTest {
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    cursor = new MatrixCursor(new String[] { "SIMPLE_ENTITY_COLUMN" });
+    for (int i = 0; i != 5; i++) {
+      cursor.addRow(new Object[] { "row" + i });
+    }
+  }
+
+  @Test
+  public void shouldReturnTheSameObjectsAsListFromCursor() throws Exception {
+    List<SimpleEntity> reference = testSubject.listFromCursor(cursor, SimpleEntity.class);
+
+    assertThat(Lists.newArrayList(testSubject.iterate(cursor, SimpleEntity.class))).containsExactlyElementsIn(reference).inOrder();
+    assertThat(cursor.isClosed()).isFalse();
+  }
+
+  @Test
+  public void shouldConvertRowsLazily() throws Exception {
+    Iterator<SimpleEntity> iterator = testSubject.iterate(cursor, SimpleEntity.class).iterator();
+    assertThat(cursor.getPosition()).isEqualTo(-1);
+
+    iterator.next();
+    assertThat(cursor.getPosition()).isEqualTo(0);
+
+    iterator.next();
+    assertThat(cursor.getPosition()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldStartEachIterationFromTheFirstRow() throws Exception {
+    Iterable<SimpleEntity> iterable = testSubject.iterate(cursor, SimpleEntity.class);
+
+    assertThat(Lists.newArrayList(iterable)).hasSize(5);
+    assertThat(Lists.newArrayList(iterable)).hasSize(5);
+  }
+
+  @Test
+  public void shouldHandleNullCursor() throws Exception {
+    assertThat(testSubject.iterate(null, SimpleEntity.class)).isEmpty();
+  }
+
+  @Test
+  public void shouldCloseOwnedCursorAfterLastRow() throws Exception {
+    List<SimpleEntity> entities = Lists.newArrayList(testSubject.iterateAndClose(cursor, SimpleEntity.class));
+
+    assertThat(entities).hasSize(5);
+    assertThat(cursor.isClosed()).isTrue();
+  }
+
+  @Test
+  public void shouldCloseOwnedCursorOnClose() throws Exception {
+    CursorIterable<SimpleEntity> iterable = testSubject.iterateAndClose(cursor, SimpleEntity.class);
+    iterable.iterator().next();
+    iterable.close();
+
+    assertThat(cursor.isClosed()).isTrue();
+  }
+}
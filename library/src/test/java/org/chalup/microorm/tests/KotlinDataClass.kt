@@ -2,6 +2,7 @@ package org.chalup.microorm.tests
 
 import android.provider.BaseColumns
 import org.chalup.microorm.annotations.Column
+import org.chalup.microorm.annotations.Creator
 import org.chalup.microorm.annotations.Embedded
 import org.chalup.microorm.tests.EmbeddedTest.*
 
@@ -22,3 +23,8 @@ data class KotlinName(
     @Column(FIRST_NAME_COLUMN) val firstName: String,
     @Column(LAST_NAME_COLUMN) val lastName: String
 )
+
+data class KotlinCreatorDataClass @Creator("id", "name") constructor(
+    @Column("id") val id: Long,
+    @Column("name") val name: String?
+)
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Lists;
+
+import org.chalup.microorm.BoundMapper;
+import org.chalup.microorm.LazyLoader;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class LazyColumnsTest {
+
+  private static final int ROW_COUNT = 600;
+
+  private MicroOrm testSubject;
+  private SQLiteDatabase db;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    db = SQLiteDatabase.create(null);
+    db.execSQL("CREATE TABLE articles (id INTEGER PRIMARY KEY, title TEXT, body TEXT, thumbnail BLOB)");
+    db.beginTransaction();
+    try {
+      for (int i = 1; i <= ROW_COUNT; i++) {
+        db.execSQL("INSERT INTO articles VALUES (?, ?, ?, ?)", new Object[] { i, "title" + i, "body" + i, new byte[] { (byte) i } });
+      }
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    db.close();
+  }
+
+  @Test
+  public void shouldLeaveLazyColumnsOutOfProjection() throws Exception {
+    assertThat(testSubject.getProjection(Article.class)).asList().containsExactly("id", "title");
+    assertThat(testSubject.getProjection(PrivateArticle.class)).asList().containsExactly("id", "title");
+  }
+
+  @Test
+  public void shouldNotReadLazyColumns() throws Exception {
+    Article article = queryArticles(Article.class).get(0);
+
+    assertThat(article.title).isEqualTo("title1");
+    assertThat(article.body).isNull();
+    assertThat(article.thumbnail).isNull();
+  }
+
+  @Test
+  public void shouldLoadLazyColumnsOfSingleObject() throws Exception {
+    Article article = queryArticles(Article.class).get(4);
+    LazyLoader<Article> loader = testSubject.newLazyLoader(db, "articles", Article.class, "id");
+
+    assertThat(loader.isLoaded(article)).isFalse();
+    assertThat(loader.load(article)).isSameAs(article);
+
+    assertThat(loader.isLoaded(article)).isTrue();
+    assertThat(article.body).isEqualTo("body5");
+    assertThat(article.thumbnail).isEqualTo(new byte[] { 5 });
+  }
+
+  @Test
+  public void shouldLoadEveryObjectOnlyOnce() throws Exception {
+    Article article = queryArticles(Article.class).get(0);
+    LazyLoader<Article> loader = testSubject.newLazyLoader(db, "articles", Article.class, "id");
+    loader.load(article);
+
+    db.execSQL("UPDATE articles SET body = 'changed'");
+    loader.load(article);
+
+    assertThat(article.body).isEqualTo("body1");
+  }
+
+  @Test
+  public void shouldLoadAllObjectsInBatches() throws Exception {
+    List<PrivateArticle> articles = queryArticles(PrivateArticle.class);
+    LazyLoader<PrivateArticle> loader = testSubject.newLazyLoader(db, "articles", PrivateArticle.class, "id");
+
+    loader.loadAll(articles);
+
+    assertThat(articles).hasSize(ROW_COUNT);
+    for (int i = 0; i < ROW_COUNT; i++) {
+      assertThat(articles.get(i).body).isEqualTo("body" + (i + 1));
+    }
+  }
+
+  @Test
+  public void shouldLoadLazyColumnsOfEmbeddedObjects() throws Exception {
+    Cursor c = db.query("articles", testSubject.getProjection(ArticleWithContent.class), null, null, null, null, "id");
+    List<ArticleWithContent> articles = testSubject.listFromCursor(c, ArticleWithContent.class);
+    c.close();
+    assertThat(articles.get(1).content.body).isNull();
+
+    testSubject.newLazyLoader(db, "articles", ArticleWithContent.class, "id").loadAll(articles.subList(0, 2));
+
+    assertThat(articles.get(1).content.body).isEqualTo("body2");
+    assertThat(articles.get(2).content.body).isNull();
+  }
+
+  @Test
+  public void shouldSkipNotLoadedLazyColumnsInContentValues() throws Exception {
+    Article article = queryArticles(Article.class).get(0);
+
+    ContentValues values = testSubject.toContentValues(article);
+    assertThat(values.containsKey("body")).isFalse();
+
+    testSubject.newLazyLoader(db, "articles", Article.class, "id").load(article);
+    assertThat(testSubject.toContentValues(article).getAsString("body")).isEqualTo("body1");
+  }
+
+  @Test
+  public void shouldNotOverwriteLazyColumnsWhenInsertingNotLoadedObjects() throws Exception {
+    Article article = queryArticles(Article.class).get(0);
+    article.id = ROW_COUNT + 1;
+
+    testSubject.insertAll(db, "articles", Article.class, Lists.newArrayList(article));
+
+    Cursor c = db.rawQuery("SELECT body FROM articles WHERE id = ?", new String[] { String.valueOf(article.id) });
+    c.moveToFirst();
+    assertThat(c.isNull(0)).isTrue();
+    c.close();
+  }
+
+  @Test
+  public void shouldResetLoadedLazyColumnsWhenRecycling() throws Exception {
+    Cursor c = db.query("articles", testSubject.getProjection(Article.class), null, null, null, null, "id");
+    c.moveToFirst();
+    BoundMapper<Article> mapper = testSubject.bind(c, Article.class);
+    LazyLoader<Article> loader = testSubject.newLazyLoader(db, "articles", Article.class, "id");
+    Article article = loader.load(mapper.map());
+    assertThat(article.body).isEqualTo("body1");
+
+    c.moveToNext();
+    mapper.recycle(article);
+    c.close();
+
+    assertThat(article.id).isEqualTo(2);
+    assertThat(article.body).isNull();
+    assertThat(article.thumbnail).isNull();
+    assertThat(loader.isLoaded(article)).isFalse();
+    assertThat(testSubject.toContentValues(article).containsKey("body")).isFalse();
+
+    loader.load(article);
+    assertThat(article.body).isEqualTo("body2");
+  }
+
+  @Test
+  public void shouldResetLoadedLazyColumnsWhenRefillingWithReflection() throws Exception {
+    Cursor c = db.query("articles", testSubject.getProjection(PrivateArticle.class), null, null, null, null, "id");
+    c.moveToFirst();
+    LazyLoader<PrivateArticle> loader = testSubject.newLazyLoader(db, "articles", PrivateArticle.class, "id");
+    PrivateArticle article = loader.load(testSubject.fromCursor(c, PrivateArticle.class));
+    assertThat(article.body).isEqualTo("body1");
+
+    c.moveToNext();
+    testSubject.fromCursor(c, article);
+    c.close();
+
+    assertThat(article.id).isEqualTo(2);
+    assertThat(article.body).isNull();
+    assertThat(loader.isLoaded(article)).isFalse();
+    assertThat(testSubject.toContentValues(article).containsKey("body")).isFalse();
+  }
+
+  @Test
+  public void shouldWriteNullToLoadedLazyColumn() throws Exception {
+    Article article = queryArticles(Article.class).get(0);
+    testSubject.newLazyLoader(db, "articles", Article.class, "id").load(article);
+    article.body = null;
+
+    ContentValues values = testSubject.toContentValues(article);
+    assertThat(values.containsKey("body")).isTrue();
+    db.update("articles", values, "id = ?", new String[] { "1" });
+
+    Cursor c = db.rawQuery("SELECT body FROM articles WHERE id = 1", null);
+    c.moveToFirst();
+    assertThat(c.isNull(0)).isTrue();
+    c.close();
+  }
+
+  @Test
+  public void shouldKeepLazyValuesSetBeforeLoading() throws Exception {
+    Article article = queryArticles(Article.class).get(0);
+    article.body = "changed";
+    LazyLoader<Article> loader = testSubject.newLazyLoader(db, "articles", Article.class, "id");
+
+    assertThat(loader.isLoaded(article)).isFalse();
+    loader.load(article);
+
+    assertThat(article.body).isEqualTo("changed");
+    assertThat(article.thumbnail).isEqualTo(new byte[] { 1 });
+    assertThat(testSubject.toContentValues(article).getAsString("body")).isEqualTo("changed");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowLazyPrimitiveColumns() throws Exception {
+    testSubject.getProjection(LazyPrimitive.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRequireEagerIdColumn() throws Exception {
+    testSubject.newLazyLoader(db, "articles", Article.class, "body");
+  }
+
+  private <T> List<T> queryArticles(Class<T> klass) {
+    Cursor c = db.query("articles", testSubject.getProjection(klass), null, null, null, null, "id");
+    try {
+      return testSubject.listFromCursor(c, klass);
+    } finally {
+      c.close();
+    }
+  }
+
+  public static class Article {
+    @Column("id")
+    public long id;
+
+    @Column("title")
+    public String title;
+
+    @Column(value = "body", lazy = true)
+    public String body;
+
+    @Column(value = "thumbnail", lazy = true)
+    public byte[] thumbnail;
+  }
+
+  public static class PrivateArticle {
+    @Column("id")
+    private long id;
+
+    @Column("title")
+    private String title;
+
+    @Column(value = "body", lazy = true)
+    private String body;
+  }
+
+  public static class ArticleWithContent {
+    @Column("id")
+    public long id;
+
+    @Embedded
+    public Content content;
+  }
+
+  public static class Content {
+    @Column("title")
+    public String title;
+
+    @Column(value = "body", lazy = true)
+    public String body;
+  }
+
+  public static class LazyPrimitive {
+    @Column(value = "id", lazy = true)
+    long id;
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.chalup.microorm.LazyValue;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.TypeAdapter;
+import org.chalup.microorm.annotations.Column;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class LazyValueTest {
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+  private DocumentAdapter documentAdapter;
+
+  @Before
+  public void setUp() throws Exception {
+    documentAdapter = new DocumentAdapter();
+    testSubject = new MicroOrm.Builder()
+        .registerTypeAdapter(Document.class, documentAdapter)
+        .build();
+
+    cursor = new MatrixCursor(new String[] { "title", "document" });
+    cursor.addRow(new Object[] { "first", "a|b" });
+    cursor.addRow(new Object[] { "second", "c|d|e" });
+    cursor.addRow(new Object[] { "third", null });
+  }
+
+  @Test
+  public void shouldNotDecodeValuesWhenConvertingRows() throws Exception {
+    List<Item> items = testSubject.listFromCursor(cursor, Item.class);
+
+    assertThat(items).hasSize(3);
+    assertThat(items.get(0).document.isDecoded()).isFalse();
+    assertThat(documentAdapter.decodeCount).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldDecodeValueOnceOnFirstAccess() throws Exception {
+    Item item = testSubject.listFromCursor(cursor, Item.class).get(1);
+
+    Document document = item.document.get();
+
+    assertThat(document.parts).asList().containsExactly("c", "d", "e").inOrder();
+    assertThat(item.document.get()).isSameAs(document);
+    assertThat(item.document.isDecoded()).isTrue();
+    assertThat(documentAdapter.decodeCount).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldDecodeValueWithReflectiveAdapter() throws Exception {
+    PrivateItem item = testSubject.listFromCursor(cursor, PrivateItem.class).get(0);
+
+    assertThat(item.document.get().parts).asList().containsExactly("a", "b").inOrder();
+  }
+
+  @Test
+  public void shouldReadNullColumnAsNullField() throws Exception {
+    assertThat(testSubject.listFromCursor(cursor, Item.class).get(2).document).isNull();
+    assertThat(testSubject.listFromCursor(cursor, PrivateItem.class).get(2).document).isNull();
+  }
+
+  @Test
+  public void shouldWriteBackRawValueIfNotDecoded() throws Exception {
+    Item item = testSubject.listFromCursor(cursor, Item.class).get(0);
+
+    ContentValues values = testSubject.toContentValues(item);
+
+    assertThat(values.getAsString("document")).isEqualTo("a|b");
+    assertThat(documentAdapter.decodeCount).isEqualTo(0);
+    assertThat(documentAdapter.encodeCount).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldEncodeDecodedValue() throws Exception {
+    Item item = testSubject.listFromCursor(cursor, Item.class).get(0);
+    item.document.get().parts[0] = "changed";
+
+    ContentValues values = testSubject.toContentValues(item);
+
+    assertThat(values.getAsString("document")).isEqualTo("changed|b");
+  }
+
+  @Test
+  public void shouldEncodeValueCreatedWithOf() throws Exception {
+    PrivateItem item = new PrivateItem();
+    item.document = LazyValue.of(new Document(new String[] { "x", "y" }));
+
+    assertThat(testSubject.toContentValues(item).getAsString("document")).isEqualTo("x|y");
+  }
+
+  @Test
+  public void shouldKeepRawValueTypeWhenInserting() throws Exception {
+    SQLiteDatabase db = SQLiteDatabase.create(null);
+    try {
+      db.execSQL("CREATE TABLE items (title TEXT, document)");
+      MatrixCursor blobCursor = new MatrixCursor(new String[] { "title", "document" });
+      blobCursor.addRow(new Object[] { "blob", new byte[] { 1, 2 } });
+      List<PrivateItem> items = testSubject.listFromCursor(blobCursor, PrivateItem.class);
+
+      testSubject.insertAll(db, "items", PrivateItem.class, items);
+
+      Cursor c = db.rawQuery("SELECT typeof(document) FROM items", null);
+      c.moveToFirst();
+      assertThat(c.getString(0)).isEqualTo("blob");
+      c.close();
+    } finally {
+      db.close();
+    }
+  }
+
+  @Test
+  public void shouldReadLazyValueColumnsIntoColumnTable() throws Exception {
+    Object[] documents = testSubject.columnsFromCursor(cursor, Item.class).getObjects("document");
+
+    assertThat(((LazyValue<?>) documents[1]).get()).isInstanceOf(Document.class);
+    assertThat(documents[2]).isNull();
+  }
+
+  public static class Item {
+    @Column("title")
+    public String title;
+
+    @Column("document")
+    public LazyValue<Document> document;
+  }
+
+  public static class PrivateItem {
+    @Column("title")
+    private String title;
+
+    @Column("document")
+    private LazyValue<Document> document;
+  }
+
+  public static class Document {
+    final String[] parts;
+
+    Document(String[] parts) {
+      this.parts = parts;
+    }
+  }
+
+  public static class DocumentAdapter implements TypeAdapter<Document> {
+    int decodeCount;
+    int encodeCount;
+
+    @Override
+    public Document fromCursor(Cursor c, String columnName) {
+      decodeCount++;
+      return new Document(c.getString(c.getColumnIndexOrThrow(columnName)).split("\\|"));
+    }
+
+    @Override
+    public void toContentValues(ContentValues values, String columnName, Document object) {
+      encodeCount++;
+      StringBuilder builder = new StringBuilder();
+      for (String part : object.parts) {
+        builder.append(builder.length() == 0 ? "" : "|").append(part);
+      }
+      values.put(columnName, builder.toString());
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.chalup.microorm.MetricsCollector;
+import org.chalup.microorm.MetricsCollector.ClassMetrics;
+import org.chalup.microorm.MetricsListener.Operation;
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.database.MatrixCursor;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class MetricsTest {
+
+  private MetricsCollector metrics;
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    metrics = new MetricsCollector();
+    testSubject = new MicroOrm.Builder()
+        .metricsListener(metrics)
+        .build();
+
+    cursor = new MatrixCursor(new String[] { "name" });
+    for (int i = 0; i != 5; i++) {
+      cursor.addRow(new Object[] { "row" + i });
+    }
+    cursor.moveToFirst();
+  }
+
+  @Test
+  public void shouldNotRecordAnythingBeforeFirstOperation() throws Exception {
+    assertThat(metrics.getMetrics(Entity.class)).isNull();
+    assertThat(metrics.getAllMetrics()).isEmpty();
+  }
+
+  @Test
+  public void shouldCountOperations() throws Exception {
+    testSubject.fromCursor(cursor, Entity.class);
+    testSubject.fromCursor(cursor, new Entity());
+    testSubject.toContentValues(new Entity());
+    testSubject.listFromCursor(cursor, Entity.class);
+
+    ClassMetrics entityMetrics = metrics.getMetrics(Entity.class);
+    assertThat(entityMetrics.getCount(Operation.FROM_CURSOR)).isEqualTo(2);
+    assertThat(entityMetrics.getCount(Operation.TO_CONTENT_VALUES)).isEqualTo(1);
+    assertThat(entityMetrics.getCount(Operation.LIST_FROM_CURSOR)).isEqualTo(1);
+    assertThat(entityMetrics.getRowCount(Operation.LIST_FROM_CURSOR)).isEqualTo(5);
+    assertThat(entityMetrics.getCount(Operation.BUILD_ADAPTER)).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldCountRowsConvertedInBackgroundAndInParallel() throws Exception {
+    testSubject.parallelListFromCursor(cursor, Entity.class, MoreExecutors.sameThreadExecutor());
+    testSubject.listFromCursorAsync(cursor, Entity.class, MoreExecutors.sameThreadExecutor()).get();
+    testSubject.listFromCursorAsync(null, Entity.class, MoreExecutors.sameThreadExecutor()).get();
+
+    ClassMetrics entityMetrics = metrics.getMetrics(Entity.class);
+    assertThat(entityMetrics.getCount(Operation.PARALLEL_LIST_FROM_CURSOR)).isEqualTo(1);
+    assertThat(entityMetrics.getRowCount(Operation.PARALLEL_LIST_FROM_CURSOR)).isEqualTo(5);
+    assertThat(entityMetrics.getCount(Operation.LIST_FROM_CURSOR_ASYNC)).isEqualTo(2);
+    assertThat(entityMetrics.getRowCount(Operation.LIST_FROM_CURSOR_ASYNC)).isEqualTo(5);
+    assertThat(entityMetrics.getCount(Operation.LIST_FROM_CURSOR)).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldCountIteratedRowsAtTheEndOfIteration() throws Exception {
+    Iterable<Entity> entities = testSubject.iterate(cursor, Entity.class);
+    for (Entity entity : entities) {
+      assertThat(metrics.getMetrics(Entity.class).getCount(Operation.ITERATE)).isEqualTo(0);
+    }
+    for (Entity entity : testSubject.iterateRecycling(cursor, Entity.class)) {
+      assertThat(entity.name).isNotNull();
+    }
+
+    ClassMetrics entityMetrics = metrics.getMetrics(Entity.class);
+    assertThat(entityMetrics.getCount(Operation.ITERATE)).isEqualTo(2);
+    assertThat(entityMetrics.getRowCount(Operation.ITERATE)).isEqualTo(10);
+  }
+
+  @Test
+  public void shouldCountAdapterCacheHitsAndMisses() throws Exception {
+    testSubject.fromCursor(cursor, Entity.class);
+    testSubject.fromCursor(cursor, Entity.class);
+    testSubject.fromCursor(cursor, Entity.class);
+
+    ClassMetrics entityMetrics = metrics.getMetrics(Entity.class);
+    assertThat(entityMetrics.getCacheMisses()).isEqualTo(1);
+    assertThat(entityMetrics.getCacheHits()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldRecordLatencyHistogram() throws Exception {
+    for (int i = 0; i != 10; i++) {
+      testSubject.fromCursor(cursor, Entity.class);
+    }
+
+    ClassMetrics entityMetrics = metrics.getMetrics(Entity.class);
+    long[] histogram = entityMetrics.getLatencyHistogram(Operation.FROM_CURSOR);
+    assertThat(histogram).hasLength(MetricsCollector.HISTOGRAM_BUCKETS);
+
+    long total = 0;
+    for (long count : histogram) {
+      total += count;
+    }
+    assertThat(total).isEqualTo(10);
+    assertThat(entityMetrics.getTotalNanos(Operation.FROM_CURSOR)).isGreaterThan(0L);
+  }
+
+  public static class Entity {
+    @Column("name")
+    public String name;
+  }
+}
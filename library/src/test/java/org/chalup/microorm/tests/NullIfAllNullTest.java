@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.MatrixCursor;
+
+import java.util.Iterator;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class NullIfAllNullTest {
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    cursor = new MatrixCursor(new String[] { "id", "street", "number", "zip" });
+    cursor.addRow(new Object[] { 1, "Main", 12, "00-001" });
+    cursor.addRow(new Object[] { 2, null, null, null });
+    cursor.addRow(new Object[] { 3, "Side", null, null });
+    cursor.addRow(new Object[] { 4, null, null, "00-002" });
+  }
+
+  @Test
+  public void shouldLeaveEmbeddedFieldNullWhenAllColumnsAreNull() throws Exception {
+    List<Person> persons = testSubject.listFromCursor(cursor, Person.class);
+
+    assertThat(persons.get(0).address.street).isEqualTo("Main");
+    assertThat(persons.get(0).address.number).isEqualTo(12);
+    assertThat(persons.get(0).address.postal.zip).isEqualTo("00-001");
+    assertThat(persons.get(1).id).isEqualTo(2);
+    assertThat(persons.get(1).address).isNull();
+  }
+
+  @Test
+  public void shouldLeaveNestedEmbeddedFieldNullWhenAllItsColumnsAreNull() throws Exception {
+    List<Person> persons = testSubject.listFromCursor(cursor, Person.class);
+
+    assertThat(persons.get(2).address.street).isEqualTo("Side");
+    assertThat(persons.get(2).address.postal).isNull();
+    assertThat(persons.get(3).address.street).isNull();
+    assertThat(persons.get(3).address.postal.zip).isEqualTo("00-002");
+  }
+
+  @Test
+  public void shouldLeaveEmbeddedFieldNullWithReflectiveAdapter() throws Exception {
+    List<PrivatePerson> persons = testSubject.listFromCursor(cursor, PrivatePerson.class);
+
+    assertThat(persons.get(0).address.street).isEqualTo("Main");
+    assertThat(persons.get(0).address.postal.zip).isEqualTo("00-001");
+    assertThat(persons.get(1).address).isNull();
+    assertThat(persons.get(2).address.postal).isNull();
+    assertThat(persons.get(3).address.postal.zip).isEqualTo("00-002");
+  }
+
+  @Test
+  public void shouldNotInitializeEmbeddedFieldInNewInstance() throws Exception {
+    assertThat(testSubject.newObjectPool(Person.class, 1).acquire().address).isNull();
+    assertThat(testSubject.newObjectPool(PrivatePerson.class, 1).acquire().address).isNull();
+  }
+
+  @Test
+  public void shouldSetEmbeddedFieldToNullWhenRecycling() throws Exception {
+    Iterator<Person> iterator = testSubject.iterateRecycling(cursor, Person.class).iterator();
+
+    Person first = iterator.next();
+    assertThat(first.address.street).isEqualTo("Main");
+
+    Person second = iterator.next();
+    assertThat(second).isSameAs(first);
+    assertThat(second.address).isNull();
+
+    Person third = iterator.next();
+    assertThat(third.address.street).isEqualTo("Side");
+    assertThat(third.address.postal).isNull();
+  }
+
+  @Test
+  public void shouldSetEmbeddedFieldToNullWhenRecyclingWithReflectiveAdapter() throws Exception {
+    Iterator<PrivatePerson> iterator = testSubject.iterateRecycling(cursor, PrivatePerson.class).iterator();
+
+    assertThat(iterator.next().address.street).isEqualTo("Main");
+    assertThat(iterator.next().address).isNull();
+    assertThat(iterator.next().address.postal).isNull();
+  }
+
+  @Test
+  public void shouldPutNullsForNullEmbeddedField() throws Exception {
+    Person person = new Person();
+    person.id = 5;
+
+    ContentValues values = testSubject.toContentValues(person);
+
+    assertThat(values.getAsInteger("id")).isEqualTo(5);
+    assertThat(values.containsKey("street")).isTrue();
+    assertThat(values.get("street")).isNull();
+    assertThat(values.containsKey("zip")).isTrue();
+    assertThat(values.get("zip")).isNull();
+  }
+
+  public static class Person {
+    @Column("id")
+    public int id;
+
+    @Embedded(nullIfAllNull = true)
+    public Address address;
+  }
+
+  public static class Address {
+    @Column("street")
+    public String street;
+
+    @Column("number")
+    public int number;
+
+    @Embedded(nullIfAllNull = true)
+    public Postal postal;
+  }
+
+  public static class Postal {
+    @Column("zip")
+    public String zip;
+  }
+
+  public static class PrivatePerson {
+    @Column("id")
+    private int id;
+
+    @Embedded(nullIfAllNull = true)
+    private PrivateAddress address;
+  }
+
+  public static class PrivateAddress {
+    @Column("street")
+    private String street;
+
+    @Column("number")
+    private int number;
+
+    @Embedded(nullIfAllNull = true)
+    private Postal postal;
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.fest.assertions.api.ANDROID.assertThat;
+import static org.fest.assertions.api.android.content.ContentValuesEntry.entry;
+
+import com.google.common.collect.ImmutableList;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.OperationBatch;
+import org.chalup.microorm.annotations.Column;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentValues;
+import android.net.Uri;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class OperationBatchTest {
+
+  private static final Uri PARENTS_URI = Uri.parse("content://authority/parents");
+  private static final Uri CHILDREN_URI = Uri.parse("content://authority/children");
+
+  private OperationBatch testSubject;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm().newOperationBatch(3);
+  }
+
+  @Test
+  public void shouldBuildInsertOperationsWithObjectValues() throws Exception {
+    testSubject.insertAll(PARENTS_URI, ImmutableList.of(new Parent("first"), new Parent("second")));
+
+    List<ContentProviderOperation> operations = testSubject.build();
+
+    assertThat(operations).hasSize(2);
+    assertThat(operations.get(0).getUri()).isEqualTo(PARENTS_URI);
+    assertThat(resolveValues(operations, 0)).contains(entry("name", "first"));
+    assertThat(resolveValues(operations, 1)).contains(entry("name", "second"));
+  }
+
+  @Test
+  public void shouldResolveBackReferenceToPreviousOperation() throws Exception {
+    int parentIndex = testSubject.insert(PARENTS_URI, new Parent("parent"));
+    int childIndex = testSubject.insert(CHILDREN_URI, new Child("child"), "parent_id", parentIndex);
+
+    List<ContentProviderOperation> operations = testSubject.build();
+    ContentProviderResult[] results = { new ContentProviderResult(Uri.withAppendedPath(PARENTS_URI, "42")) };
+
+    ContentValues childValues = operations.get(childIndex).resolveValueBackReferences(results, childIndex);
+    assertThat(childValues).contains(entry("parent_id", 42L), entry("name", "child"));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void shouldNotAllowBackReferencesToSubsequentOperations() throws Exception {
+    testSubject.insert(CHILDREN_URI, new Child("child"), "parent_id", 0);
+  }
+
+  @Test
+  public void shouldAddYieldPoints() throws Exception {
+    for (int i = 0; i != 7; i++) {
+      testSubject.insert(PARENTS_URI, new Parent("parent" + i));
+    }
+
+    List<ContentProviderOperation> operations = testSubject.build();
+
+    for (int i = 0; i != operations.size(); i++) {
+      assertThat(operations.get(i).isYieldAllowed()).isEqualTo(i == 3 || i == 6);
+    }
+  }
+
+  @Test
+  public void shouldBuildUpdateAndDeleteOperations() throws Exception {
+    int updateIndex = testSubject.update(PARENTS_URI, new Parent("updated"), "name = ?", new String[] { "old" });
+    int deleteIndex = testSubject.delete(CHILDREN_URI, null, null);
+
+    List<ContentProviderOperation> operations = testSubject.build();
+
+    assertThat(testSubject.size()).isEqualTo(2);
+    assertThat(resolveValues(operations, updateIndex)).contains(entry("name", "updated"));
+    assertThat(operations.get(deleteIndex).getUri()).isEqualTo(CHILDREN_URI);
+    assertThat(resolveValues(operations, deleteIndex)).isNull();
+  }
+
+  private static ContentValues resolveValues(List<ContentProviderOperation> operations, int index) {
+    return operations.get(index).resolveValueBackReferences(new ContentProviderResult[0], index);
+  }
+
+  public static class Parent {
+    @Column("name")
+    public String name;
+
+    public Parent() {
+    }
+
+    Parent(String name) {
+      this.name = name;
+    }
+  }
+
+  public static class Child {
+    @Column(value = "parent_id", treatNullAsDefault = true)
+    public Long parentId;
+
+    @Column("name")
+    public String name;
+
+    public Child() {
+    }
+
+    Child(String name) {
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Objects;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+import org.chalup.microorm.tests.CustomTypeAdapterTest.CustomType;
+import org.chalup.microorm.tests.CustomTypeAdapterTest.CustomTypeAdapter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.database.MatrixCursor;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ParallelListFromCursorTest {
+
+  private static final Executor FORBIDDEN_EXECUTOR = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      throw new AssertionError("Should convert the cursor on the calling thread");
+    }
+  };
+
+  private MicroOrm testSubject;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdown();
+  }
+
+  @Test
+  public void shouldReturnTheSameObjectsAsListFromCursor() throws Exception {
+    MatrixCursor cursor = buildCursor(5000);
+
+    List<Entity> reference = testSubject.listFromCursor(cursor, Entity.class);
+    List<Entity> result = testSubject.parallelListFromCursor(cursor, Entity.class, executor, 4);
+
+    assertThat(result).containsExactlyElementsIn(reference).inOrder();
+  }
+
+  @Test
+  public void shouldReturnTheSameObjectsAsListFromCursorWithReflectiveAdapter() throws Exception {
+    MatrixCursor cursor = buildCursor(5000);
+
+    List<PrivateEntity> reference = testSubject.listFromCursor(cursor, PrivateEntity.class);
+    List<PrivateEntity> result = testSubject.parallelListFromCursor(cursor, PrivateEntity.class, executor, 4);
+
+    assertThat(result).containsExactlyElementsIn(reference).inOrder();
+  }
+
+  @Test
+  public void shouldConvertSmallCursorOnCallingThread() throws Exception {
+    MatrixCursor cursor = buildCursor(10);
+
+    assertThat(testSubject.parallelListFromCursor(cursor, Entity.class, FORBIDDEN_EXECUTOR, 4)).hasSize(10);
+  }
+
+  @Test
+  public void shouldConvertCursorSmallerThanTwoConfiguredChunksOnCallingThread() throws Exception {
+    MicroOrm microOrm = new MicroOrm.Builder()
+        .minParallelChunkSize(1000)
+        .build();
+    MatrixCursor cursor = buildCursor(1999);
+
+    assertThat(microOrm.parallelListFromCursor(cursor, Entity.class, FORBIDDEN_EXECUTOR, 4)).hasSize(1999);
+  }
+
+  @Test
+  public void shouldSplitCursorIntoConfiguredChunks() throws Exception {
+    MicroOrm microOrm = new MicroOrm.Builder()
+        .minParallelChunkSize(10)
+        .build();
+    MatrixCursor cursor = buildCursor(100);
+    final AtomicInteger tasks = new AtomicInteger();
+    Executor countingExecutor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        tasks.incrementAndGet();
+        command.run();
+      }
+    };
+
+    List<Entity> result = microOrm.parallelListFromCursor(cursor, Entity.class, countingExecutor, 4);
+
+    assertThat(result).containsExactlyElementsIn(testSubject.listFromCursor(cursor, Entity.class)).inOrder();
+    // the first chunk is converted on the calling thread
+    assertThat(tasks.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldConvertObjectsWithCustomTypesOnCallingThread() throws Exception {
+    MicroOrm microOrm = new MicroOrm.Builder()
+        .registerTypeAdapter(CustomType.class, new CustomTypeAdapter())
+        .build();
+    MatrixCursor cursor = new MatrixCursor(new String[] { "TEST_COLUMN" });
+    for (int i = 0; i != 5000; i++) {
+      cursor.addRow(new Object[] { i });
+    }
+
+    assertThat(microOrm.parallelListFromCursor(cursor, CustomTypeAdapterTest.DaoWithCustomType.class, FORBIDDEN_EXECUTOR, 4)).hasSize(5000);
+  }
+
+  @Test
+  public void shouldHandleNullCursor() throws Exception {
+    assertThat(testSubject.parallelListFromCursor(null, Entity.class, executor)).isEmpty();
+  }
+
+  private static MatrixCursor buildCursor(int rowCount) {
+    MatrixCursor cursor = new MatrixCursor(new String[] { "id", "name", "price", "active", "ratio", "count" });
+    for (int i = 0; i != rowCount; i++) {
+      cursor.addRow(new Object[] {
+          (long) i,
+          i % 7 == 0 ? null : "name" + i,
+          i % 5 == 0 ? null : i * 0.5,
+          i % 2,
+          i * 0.25f,
+          i % 3 == 0 ? null : i
+      });
+    }
+    return cursor;
+  }
+
+  public static class Entity {
+    @Column("id")
+    public long id;
+
+    @Column("name")
+    public String name;
+
+    @Column("price")
+    public Double price;
+
+    @Column("active")
+    public boolean active;
+
+    @Embedded
+    public Details details;
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      Entity that = (Entity) o;
+      return id == that.id
+          && active == that.active
+          && Objects.equal(name, that.name)
+          && Objects.equal(price, that.price)
+          && Objects.equal(details, that.details);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(id, name, price, active, details);
+    }
+  }
+
+  public static class Details {
+    @Column("ratio")
+    public float ratio;
+
+    @Column("count")
+    public Integer count;
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      Details that = (Details) o;
+      return ratio == that.ratio && Objects.equal(count, that.count);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(ratio, count);
+    }
+  }
+
+  public static class PrivateEntity {
+    @Column("id")
+    private long id;
+
+    @Column("name")
+    private String name;
+
+    @Column("price")
+    private Double price;
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      PrivateEntity that = (PrivateEntity) o;
+      return id == that.id && Objects.equal(name, that.name) && Objects.equal(price, that.price);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(id, name, price);
+    }
+  }
+}
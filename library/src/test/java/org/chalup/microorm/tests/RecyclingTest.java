@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Lists;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.ObjectPool;
+import org.chalup.microorm.annotations.Column;
+import org.chalup.microorm.annotations.Embedded;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.database.MatrixCursor;
+
+import java.util.Iterator;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class RecyclingTest {
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    cursor = new MatrixCursor(new String[] { "id", "name" });
+    for (int i = 0; i != 5; i++) {
+      cursor.addRow(new Object[] { i, "row" + i });
+    }
+  }
+
+  @Test
+  public void shouldReuseTheSameObjectForEveryRow() throws Exception {
+    Iterator<Row> iterator = testSubject.iterateRecycling(cursor, Row.class).iterator();
+
+    Row first = iterator.next();
+    Details firstEmbedded = first.embedded;
+    assertThat(first.id).isEqualTo(0);
+    assertThat(first.embedded.name).isEqualTo("row0");
+
+    Row second = iterator.next();
+    assertThat(second).isSameAs(first);
+    assertThat(second.embedded).isSameAs(firstEmbedded);
+    assertThat(second.id).isEqualTo(1);
+    assertThat(second.embedded.name).isEqualTo("row1");
+  }
+
+  @Test
+  public void shouldReuseTheSameObjectForEveryRowWithReflectiveAdapter() throws Exception {
+    Iterator<PrivateRow> iterator = testSubject.iterateRecycling(cursor, PrivateRow.class).iterator();
+
+    PrivateRow first = iterator.next();
+    PrivateDetails firstEmbedded = first.embedded;
+    assertThat(first.id).isEqualTo(0);
+    assertThat(first.embedded.name).isEqualTo("row0");
+
+    PrivateRow second = iterator.next();
+    assertThat(second).isSameAs(first);
+    assertThat(second.embedded).isSameAs(firstEmbedded);
+    assertThat(second.id).isEqualTo(1);
+    assertThat(second.embedded.name).isEqualTo("row1");
+  }
+
+  @Test
+  public void shouldVisitAllRowsWhenRecycling() throws Exception {
+    int count = 0;
+    for (Row row : testSubject.iterateRecycling(cursor, Row.class)) {
+      assertThat(row.id).isEqualTo(count++);
+    }
+    assertThat(count).isEqualTo(5);
+  }
+
+  @Test
+  public void shouldReinitializeNulledEmbeddedObject() throws Exception {
+    Iterator<Row> iterator = testSubject.iterateRecycling(cursor, Row.class).iterator();
+
+    iterator.next().embedded = null;
+
+    assertThat(iterator.next().embedded.name).isEqualTo("row1");
+  }
+
+  @Test
+  public void shouldReuseObjectsReleasedToPool() throws Exception {
+    ObjectPool<Row> pool = testSubject.newObjectPool(Row.class, 2);
+    Iterator<Row> iterator = testSubject.iterate(cursor, pool).iterator();
+
+    Row first = iterator.next();
+    Row second = iterator.next();
+    assertThat(second).isNotSameAs(first);
+
+    pool.release(first);
+    Row third = iterator.next();
+    assertThat(third).isSameAs(first);
+    assertThat(third.id).isEqualTo(2);
+    assertThat(third.embedded.name).isEqualTo("row2");
+  }
+
+  @Test
+  public void shouldNotGrowPoolAboveMaxSize() throws Exception {
+    ObjectPool<Row> pool = testSubject.newObjectPool(Row.class, 1);
+    List<Row> rows = Lists.newArrayList(testSubject.iterate(cursor, pool));
+
+    for (Row row : rows) {
+      pool.release(row);
+    }
+
+    assertThat(pool.acquire()).isSameAs(rows.get(0));
+    assertThat(rows).doesNotContain(pool.acquire());
+  }
+
+  public static class Row {
+    @Column("id")
+    public int id;
+
+    @Embedded
+    public Details embedded;
+  }
+
+  public static class Details {
+    @Column("name")
+    public String name;
+  }
+
+  public static class PrivateRow {
+    @Column("id")
+    private int id;
+
+    @Embedded
+    private PrivateDetails embedded;
+  }
+
+  public static class PrivateDetails {
+    @Column("name")
+    private String name;
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.content.ContentValues;
+import android.database.CharArrayBuffer;
+import android.database.MatrixCursor;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class StringBufferColumnsTest {
+
+  private static final String LONG_TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor";
+
+  private MicroOrm testSubject;
+  private MatrixCursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    cursor = new MatrixCursor(new String[] { "title", "subtitle" });
+    cursor.addRow(new Object[] { "first", "one" });
+    cursor.addRow(new Object[] { LONG_TEXT, LONG_TEXT });
+    cursor.addRow(new Object[] { null, null });
+    cursor.moveToFirst();
+  }
+
+  @Test
+  public void shouldReadStringColumnsIntoBuffers() throws Exception {
+    Item item = testSubject.fromCursor(cursor, Item.class);
+
+    assertThat(toString(item.title)).isEqualTo("first");
+    assertThat(item.subtitle.toString()).isEqualTo("one");
+  }
+
+  @Test
+  public void shouldReuseBuffersWhenFillingExistingObject() throws Exception {
+    Item item = testSubject.fromCursor(cursor, Item.class);
+    CharArrayBuffer title = item.title;
+    StringBuilder subtitle = item.subtitle;
+
+    cursor.moveToNext();
+    testSubject.fromCursor(cursor, item);
+
+    assertThat(item.title).isSameAs(title);
+    assertThat(item.subtitle).isSameAs(subtitle);
+    assertThat(toString(item.title)).isEqualTo(LONG_TEXT);
+    assertThat(item.subtitle.toString()).isEqualTo(LONG_TEXT);
+  }
+
+  @Test
+  public void shouldReuseBuffersWithReflectiveAdapter() throws Exception {
+    PrivateItem item = testSubject.fromCursor(cursor, PrivateItem.class);
+    CharArrayBuffer title = item.title;
+
+    cursor.moveToNext();
+    testSubject.fromCursor(cursor, item);
+
+    assertThat(item.title).isSameAs(title);
+    assertThat(toString(item.title)).isEqualTo(LONG_TEXT);
+  }
+
+  @Test
+  public void shouldReadNullAsNull() throws Exception {
+    Item item = testSubject.fromCursor(cursor, Item.class);
+
+    cursor.moveToLast();
+    testSubject.fromCursor(cursor, item);
+
+    assertThat(item.title).isNull();
+    assertThat(item.subtitle).isNull();
+  }
+
+  @Test
+  public void shouldWriteBackNullColumnsAsNull() throws Exception {
+    cursor.moveToLast();
+    Item item = testSubject.fromCursor(cursor, Item.class);
+
+    ContentValues values = testSubject.toContentValues(item);
+
+    assertThat(values.containsKey("title")).isTrue();
+    assertThat(values.get("title")).isNull();
+    assertThat(values.containsKey("subtitle")).isTrue();
+    assertThat(values.get("subtitle")).isNull();
+  }
+
+  @Test
+  public void shouldReuseBuffersWhenIteratingWithRecycling() throws Exception {
+    CharArrayBuffer title = null;
+    int rows = 0;
+    for (Item item : testSubject.iterateRecycling(cursor, Item.class)) {
+      if (item.title == null) {
+        // the NULL row at the end
+        continue;
+      }
+      if (title == null) {
+        title = item.title;
+      }
+      assertThat(item.title).isSameAs(title);
+      rows++;
+    }
+    assertThat(rows).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldPutBufferContentsToContentValues() throws Exception {
+    Item item = new Item();
+    item.title = new CharArrayBuffer(new char[] { 'a', 'b', 'c' });
+    item.title.sizeCopied = 2;
+    item.subtitle = new StringBuilder("subtitle");
+
+    ContentValues values = testSubject.toContentValues(item);
+
+    assertThat(values.getAsString("title")).isEqualTo("ab");
+    assertThat(values.getAsString("subtitle")).isEqualTo("subtitle");
+  }
+
+  private static String toString(CharArrayBuffer buffer) {
+    return new String(buffer.data, 0, buffer.sizeCopied);
+  }
+
+  public static class Item {
+    @Column("title")
+    public CharArrayBuffer title;
+
+    @Column("subtitle")
+    public StringBuilder subtitle;
+  }
+
+  public static class PrivateItem {
+    @Column("title")
+    private CharArrayBuffer title;
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2013 Jerzy Chalupski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.chalup.microorm.tests;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.chalup.microorm.MicroOrm;
+import org.chalup.microorm.annotations.Column;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.database.AbstractWindowedCursor;
+import android.database.Cursor;
+import android.database.CursorWindow;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class WindowedCursorTest {
+
+  private static final int ROW_COUNT = 20;
+
+  private MicroOrm testSubject;
+  private SQLiteDatabase db;
+  private Cursor cursor;
+
+  @Before
+  public void setUp() throws Exception {
+    testSubject = new MicroOrm();
+
+    db = SQLiteDatabase.create(null);
+    db.execSQL("CREATE TABLE entities (id INTEGER, name TEXT, value REAL, data BLOB)");
+    for (int i = 0; i < ROW_COUNT; i++) {
+      db.execSQL("INSERT INTO entities VALUES (?, ?, ?, ?)", new Object[] { i, i % 3 == 0 ? null : "name" + i, i / 2.0, new byte[] { (byte) i } });
+    }
+    cursor = db.query("entities", null, null, null, null, null, "id");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    cursor.close();
+    db.close();
+  }
+
+  @Test
+  public void shouldConvertAllRowsOfWindowedCursor() throws Exception {
+    List<Entity> entities = testSubject.listFromCursor(cursor, Entity.class);
+
+    assertThat(entities).hasSize(ROW_COUNT);
+    for (int i = 0; i < ROW_COUNT; i++) {
+      assertEntity(entities.get(i), i);
+    }
+  }
+
+  @Test
+  public void shouldLeaveWindowedCursorAfterLastRow() throws Exception {
+    testSubject.listFromCursor(cursor, Entity.class);
+
+    assertThat(cursor.isAfterLast()).isTrue();
+  }
+
+  @Test
+  public void shouldConvertWindowedCursorAsynchronously() throws Exception {
+    List<Entity> entities = testSubject.listFromCursorAsync(cursor, Entity.class, MoreExecutors.sameThreadExecutor()).get();
+
+    assertThat(entities).hasSize(ROW_COUNT);
+    assertEntity(entities.get(ROW_COUNT - 1), ROW_COUNT - 1);
+    assertThat(cursor.isAfterLast()).isTrue();
+  }
+
+  @Test
+  public void shouldReadWindowedCursorIntoColumnTable() throws Exception {
+    long[] ids = testSubject.columnsFromCursor(cursor, Entity.class).getLongs("id");
+
+    List<Long> expected = Lists.newArrayList();
+    for (long i = 0; i < ROW_COUNT; i++) {
+      expected.add(i);
+    }
+    assertThat(Longs.asList(ids)).isEqualTo(expected);
+  }
+
+  @Test
+  public void shouldConvertRowsFromSubsequentWindows() throws Exception {
+    List<Entity> entities = testSubject.listFromCursor(new SmallWindowsCursor(cursor, 3), Entity.class);
+
+    assertThat(entities).hasSize(ROW_COUNT);
+    for (int i = 0; i < ROW_COUNT; i++) {
+      assertEntity(entities.get(i), i);
+    }
+  }
+
+  private static void assertEntity(Entity entity, int i) {
+    assertThat(entity.id).isEqualTo(i);
+    assertThat(entity.name).isEqualTo(i % 3 == 0 ? null : "name" + i);
+    assertThat(entity.value).isEqualTo(i / 2.0);
+    assertThat(entity.data).isEqualTo(new byte[] { (byte) i });
+  }
+
+  /**
+   * Copies the rows of the source {@link Cursor} into the windows holding
+   * only a few rows, like SQLiteCursor does for the large result sets.
+   */
+  private static class SmallWindowsCursor extends AbstractWindowedCursor {
+    private final Cursor mSource;
+    private final int mWindowSize;
+
+    SmallWindowsCursor(Cursor source, int windowSize) {
+      mSource = source;
+      mWindowSize = windowSize;
+    }
+
+    @Override
+    public int getCount() {
+      return mSource.getCount();
+    }
+
+    @Override
+    public String[] getColumnNames() {
+      return mSource.getColumnNames();
+    }
+
+    @Override
+    public boolean onMove(int oldPosition, int newPosition) {
+      if (mWindow != null && newPosition >= mWindow.getStartPosition() && newPosition < mWindow.getStartPosition() + mWindow.getNumRows()) {
+        return true;
+      }
+
+      CursorWindow window = new CursorWindow(false);
+      window.setStartPosition(newPosition);
+      window.setNumColumns(mSource.getColumnCount());
+      for (int row = newPosition; row < newPosition + mWindowSize && mSource.moveToPosition(row); row++) {
+        window.allocRow();
+        window.putLong(mSource.getLong(0), row, 0);
+        if (mSource.isNull(1)) {
+          window.putNull(row, 1);
+        } else {
+          window.putString(mSource.getString(1), row, 1);
+        }
+        window.putDouble(mSource.getDouble(2), row, 2);
+        window.putBlob(mSource.getBlob(3), row, 3);
+      }
+      setWindow(window);
+      return true;
+    }
+  }
+
+  public static class Entity {
+    @Column("id")
+    long id;
+
+    @Column("name")
+    String name;
+
+    @Column("value")
+    double value;
+
+    @Column("data")
+    byte[] data;
+  }
+}